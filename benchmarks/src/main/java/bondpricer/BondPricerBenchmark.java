@@ -0,0 +1,229 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Baseline benchmarks for the public {@link BondPricer} API.
+ *
+ * <p>Covers single price latency, pricing a block of yields against one
+ * settlement date, rolling the settlement date and the map based
+ * {@code getBondDetails} path for each {@link BondType}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BondPricerBenchmark {
+
+    static final int YIELDS = 256;
+    static final int SETTLEMENTS = 512;
+
+    @Param({ "R186", "R2032" })
+    private String bond;
+
+    private BondPricer pricer;
+    private BondPricer rollingPricer;
+    private BondPricer tablePricer;
+    private final PricingDetails pricingDetails = new PricingDetails();
+    private double[] yields;
+    private double[] cleanPrices;
+    private double[] allInPrices;
+    private double[] quotedPrices;
+    private double[] solvedYields;
+    private LocalDate[] settlementDates;
+    private int cursor;
+
+    /**
+     * Builds the pricers and the yield and settlement inputs.
+     */
+    @Setup
+    public void setUp() {
+        BondType bondType = BondType.valueOf(bond);
+        LocalDate settlementDate = LocalDate.of(2017, 2, 7);
+        pricer = new BondPricer(bondType, settlementDate);
+        rollingPricer = new BondPricer(bondType, settlementDate);
+        tablePricer = new BondPricer(bondType, settlementDate);
+        tablePricer.setSettlementTable(SettlementTable.build(bondType.getBondDetails(), settlementDate));
+
+        yields = new double[YIELDS];
+        for (int i = 0; i < YIELDS; i++) {
+            yields[i] = 6.0 + i * 0.01;
+        }
+        cleanPrices = new double[YIELDS];
+        allInPrices = new double[YIELDS];
+        quotedPrices = new double[YIELDS];
+        solvedYields = new double[YIELDS];
+        pricer.getBondPrices(yields, quotedPrices, allInPrices);
+        settlementDates = new LocalDate[SETTLEMENTS];
+        for (int i = 0; i < SETTLEMENTS; i++) {
+            settlementDates[i] = settlementDate.plusDays(i * 7L);
+        }
+    }
+
+    private double nextYield() {
+        cursor = (cursor + 1) & (YIELDS - 1);
+        return yields[cursor];
+    }
+
+    /**
+     * Single all-in price.
+     *
+     * @return the all-in price
+     */
+    @Benchmark
+    public double allInPrice() {
+        return pricer.getAllInPrice(nextYield());
+    }
+
+    /**
+     * Single clean price.
+     *
+     * @return the clean price
+     */
+    @Benchmark
+    public double cleanPrice() {
+        return pricer.getCleanPrice(nextYield());
+    }
+
+    /**
+     * Clean and all-in price pair.
+     *
+     * @return the price pair
+     */
+    @Benchmark
+    public double[] bondPrices() {
+        return pricer.getBondPrices(nextYield());
+    }
+
+    /**
+     * Prices a block of yields against a single settlement date.
+     *
+     * @param blackhole sink for the prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public void bondPricesManyYields(final Blackhole blackhole) {
+        for (int i = 0; i < YIELDS; i++) {
+            blackhole.consume(pricer.getBondPrices(yields[i]));
+        }
+    }
+
+    /**
+     * Prices a block of yields through the batch API.
+     *
+     * @return the last all-in price
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public double bondPricesBatch() {
+        pricer.getBondPrices(yields, cleanPrices, allInPrices);
+        return allInPrices[YIELDS - 1];
+    }
+
+    /**
+     * Prices together with duration, DV01 and convexity.
+     *
+     * @return the risk measures
+     */
+    @Benchmark
+    public RiskMeasures riskMeasures() {
+        return pricer.getRiskMeasures(nextYield());
+    }
+
+    /**
+     * Solves a single clean price for its yield.
+     *
+     * @return the yield
+     */
+    @Benchmark
+    public double yieldFromCleanPrice() {
+        cursor = (cursor + 1) & (YIELDS - 1);
+        return pricer.getYieldFromCleanPrice(quotedPrices[cursor]);
+    }
+
+    /**
+     * Solves a block of clean prices through the batch solver.
+     *
+     * @return the last yield
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public double yieldsFromCleanPricesBatch() {
+        pricer.getYieldsFromCleanPrices(quotedPrices, solvedYields);
+        return solvedYields[YIELDS - 1];
+    }
+
+    /**
+     * Moves the settlement date and prices once.
+     *
+     * @return the all-in price
+     */
+    @Benchmark
+    public double rollingSettlement() {
+        cursor = (cursor + 1) & (SETTLEMENTS - 1);
+        rollingPricer.setSettlementDate(settlementDates[cursor]);
+        return rollingPricer.getAllInPrice(yields[cursor & (YIELDS - 1)]);
+    }
+
+    /**
+     * Moves the settlement date only.
+     *
+     * @return the accrued interest
+     */
+    @Benchmark
+    public double setSettlementDate() {
+        cursor = (cursor + 1) & (SETTLEMENTS - 1);
+        rollingPricer.setSettlementDate(settlementDates[cursor]);
+        return rollingPricer.getAccruedInterest();
+    }
+
+    /**
+     * Moves the settlement date through a precomputed settlement table.
+     *
+     * @return the accrued interest
+     */
+    @Benchmark
+    public double setSettlementDateFromTable() {
+        cursor = (cursor + 1) & (SETTLEMENTS - 1);
+        tablePricer.setSettlementDate(settlementDates[cursor]);
+        return tablePricer.getAccruedInterest();
+    }
+
+    /**
+     * Map based details path.
+     *
+     * @return the bond details
+     */
+    @Benchmark
+    public Map<String, Object> bondDetails() {
+        return pricer.getBondDetails(nextYield());
+    }
+
+    /**
+     * Typed details path filling a reused instance.
+     *
+     * @return the pricing details
+     */
+    @Benchmark
+    public PricingDetails pricingDetails() {
+        return pricer.getPricingDetails(nextYield(), pricingDetails);
+    }
+}
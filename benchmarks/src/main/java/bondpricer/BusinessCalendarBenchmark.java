@@ -0,0 +1,116 @@
+package bondpricer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time per trade to convert trade dates to T+3 settlement dates with the
+ * {@link BusinessCalendar} bitset, against walking the days one at a time
+ * past weekends and a holiday set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BusinessCalendarBenchmark {
+
+    private static final int TRADES = 1 << 16;
+
+    private BusinessCalendar calendar;
+    private Set<LocalDate> holidays;
+    private long[] tradeDays;
+    private LocalDate[] tradeDates;
+
+    /**
+     * Builds random trade dates over ten years.
+     */
+    @Setup
+    public void setUp() {
+        calendar = BusinessCalendar.loadDefault();
+        holidays = new HashSet<>();
+        for (LocalDate date = calendar.getFirstDate(); !date.isAfter(calendar.getLastDate());
+                date = date.plusDays(1)) {
+            if (date.getDayOfWeek().getValue() < 6 && !calendar.isBusinessDay(date)) {
+                holidays.add(date);
+            }
+        }
+        Random random = new Random(1);
+        tradeDays = new long[TRADES];
+        tradeDates = new LocalDate[TRADES];
+        for (int i = 0; i < TRADES; i++) {
+            tradeDates[i] = LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3650));
+            tradeDays[i] = tradeDates[i].toEpochDay();
+        }
+    }
+
+    /**
+     * Converts epoch days with the bitset, without allocating.
+     *
+     * @return a checksum of the settlement days
+     */
+    @Benchmark
+    @OperationsPerInvocation(TRADES)
+    public long bitsetEpochDays() {
+        long sum = 0;
+        for (long tradeDay : tradeDays) {
+            sum += calendar.addBusinessDays(tradeDay, BusinessCalendar.SETTLEMENTDAYS);
+        }
+        return sum;
+    }
+
+    /**
+     * Converts dates with the bitset.
+     *
+     * @return a checksum of the settlement dates
+     */
+    @Benchmark
+    @OperationsPerInvocation(TRADES)
+    public long bitsetDates() {
+        long sum = 0;
+        for (LocalDate tradeDate : tradeDates) {
+            sum += calendar.getSettlementDate(tradeDate).getDayOfMonth();
+        }
+        return sum;
+    }
+
+    /**
+     * Converts dates by walking the days.
+     *
+     * @return a checksum of the settlement dates
+     */
+    @Benchmark
+    @OperationsPerInvocation(TRADES)
+    public long dayByDay() {
+        long sum = 0;
+        for (LocalDate tradeDate : tradeDates) {
+            LocalDate date = tradeDate;
+            for (int days = 0; days < BusinessCalendar.SETTLEMENTDAYS;) {
+                date = date.plusDays(1);
+                if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY
+                        && !holidays.contains(date)) {
+                    days++;
+                }
+            }
+            sum += date.getDayOfMonth();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,117 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time per yield to price random yields in the default band, exactly
+ * against from the fit of a {@link ChebyshevPricer}, and time to build the
+ * fit after a settlement date change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChebyshevPricerBenchmark {
+
+    private static final int YIELDS = 1024;
+
+    private SettlementSnapshot snapshot;
+    private ChebyshevPricer pricer;
+    private double[] yields;
+    private double[] cleanPrices;
+    private double[] allInPrices;
+
+    /**
+     * Builds the fit and the random yields.
+     */
+    @Setup
+    public void setUp() {
+        snapshot = SettlementSnapshot.of(BondRegistry.loadDefault().getRequired("R2040").details(),
+                LocalDate.of(2024, 5, 16));
+        pricer = ChebyshevPricer.build(snapshot, ChebyshevPricer.DEFAULTMINYIELD, ChebyshevPricer.DEFAULTMAXYIELD);
+        yields = new double[YIELDS];
+        Random random = new Random(1);
+        for (int i = 0; i < YIELDS; i++) {
+            yields[i] = 6.0 + random.nextInt(800000) / 100000.0;
+        }
+        cleanPrices = new double[YIELDS];
+        allInPrices = new double[YIELDS];
+    }
+
+    /**
+     * Prices every yield with the exact formula.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public void exact(final Blackhole blackhole) {
+        for (double yield : yields) {
+            blackhole.consume(snapshot.getAllInPrice(yield));
+        }
+    }
+
+    /**
+     * Prices every yield from the fit.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public void approximate(final Blackhole blackhole) {
+        for (double yield : yields) {
+            blackhole.consume(pricer.getAllInPrice(yield));
+        }
+    }
+
+    /**
+     * Prices the batch of yields with the exact formula.
+     *
+     * @return the all-in prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public double[] exactBatch() {
+        snapshot.getBondPrices(yields, cleanPrices, allInPrices);
+        return allInPrices;
+    }
+
+    /**
+     * Prices the batch of yields from the fit.
+     *
+     * @return the all-in prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(YIELDS)
+    public double[] approximateBatch() {
+        pricer.getBondPrices(yields, cleanPrices, allInPrices);
+        return allInPrices;
+    }
+
+    /**
+     * Builds the fit over the default band.
+     *
+     * @return the fit
+     */
+    @Benchmark
+    public ChebyshevPricer build() {
+        return ChebyshevPricer.build(snapshot, ChebyshevPricer.DEFAULTMINYIELD, ChebyshevPricer.DEFAULTMAXYIELD);
+    }
+}
@@ -0,0 +1,85 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fit a {@link ZeroCurve} to every registered bond, and to refit
+ * it when one bond's yield ticks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurveBootstrapperBenchmark {
+
+    private static final LocalDate SETTLEMENTDATE = LocalDate.of(2024, 5, 16);
+
+    private List<Bond> bonds;
+    private Map<String, Double> yields;
+    private CurveBootstrapper bootstrapper;
+    private int cursor;
+
+    /**
+     * Builds the market yields and fits the curve once.
+     */
+    @Setup
+    public void setUp() {
+        bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        yields = new HashMap<>();
+        for (int i = 0; i < bonds.size(); i++) {
+            yields.put(bonds.get(i).name(), 8.0 + i * 0.35);
+        }
+        bootstrapper = new CurveBootstrapper(bonds, SETTLEMENTDATE);
+        bootstrapper.fit(yields);
+    }
+
+    /**
+     * Prepares the cash flows and fits the curve from scratch.
+     *
+     * @return the curve
+     */
+    @Benchmark
+    public ZeroCurve fullFit() {
+        return new CurveBootstrapper(bonds, SETTLEMENTDATE).fit(yields);
+    }
+
+    /**
+     * Refits the prepared curve to all the yields.
+     *
+     * @return the curve
+     */
+    @Benchmark
+    public ZeroCurve refit() {
+        return bootstrapper.fit(yields);
+    }
+
+    /**
+     * Ticks one bond's yield, cycling through the bonds, and refits.
+     *
+     * @return the curve
+     */
+    @Benchmark
+    public ZeroCurve tick() {
+        Bond bond = bonds.get(cursor);
+        cursor = (cursor + 1) % bonds.size();
+        return bootstrapper.update(bond.name(), yields.get(bond.name()) + 0.01 * (cursor & 1));
+    }
+}
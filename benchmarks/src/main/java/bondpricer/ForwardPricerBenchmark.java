@@ -0,0 +1,90 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to price a year of daily forward dates for one bond with
+ * {@link ForwardPricer}, against setting each forward date on a
+ * {@link BondPricer} and listing the coupons paid before it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForwardPricerBenchmark {
+
+    private static final LocalDate SPOTDATE = LocalDate.of(2024, 5, 16);
+    private static final double YIELD = 9.5;
+    private static final double REPORATE = 8.25;
+
+    private Bond bond;
+    private LocalDate[] forwardDates;
+
+    /**
+     * Builds the daily forward dates.
+     */
+    @Setup
+    public void setUp() {
+        bond = BondRegistry.loadDefault().getRequired("R2030");
+        forwardDates = new LocalDate[365];
+        for (int i = 0; i < forwardDates.length; i++) {
+            forwardDates[i] = SPOTDATE.plusDays(i + 1);
+        }
+    }
+
+    /**
+     * Prices the ladder in one pass.
+     *
+     * @return the ladder
+     */
+    @Benchmark
+    public ForwardLadder ladder() {
+        return ForwardPricer.price(bond, SPOTDATE, YIELD, REPORATE, forwardDates);
+    }
+
+    /**
+     * Prices each forward date on its own.
+     *
+     * @param blackhole receives the forward clean prices
+     */
+    @Benchmark
+    public void perDate(final Blackhole blackhole) {
+        BondDetails details = bond.details();
+        double spotAllInPrice = new BondPricer(bond, SPOTDATE).getAllInPrice(YIELD);
+        BondPricer pricer = new BondPricer(bond, SPOTDATE);
+        double repo = REPORATE / 100 / 365;
+        double coupon = details.couponRate() / 2;
+        for (LocalDate date : forwardDates) {
+            pricer.setSettlementDate(date);
+            double price = spotAllInPrice * (1 + repo * (date.toEpochDay() - SPOTDATE.toEpochDay()));
+            for (int year = SPOTDATE.getYear(); year <= date.getYear(); year++) {
+                LocalDate[][] coupons = {
+                    { details.firstCouponDate().atYear(year), details.firstBooksCloseDate().atYear(year) },
+                    { details.secondCouponDate().atYear(year), details.secondBooksCloseDate().atYear(year) } };
+                for (LocalDate[] couponDates : coupons) {
+                    if (SPOTDATE.isBefore(couponDates[1]) && !couponDates[1].isAfter(date)) {
+                        long days = date.toEpochDay() - couponDates[0].toEpochDay();
+                        price -= (days >= 0) ? coupon * (1 + repo * days) : coupon / (1 - repo * days);
+                    }
+                }
+            }
+            blackhole.consume(SettlementSnapshot.round(SettlementSnapshot.round(price)
+                    - pricer.getSettlementSnapshot().getUnroundedAccruedInterest()));
+        }
+    }
+}
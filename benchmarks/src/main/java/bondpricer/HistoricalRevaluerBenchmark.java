@@ -0,0 +1,89 @@
+package bondpricer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to backfill 25 years of business day prices for every registered
+ * bond, walking the dates with {@link HistoricalRevaluer} against setting
+ * each settlement date on a {@link BondPricer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoricalRevaluerBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    private List<Bond> bonds;
+    private LocalDate[] dates;
+    private double[] yields;
+
+    /**
+     * Builds the business days of the range and a random yield series.
+     */
+    @Setup
+    public void setUp() {
+        bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        List<LocalDate> weekdays = new ArrayList<>();
+        for (LocalDate date = FROM; !date.isAfter(TO); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                weekdays.add(date);
+            }
+        }
+        dates = weekdays.toArray(new LocalDate[0]);
+        yields = new double[dates.length];
+        Random random = new Random(1);
+        for (int i = 0; i < yields.length; i++) {
+            yields[i] = 6.0 + random.nextInt(500) / 100.0;
+        }
+    }
+
+    /**
+     * Backfills every bond with the incremental walk.
+     *
+     * @param blackhole receives the histories
+     */
+    @Benchmark
+    public void revalue(final Blackhole blackhole) {
+        for (Bond bond : bonds) {
+            blackhole.consume(HistoricalRevaluer.revalue(bond, FROM, TO, dates, yields));
+        }
+    }
+
+    /**
+     * Backfills every bond by setting each settlement date on a pricer.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    public void setSettlementDate(final Blackhole blackhole) {
+        for (Bond bond : bonds) {
+            BondPricer pricer = new BondPricer(bond, FROM);
+            for (int i = 0; i < dates.length && dates[i].isBefore(bond.details().maturityDate()); i++) {
+                pricer.setSettlementDate(dates[i]);
+                blackhole.consume(pricer.getBondPrices(yields[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time per tick to price a random walk of sub basis point yield moves,
+ * exactly against incrementally with {@link IncrementalPricer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IncrementalPricerBenchmark {
+
+    private static final int TICKS = 1024;
+
+    private SettlementSnapshot snapshot;
+    private IncrementalPricer pricer;
+    private double[] yields;
+
+    /**
+     * Builds the random walk of yields.
+     */
+    @Setup
+    public void setUp() {
+        snapshot = SettlementSnapshot.of(BondRegistry.loadDefault().getRequired("R2040").details(),
+                LocalDate.of(2024, 5, 16));
+        pricer = new IncrementalPricer(snapshot);
+        yields = new double[TICKS];
+        Random random = new Random(1);
+        double yield = 11.0;
+        for (int i = 0; i < TICKS; i++) {
+            yield += (random.nextInt(101) - 50) / 10000.0;
+            yields[i] = yield;
+        }
+    }
+
+    /**
+     * Prices every tick with the exact formula.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void exact(final Blackhole blackhole) {
+        for (double yield : yields) {
+            blackhole.consume(snapshot.getAllInPrice(yield));
+        }
+    }
+
+    /**
+     * Prices every tick from the expansion.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void incremental(final Blackhole blackhole) {
+        for (double yield : yields) {
+            blackhole.consume(pricer.getAllInPrice(yield));
+        }
+    }
+}
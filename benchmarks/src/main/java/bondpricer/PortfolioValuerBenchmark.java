@@ -0,0 +1,81 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link PortfolioValuer} against the pool parallelism, to
+ * show how valuation of a large book scales with cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioValuerBenchmark {
+
+    @Param({ "50000" })
+    private int positionCount;
+
+    @Param({ "1", "2", "4", "8" })
+    private int parallelism;
+
+    private List<Position> positions;
+    private ForkJoinPool pool;
+    private PortfolioValuer valuer;
+
+    /**
+     * Builds a book spread over every registered bond and a week of
+     * settlement dates.
+     */
+    @Setup
+    public void setUp() {
+        List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        Random random = new Random(1);
+        positions = new ArrayList<>(positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            positions.add(new Position(bonds.get(random.nextInt(bonds.size())),
+                    (random.nextInt(200) - 100) * 1_000_000.0,
+                    6.0 + random.nextInt(500) / 100.0,
+                    LocalDate.of(2024, 5, 16).plusDays(random.nextInt(7))));
+        }
+        pool = new ForkJoinPool(parallelism);
+        valuer = new PortfolioValuer(pool);
+    }
+
+    /**
+     * Shuts the pool down.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Values the whole book.
+     *
+     * @return the valuation
+     */
+    @Benchmark
+    public PortfolioValuation value() {
+        return valuer.value(positions);
+    }
+}
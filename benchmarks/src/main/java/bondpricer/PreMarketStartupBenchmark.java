@@ -0,0 +1,139 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time from a fresh JVM to pricing the first 2,000 ticks of the day across
+ * every registered bond: calculating each settlement snapshot, mapping a
+ * {@link PreMarketSnapshot}, and mapping it after a {@link PricerWarmup}.
+ * Each measurement is a single shot in its own fork, so the JIT starts
+ * cold every time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class PreMarketStartupBenchmark {
+
+    private static final LocalDate SETTLEMENTDATE = LocalDate.of(2024, 5, 16);
+    private static final int TICKS = 2000;
+
+    private BondRegistry registry;
+    private Path file;
+
+    /**
+     * Writes the pre-market snapshot of every bond.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        registry = BondRegistry.loadDefault();
+        file = Files.createTempFile("premarket", ".bin");
+        PreMarketSnapshot.write(registry, SETTLEMENTDATE, file);
+    }
+
+    /**
+     * Deletes the snapshot file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    /**
+     * Runs the warm-up before the measurement, as a server does before it
+     * reports ready.
+     */
+    @State(Scope.Benchmark)
+    public static class WarmedUp {
+
+        /**
+         * Warms up the pricing hot paths on the mapped snapshot.
+         *
+         * @param startup the benchmark state holding the snapshot file
+         * @throws IOException if the snapshot cannot be mapped
+         */
+        @Setup
+        public void setUp(final PreMarketStartupBenchmark startup) throws IOException {
+            PricerWarmup.warmUp(PreMarketSnapshot.map(startup.file).getSnapshots(), PricerWarmup.DEFAULTROUNDS);
+        }
+    }
+
+    private static double priceTicks(final List<BondPricer> pricers) {
+        double total = 0;
+        for (int i = 0; i < TICKS; i++) {
+            BondPricer pricer = pricers.get(i % pricers.size());
+            total += pricer.getBondPrices(6.0 + (i % 500) / 100.0)[0];
+        }
+        return total;
+    }
+
+    /**
+     * Calculates each bond's settlement snapshot, then prices the ticks.
+     *
+     * @return the sum of the clean prices
+     */
+    @Benchmark
+    public double calculated() {
+        List<BondPricer> pricers = new ArrayList<>();
+        for (Bond bond : registry.getBonds()) {
+            pricers.add(new BondPricer(bond, SETTLEMENTDATE));
+        }
+        return priceTicks(pricers);
+    }
+
+    /**
+     * Maps the pre-market snapshot, then prices the ticks.
+     *
+     * @return the sum of the clean prices
+     * @throws IOException if the snapshot cannot be mapped
+     */
+    @Benchmark
+    public double mapped() throws IOException {
+        return priceTicks(pricersOf(PreMarketSnapshot.map(file)));
+    }
+
+    /**
+     * Maps the pre-market snapshot after the warm-up, then prices the
+     * ticks.
+     *
+     * @param warmedUp the warm-up state
+     * @return the sum of the clean prices
+     * @throws IOException if the snapshot cannot be mapped
+     */
+    @Benchmark
+    public double mappedWarmedUp(final WarmedUp warmedUp) throws IOException {
+        return priceTicks(pricersOf(PreMarketSnapshot.map(file)));
+    }
+
+    private static List<BondPricer> pricersOf(final PreMarketSnapshot preMarket) {
+        List<BondPricer> pricers = new ArrayList<>();
+        for (int i = 0; i < preMarket.size(); i++) {
+            pricers.add(new BondPricer(preMarket.getBond(i), preMarket.getSnapshot(i)));
+        }
+        return pricers;
+    }
+}
@@ -0,0 +1,120 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of readers of a bond's latest prices while one writer keeps
+ * publishing new yields, through a {@link PriceCache} against a
+ * {@link BondPricer} guarded by a lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class PriceCacheBenchmark {
+
+    private static final String BONDNAME = "R2035";
+
+    private PriceCache cache;
+    private BondPricer pricer;
+    private double lockedYield;
+    private double[] lockedPrices;
+    private int tick;
+
+    /**
+     * Builds the cache and the locked pricer with a first price.
+     */
+    @Setup
+    public void setUp() {
+        LocalDate settlementDate = LocalDate.of(2024, 5, 16);
+        BondRegistry registry = BondRegistry.loadDefault();
+        cache = new PriceCache(registry.getBonds(), settlementDate);
+        cache.publish(BONDNAME, 9.0);
+        pricer = new BondPricer(registry.getRequired(BONDNAME), settlementDate);
+        publishLocked(9.0);
+    }
+
+    private synchronized void publishLocked(final double yield) {
+        lockedYield = yield;
+        lockedPrices = pricer.getBondPrices(yield);
+    }
+
+    private synchronized void readLocked(final double[] prices) {
+        prices[0] = lockedYield;
+        prices[1] = lockedPrices[0];
+        prices[2] = lockedPrices[1];
+        prices[3] = pricer.getAccruedInterest();
+    }
+
+    /**
+     * Reader buffer, one per thread.
+     */
+    @State(Scope.Thread)
+    public static class Reader {
+        private final double[] prices = new double[4];
+    }
+
+    /**
+     * Publishes the next yield to the cache.
+     */
+    @Benchmark
+    @Group("cache")
+    @GroupThreads(1)
+    public void cacheWriter() {
+        cache.publish(BONDNAME, 9.0 + (tick++ & 255) / 1000.0);
+    }
+
+    /**
+     * Reads the latest prices from the cache.
+     *
+     * @param reader the reader buffer
+     * @return the all-in price
+     */
+    @Benchmark
+    @Group("cache")
+    @GroupThreads(3)
+    public double cacheReader(final Reader reader) {
+        cache.getPrices(BONDNAME, reader.prices);
+        return reader.prices[2];
+    }
+
+    /**
+     * Prices the next yield under the lock.
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWriter() {
+        publishLocked(9.0 + (tick++ & 255) / 1000.0);
+    }
+
+    /**
+     * Reads the latest prices under the lock.
+     *
+     * @param reader the reader buffer
+     * @return the all-in price
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public double lockedReader(final Reader reader) {
+        readLocked(reader.prices);
+        return reader.prices[2];
+    }
+}
@@ -0,0 +1,148 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to write and to scan 30 years of daily prices for every registered
+ * bond in a {@link PriceHistoryStore}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceHistoryStoreBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(1995, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    private List<PriceHistory> histories;
+    private Path scanDirectory;
+    private PriceHistoryStore scanStore;
+    private List<String> bondNames;
+    private Path writeDirectory;
+
+    /**
+     * Revalues every bond daily over the range and stores the histories
+     * for the scan.
+     *
+     * @throws IOException if the store cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        int days = (int) (TO.toEpochDay() - FROM.toEpochDay() + 1);
+        LocalDate[] dates = new LocalDate[days];
+        double[] yields = new double[days];
+        Random random = new Random(1);
+        for (int i = 0; i < days; i++) {
+            dates[i] = FROM.plusDays(i);
+            yields[i] = 6.0 + random.nextInt(500) / 100.0;
+        }
+        histories = new ArrayList<>();
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            histories.add(HistoricalRevaluer.revalue(bond, FROM, TO, dates, yields));
+        }
+        scanDirectory = Files.createTempDirectory("prices");
+        scanStore = PriceHistoryStore.open(scanDirectory);
+        for (PriceHistory history : histories) {
+            scanStore.append(history);
+        }
+        bondNames = scanStore.getBondNames();
+    }
+
+    /**
+     * Creates an empty store for each write.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @Setup(Level.Invocation)
+    public void setUpWrite() throws IOException {
+        writeDirectory = Files.createTempDirectory("prices");
+    }
+
+    /**
+     * Deletes the store written by each write.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown(Level.Invocation)
+    public void tearDownWrite() throws IOException {
+        delete(writeDirectory);
+    }
+
+    /**
+     * Deletes the scanned store.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        delete(scanDirectory);
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Writes the histories of every bond to an empty store.
+     *
+     * @return the store
+     * @throws IOException if the store cannot be written
+     */
+    @Benchmark
+    public PriceHistoryStore write() throws IOException {
+        PriceHistoryStore store = PriceHistoryStore.open(writeDirectory);
+        for (PriceHistory history : histories) {
+            store.append(history);
+        }
+        return store;
+    }
+
+    /**
+     * Maps every bond's series and averages its clean prices.
+     *
+     * @return the sum of the average clean prices
+     * @throws IOException if a series cannot be mapped
+     */
+    @Benchmark
+    public double scan() throws IOException {
+        double total = 0;
+        for (String bondName : bondNames) {
+            PriceSeries series = scanStore.read(bondName);
+            double sum = 0;
+            for (int i = 0; i < series.size(); i++) {
+                sum += series.getCleanPrice(i);
+            }
+            total += sum / series.size();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,105 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of {@link PricerMetrics} on the {@link BondPricer} hot paths, with
+ * no metrics attached against metrics attached. With none attached the
+ * results should match the {@link BondPricerBenchmark} baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PricerMetricsBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean metrics;
+
+    private BondPricer pricer;
+    private BondPricer rollingPricer;
+    private double[] yields;
+    private double[] cleanPrices;
+    private double[] allInPrices;
+    private LocalDate[] settlementDates;
+    private int cursor;
+
+    /**
+     * Builds the pricers and attaches metrics when enabled.
+     */
+    @Setup
+    public void setUp() {
+        LocalDate settlementDate = LocalDate.of(2017, 2, 7);
+        pricer = new BondPricer(BondType.R186, settlementDate);
+        rollingPricer = new BondPricer(BondType.R186, settlementDate);
+        if (metrics) {
+            PricerMetrics pricerMetrics = new PricerMetrics();
+            pricer.setMetrics(pricerMetrics);
+            rollingPricer.setMetrics(pricerMetrics);
+        }
+        yields = new double[BondPricerBenchmark.YIELDS];
+        for (int i = 0; i < yields.length; i++) {
+            yields[i] = 6.0 + i * 0.01;
+        }
+        cleanPrices = new double[yields.length];
+        allInPrices = new double[yields.length];
+        settlementDates = new LocalDate[BondPricerBenchmark.SETTLEMENTS];
+        for (int i = 0; i < settlementDates.length; i++) {
+            settlementDates[i] = settlementDate.plusDays(i * 7L);
+        }
+    }
+
+    /**
+     * Prices a block of yields one call at a time.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    @OperationsPerInvocation(BondPricerBenchmark.YIELDS)
+    public void bondPrices(final Blackhole blackhole) {
+        for (double yield : yields) {
+            blackhole.consume(pricer.getBondPrices(yield));
+        }
+    }
+
+    /**
+     * Prices a block of yields in one batch call.
+     *
+     * @return the last clean price
+     */
+    @Benchmark
+    @OperationsPerInvocation(BondPricerBenchmark.YIELDS)
+    public double bondPricesBatch() {
+        pricer.getBondPrices(yields, cleanPrices, allInPrices);
+        return cleanPrices[cleanPrices.length - 1];
+    }
+
+    /**
+     * Moves to the next settlement date.
+     *
+     * @return the accrued interest
+     */
+    @Benchmark
+    public double setSettlementDate() {
+        rollingPricer.setSettlementDate(settlementDates[cursor]);
+        cursor = (cursor + 1) % settlementDates.length;
+        return rollingPricer.getAccruedInterest();
+    }
+}
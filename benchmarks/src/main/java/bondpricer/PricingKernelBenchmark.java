@@ -0,0 +1,105 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to price 1,024 bond settlements, one snapshot object at a time
+ * against the struct-of-arrays {@link PricingKernel} with its scalar loop
+ * and with the Vector API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Benchmark)
+public class PricingKernelBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private List<SettlementSnapshot> snapshots;
+    private PricingKernel scalarKernel;
+    private PricingKernel vectorKernel;
+    private double[] yields;
+    private double[] cleanPrices;
+    private double[] allInPrices;
+
+    /**
+     * Builds snapshots of every bond on a spread of settlement dates.
+     */
+    @Setup
+    public void setUp() {
+        snapshots = new ArrayList<>();
+        LocalDate date = LocalDate.of(2024, 1, 2);
+        while (snapshots.size() < SIZE) {
+            for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+                if (snapshots.size() < SIZE) {
+                    snapshots.add(SettlementSnapshot.of(bond.details(), date));
+                }
+            }
+            date = date.plusDays(1);
+        }
+        scalarKernel = PricingKernel.of(snapshots, false);
+        vectorKernel = PricingKernel.of(snapshots);
+        if (!vectorKernel.isVectorized()) {
+            throw new IllegalStateException("The Vector API is not available");
+        }
+        yields = new double[SIZE];
+        Random random = new Random(1);
+        for (int i = 0; i < SIZE; i++) {
+            yields[i] = 6.0 + random.nextInt(500) / 100.0;
+        }
+        cleanPrices = new double[SIZE];
+        allInPrices = new double[SIZE];
+    }
+
+    /**
+     * Prices each snapshot object in turn.
+     *
+     * @param blackhole receives the prices
+     */
+    @Benchmark
+    public void perObject(final Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(snapshots.get(i).getBondPrices(yields[i]));
+        }
+    }
+
+    /**
+     * Prices every snapshot with the scalar kernel loop.
+     *
+     * @return the all-in prices
+     */
+    @Benchmark
+    public double[] scalarKernel() {
+        scalarKernel.getBondPrices(yields, cleanPrices, allInPrices);
+        return allInPrices;
+    }
+
+    /**
+     * Prices every snapshot with the vectorized kernel.
+     *
+     * @return the all-in prices
+     */
+    @Benchmark
+    public double[] vectorKernel() {
+        vectorKernel.getBondPrices(yields, cleanPrices, allInPrices);
+        return allInPrices;
+    }
+}
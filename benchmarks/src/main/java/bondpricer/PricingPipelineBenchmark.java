@@ -0,0 +1,128 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replays a recorded tick file through a {@link PricingPipeline}. The score
+ * is the time per replayed tick, so its inverse is the sustained tick rate.
+ * The {@code listenerNanos} parameter makes every listener call busy for a
+ * while to show conflation taking over when the consumer is slower than the
+ * feed. Latency percentiles and the conflation ratio are printed after each
+ * iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingPipelineBenchmark {
+
+    static final int TICKS = 1_000_000;
+
+    @Param({ "0", "2000" })
+    private long listenerNanos;
+
+    private Path tickFile;
+    private Map<String, SettlementSnapshot> snapshots;
+    private PricingPipeline pipeline;
+
+    /**
+     * Records a tick file spread over the registered bonds.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        snapshots = new HashMap<>();
+        for (Bond bond : bonds) {
+            snapshots.put(bond.name(), SettlementSnapshot.of(bond.details(), LocalDate.of(2024, 5, 16)));
+        }
+        tickFile = Files.createTempFile("ticks", ".csv");
+        Random random = new Random(1);
+        try (Writer writer = Files.newBufferedWriter(tickFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < TICKS; i++) {
+                writer.write(bonds.get(random.nextInt(bonds.size())).name() + ","
+                        + (8 + random.nextInt(10000) / 10000.0) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Creates a fresh pipeline for each replay.
+     */
+    @Setup(Level.Invocation)
+    public void newPipeline() {
+        pipeline = new PricingPipeline(snapshots);
+        pipeline.subscribe((bondName, yield, cleanPrice, allInPrice) -> {
+            for (long end = System.nanoTime() + listenerNanos; System.nanoTime() < end;) {
+                Thread.onSpinWait();
+            }
+        });
+    }
+
+    /**
+     * Prints the latency and conflation of the last replay.
+     */
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n  latency %s, conflated %.1f%% of %d ticks%n", pipeline.getLatency(),
+                100.0 * pipeline.getTicksConflated() / pipeline.getTicksReceived(), pipeline.getTicksReceived());
+    }
+
+    /**
+     * Deletes the tick file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(tickFile);
+    }
+
+    /**
+     * Replays the tick file as fast as it can be read.
+     *
+     * @return the number of prices published
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public long replay() {
+        try {
+            pipeline.run(new FileTickReplayer(tickFile, false));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return pipeline.getPricesPublished();
+    }
+}
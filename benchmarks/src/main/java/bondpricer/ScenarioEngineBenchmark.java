@@ -0,0 +1,101 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to revalue a book of 10,000 positions under 1,000 historical yield
+ * scenarios with the {@link ScenarioEngine}, against calling
+ * {@link BondPricer#getAllInPrice(double)} for every position and scenario.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScenarioEngineBenchmark {
+
+    private static final int POSITIONS = 10000;
+    private static final int SCENARIOS = 1000;
+
+    private final ScenarioEngine engine = new ScenarioEngine();
+    private List<Position> positions;
+    private String[] bondNames;
+    private double[] baseYields;
+    private double[][] shocks;
+
+    /**
+     * Builds a random book over every registered bond and five settlement
+     * dates, and random daily yield changes.
+     */
+    @Setup
+    public void setUp() {
+        List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        bondNames = new String[bonds.size()];
+        baseYields = new double[bonds.size()];
+        for (int b = 0; b < bonds.size(); b++) {
+            bondNames[b] = bonds.get(b).name();
+            baseYields[b] = 8.0 + b * 0.3;
+        }
+        Random random = new Random(1);
+        positions = new ArrayList<>();
+        for (int i = 0; i < POSITIONS; i++) {
+            positions.add(new Position(bonds.get(random.nextInt(bonds.size())),
+                    (random.nextInt(200) - 100) * 1_000_000.0, 0,
+                    LocalDate.of(2024, 5, 16).plusDays(random.nextInt(5))));
+        }
+        shocks = new double[SCENARIOS][bonds.size()];
+        for (double[] row : shocks) {
+            for (int b = 0; b < row.length; b++) {
+                row[b] = random.nextGaussian() * 0.1;
+            }
+        }
+    }
+
+    /**
+     * Revalues the book with the engine.
+     *
+     * @return the result
+     */
+    @Benchmark
+    public ScenarioResult engine() {
+        return engine.run(positions, bondNames, baseYields, shocks);
+    }
+
+    /**
+     * Revalues every position under every scenario with its own pricer.
+     *
+     * @return the profit and loss of each scenario
+     */
+    @Benchmark
+    public double[] perPosition() {
+        double[] pnl = new double[SCENARIOS];
+        for (Position position : positions) {
+            int b = 0;
+            while (!bondNames[b].equals(position.bond().name())) {
+                b++;
+            }
+            BondPricer pricer = new BondPricer(position.bond(), position.settlementDate());
+            double base = pricer.getAllInPrice(baseYields[b]);
+            for (int s = 0; s < SCENARIOS; s++) {
+                pnl[s] += position.nominal() * (pricer.getAllInPrice(baseYields[b] + shocks[s][b]) - base) / 100;
+            }
+        }
+        return pnl;
+    }
+}
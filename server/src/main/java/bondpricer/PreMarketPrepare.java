@@ -0,0 +1,42 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * The {@code PreMarketPrepare} class writes the {@link PreMarketSnapshot}
+ * of a trading day before the market opens, for a {@link PricingServer}
+ * to map when it starts.
+ * <p>
+ * Usage: {@code PreMarketPrepare settlementDate file [bonds.csv]}.
+ */
+public final class PreMarketPrepare {
+
+    private PreMarketPrepare() {
+    }
+
+    /**
+     * Writes the pre-market snapshot and prints the number of bonds and
+     * the time taken.
+     *
+     * @param args the settlement date as {@code yyyy-MM-dd}, the snapshot
+     *             file and optionally a bond registry CSV file instead of
+     *             the bundled bonds
+     * @throws IOException              if the registry cannot be read or
+     *                                  the snapshot written
+     * @throws IllegalArgumentException if too few arguments are given
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: PreMarketPrepare settlementDate file [bonds.csv]");
+        }
+        LocalDate settlementDate = LocalDate.parse(args[0]);
+        Path file = Path.of(args[1]);
+        BondRegistry registry = (args.length > 2) ? BondRegistry.load(Path.of(args[2])) : BondRegistry.loadDefault();
+        long start = System.nanoTime();
+        int bonds = PreMarketSnapshot.write(registry, settlementDate, file);
+        System.out.printf("Wrote %d bonds settling %s to %s in %.1f ms%n", bonds, settlementDate, file,
+                (System.nanoTime() - start) / 1e6);
+    }
+}
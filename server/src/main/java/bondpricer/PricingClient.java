@@ -0,0 +1,180 @@
+package bondpricer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * The {@code PricingClient} class sends requests to a {@link PricingServer}
+ * on the local machine over one connection. Requests on a connection are
+ * answered in turn, so a client must not be shared between threads; open
+ * one client per thread instead.
+ */
+public final class PricingClient implements Closeable {
+
+    private static final int MAXBONDNAME = 256;
+
+    private final Socket socket;
+    private final boolean json;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final BufferedReader reader;
+    private final Writer writer;
+    private final byte[] buffer = new byte[PricingProtocol.MAXFRAME];
+    private final ByteBuffer request = ByteBuffer.allocate(PricingProtocol.MAXFRAME);
+
+    private PricingClient(final Socket socket, final boolean json) throws IOException {
+        this.socket = socket;
+        this.json = json;
+        socket.setTcpNoDelay(true);
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Connects to a server on a loopback port with the binary protocol.
+     *
+     * @param port the server port
+     * @return the client
+     * @throws IOException if the server cannot be reached
+     */
+    public static PricingClient connect(final int port) throws IOException {
+        return connect(port, false);
+    }
+
+    /**
+     * Connects to a server on a loopback port.
+     *
+     * @param port the server port
+     * @param json {@code true} to speak JSON instead of the binary protocol
+     * @return the client
+     * @throws IOException if the server cannot be reached
+     */
+    public static PricingClient connect(final int port, final boolean json) throws IOException {
+        return new PricingClient(new Socket(InetAddress.getLoopbackAddress(), port), json);
+    }
+
+    /**
+     * Gets the prices of a bond for a yield.
+     *
+     * @param bondName       the bond name
+     * @param settlementDate the settlement date
+     * @param yield          the yield
+     * @return an array containing the clean price at index 0, the all-in
+     *         price at index 1 and the accrued interest at index 2, rounded
+     *         as by {@link BondPricer}
+     * @throws IOException              if the server cannot be reached
+     * @throws IllegalArgumentException if the server rejects the request
+     */
+    public double[] getBondPrices(final String bondName, final LocalDate settlementDate, final double yield)
+            throws IOException {
+        double[] values = new double[3];
+        PricingRequest priceRequest = new PricingRequest(PricingProtocol.Type.PRICE, bondName, settlementDate,
+                yield);
+        if (json) {
+            Map<String, String> fields = sendJson(priceRequest);
+            values[0] = PricingProtocol.parseNumber(PricingProtocol.required(fields, "cleanPrice"));
+            values[1] = PricingProtocol.parseNumber(PricingProtocol.required(fields, "allInPrice"));
+            values[2] = PricingProtocol.parseNumber(PricingProtocol.required(fields, "accruedInterest"));
+        } else {
+            PricingProtocol.readValues(sendBinary(priceRequest), values, values.length);
+        }
+        return values;
+    }
+
+    /**
+     * Solves for the yield of a bond at a clean price.
+     *
+     * @param bondName       the bond name
+     * @param settlementDate the settlement date
+     * @param cleanPrice     the clean price
+     * @return the yield, or {@code NaN} if no yield reproduces the price
+     * @throws IOException              if the server cannot be reached
+     * @throws IllegalArgumentException if the server rejects the request
+     */
+    public double getYieldFromCleanPrice(final String bondName, final LocalDate settlementDate,
+            final double cleanPrice) throws IOException {
+        PricingRequest yieldRequest = new PricingRequest(PricingProtocol.Type.YIELD, bondName, settlementDate,
+                cleanPrice);
+        if (json) {
+            return PricingProtocol.parseNumber(PricingProtocol.required(sendJson(yieldRequest), "yield"));
+        }
+        double[] values = new double[1];
+        PricingProtocol.readValues(sendBinary(yieldRequest), values, 1);
+        return values[0];
+    }
+
+    /**
+     * Gets the bond details for a yield, the same fields as
+     * {@link BondPricer#getBondDetails(double)}.
+     *
+     * @param bondName       the bond name
+     * @param settlementDate the settlement date
+     * @param yield          the yield
+     * @return a map containing the bond details
+     * @throws IOException              if the server cannot be reached
+     * @throws IllegalArgumentException if the server rejects the request
+     */
+    public Map<String, Object> getBondDetails(final String bondName, final LocalDate settlementDate,
+            final double yield) throws IOException {
+        PricingRequest detailsRequest = new PricingRequest(PricingProtocol.Type.DETAILS, bondName, settlementDate,
+                yield);
+        return json ? PricingProtocol.detailsFromJson(sendJson(detailsRequest))
+                : PricingProtocol.readDetails(sendBinary(detailsRequest));
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private ByteBuffer sendBinary(final PricingRequest pricingRequest) throws IOException {
+        checkBondName(pricingRequest.bondName());
+        PricingProtocol.writeRequest(request, pricingRequest);
+        PricingProtocol.writeFrame(output, request);
+        ByteBuffer response = PricingProtocol.readFrame(input, buffer);
+        if (response == null) {
+            throw new EOFException("Server closed the connection");
+        }
+        return response;
+    }
+
+    private Map<String, String> sendJson(final PricingRequest pricingRequest) throws IOException {
+        checkBondName(pricingRequest.bondName());
+        writer.write(PricingProtocol.toJson(pricingRequest));
+        writer.write('\n');
+        writer.flush();
+        String response = reader.readLine();
+        if (response == null) {
+            throw new EOFException("Server closed the connection");
+        }
+        return PricingProtocol.parseJsonResponse(response);
+    }
+
+    private static void checkBondName(final String bondName) {
+        if (bondName.length() > MAXBONDNAME) {
+            throw new IllegalArgumentException("Bond name is too long: " + bondName.length());
+        }
+    }
+}
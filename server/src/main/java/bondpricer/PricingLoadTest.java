@@ -0,0 +1,93 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code PricingLoadTest} class load tests a {@link PricingServer} on
+ * localhost. Each connection runs on its own thread and sends price
+ * requests for random bonds and yields, one at a time, recording the round
+ * trip latency. Every connection uses the same settlement date, so
+ * concurrent requests for a bond are coalesced by the server.
+ * <p>
+ * Usage: {@code PricingLoadTest [connections [requests [json [port]]]]}.
+ * Without a port an in-process server is started on a free port.
+ */
+public final class PricingLoadTest {
+
+    private PricingLoadTest() {
+    }
+
+    /**
+     * Runs the load test and prints the throughput, latency percentiles and
+     * coalescing ratio.
+     *
+     * @param args the number of connections, default 64, the requests per
+     *             connection, default 20000, {@code json} to use the JSON
+     *             protocol, and the port of a running server
+     * @throws IOException          if the server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the
+     *                              connections
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int connections = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+        int requests = (args.length > 1) ? Integer.parseInt(args[1]) : 20000;
+        boolean json = args.length > 2 && args[2].equals("json");
+        BondRegistry registry = BondRegistry.loadDefault();
+        PricingServer server = (args.length > 3) ? null : new PricingServer(registry, 0).start();
+        int port = (server != null) ? server.getPort() : Integer.parseInt(args[3]);
+        List<String> bondNames = new ArrayList<>();
+        for (Bond bond : registry.getBonds()) {
+            bondNames.add(bond.name());
+        }
+        LocalDate settlementDate = LocalDate.of(2024, 5, 16);
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(connections);
+        for (int c = 0; c < connections; c++) {
+            Random random = new Random(c);
+            Thread thread = new Thread(() -> {
+                try (PricingClient client = PricingClient.connect(port, json)) {
+                    start.await();
+                    for (int i = 0; i < requests; i++) {
+                        String bondName = bondNames.get(random.nextInt(bondNames.size()));
+                        long sent = System.nanoTime();
+                        client.getBondPrices(bondName, settlementDate, 6.0 + random.nextInt(500) / 100.0);
+                        latency.record(System.nanoTime() - sent);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    errors.increment();
+                    System.err.println("Connection failed: " + e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            }, "pricing-load-" + c);
+            thread.start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        finished.await();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long total = latency.getCount();
+        System.out.printf("%d connections, %d requests (%s) in %.2f s: %.0f requests/s, %d failed connections%n",
+                connections, total, json ? "json" : "binary", seconds, total / seconds, errors.sum());
+        System.out.println("latency " + latency);
+        if (server != null) {
+            System.out.printf("%d requests evaluated in %d batches, %.2f requests per batch, %s%n",
+                    server.getRequests(), server.getBatches(),
+                    (double) server.getRequests() / Math.max(1, server.getBatches()),
+                    server.isVirtualThreads() ? "virtual threads" : "platform threads");
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package bondpricer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code PricingProtocol} class encodes the requests and responses of
+ * the {@link PricingServer}. A connection speaks one of two encodings,
+ * chosen by its first byte.
+ * <p>
+ * Binary frames are a big-endian {@code int} length followed by that many
+ * bytes. A request frame holds the request type, the bond name as a
+ * {@code short} length and UTF-8 bytes, the settlement date as an
+ * {@code int} epoch day and the yield or clean price as a {@code double}.
+ * A response frame holds a status byte and either the results of the
+ * request type or a UTF-8 error message.
+ * <p>
+ * JSON requests and responses are flat objects, one per line:
+ * <pre>
+ * {"type":"price","bond":"R186","settlementDate":"2024-05-16","yield":8.5}
+ * {"cleanPrice":97.56932,"allInPrice":100.33068,"accruedInterest":2.76136}
+ * </pre>
+ * A yield request gives a {@code cleanPrice} and is answered with a
+ * {@code yield}, a details request is answered with the fields of
+ * {@link BondPricer#getBondDetails(double)}. Errors are answered with an
+ * {@code error} field. A result that is not finite, such as the yield of a
+ * clean price no yield reproduces, is written as {@code null}, and requests
+ * with a yield or clean price that is not finite are rejected.
+ */
+final class PricingProtocol {
+
+    /**
+     * The request types.
+     */
+    enum Type {
+        /** Clean price, all-in price and accrued interest for a yield. */
+        PRICE("yield"),
+        /** Yield for a clean price. */
+        YIELD("cleanPrice"),
+        /** The {@link BondPricer#getBondDetails(double)} fields for a yield. */
+        DETAILS("yield");
+
+        private final String valueField;
+
+        Type(final String valueField) {
+            this.valueField = valueField;
+        }
+    }
+
+    static final int MAXFRAME = 1024;
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private static final Type[] TYPES = Type.values();
+
+    private PricingProtocol() {
+    }
+
+    static ByteBuffer readFrame(final DataInputStream in, final byte[] buffer) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > buffer.length) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        in.readFully(buffer, 0, length);
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    static void writeFrame(final DataOutputStream out, final ByteBuffer frame) throws IOException {
+        frame.flip();
+        out.writeInt(frame.remaining());
+        out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+        out.flush();
+    }
+
+    static void writeRequest(final ByteBuffer frame, final PricingRequest request) {
+        frame.clear();
+        frame.put((byte) request.type().ordinal());
+        writeString(frame, request.bondName());
+        frame.putInt((int) request.settlementDate().toEpochDay());
+        frame.putDouble(request.value());
+    }
+
+    static PricingRequest readRequest(final ByteBuffer frame) {
+        try {
+            int type = frame.get();
+            if (type < 0 || type >= TYPES.length) {
+                throw new IllegalArgumentException("Unknown request type: " + type);
+            }
+            return new PricingRequest(TYPES[type], readString(frame), LocalDate.ofEpochDay(frame.getInt()),
+                    checkValue(TYPES[type], frame.getDouble()));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated request frame");
+        }
+    }
+
+    static void writeValues(final ByteBuffer frame, final double[] values, final int count) {
+        frame.clear();
+        frame.put(OK);
+        for (int i = 0; i < count; i++) {
+            frame.putDouble(values[i]);
+        }
+    }
+
+    static void writeDetails(final ByteBuffer frame, final PricingDetails details) {
+        frame.clear();
+        frame.put(OK);
+        frame.putInt((int) details.getNextCouponDate().toEpochDay());
+        frame.putInt((int) details.getLastCouponDate().toEpochDay());
+        frame.putInt((int) details.getBooksCloseDate().toEpochDay());
+        frame.putInt(details.getNumberRemainingCoupons());
+        frame.put((byte) (details.isCumEx() ? 1 : 0));
+        frame.putLong(details.getDaysAccrued());
+        frame.putDouble(details.getAccruedInterest());
+        frame.putDouble(details.getBrokenPeriod());
+        frame.putDouble(details.getBrokenPeriodDiscountFactor());
+        frame.putDouble(details.getDiscountFactor());
+        frame.putDouble(details.getCouponPayable());
+        frame.putDouble(details.getAllInPrice());
+        frame.putDouble(details.getCleanPrice());
+    }
+
+    static void writeError(final ByteBuffer frame, final String message) {
+        frame.clear();
+        frame.put(ERROR);
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, frame.remaining() - Short.BYTES);
+        frame.putShort((short) length);
+        frame.put(bytes, 0, length);
+    }
+
+    static void readValues(final ByteBuffer frame, final double[] values, final int count) {
+        checkStatus(frame);
+        for (int i = 0; i < count; i++) {
+            values[i] = frame.getDouble();
+        }
+    }
+
+    static Map<String, Object> readDetails(final ByteBuffer frame) {
+        checkStatus(frame);
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("nextCouponDate", LocalDate.ofEpochDay(frame.getInt()));
+        details.put("lastCouponDate", LocalDate.ofEpochDay(frame.getInt()));
+        details.put("booksCloseDate", LocalDate.ofEpochDay(frame.getInt()));
+        details.put("numberRemainingCoupons", frame.getInt());
+        details.put("cumexFlag", frame.get() != 0);
+        details.put("daysAccrued", frame.getLong());
+        details.put("accruedInterest", frame.getDouble());
+        details.put("brokenPeriod", frame.getDouble());
+        details.put("brokenPeriodDiscountFactor", frame.getDouble());
+        details.put("discountFactor", frame.getDouble());
+        details.put("couponPayable", frame.getDouble());
+        details.put("allInPrice", frame.getDouble());
+        details.put("cleanPrice", frame.getDouble());
+        return details;
+    }
+
+    private static void checkStatus(final ByteBuffer frame) {
+        if (frame.get() == ERROR) {
+            throw new IllegalArgumentException(readString(frame));
+        }
+    }
+
+    private static void writeString(final ByteBuffer frame, final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        frame.putShort((short) bytes.length);
+        frame.put(bytes);
+    }
+
+    private static String readString(final ByteBuffer frame) {
+        int length = frame.getShort();
+        if (length < 0 || length > frame.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        String value = new String(frame.array(), frame.arrayOffset() + frame.position(), length,
+                StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return value;
+    }
+
+    static String toJson(final PricingRequest request) {
+        return "{\"type\":\"" + request.type().name().toLowerCase() + "\",\"bond\":" + quote(request.bondName())
+                + ",\"settlementDate\":\"" + request.settlementDate() + "\",\"" + request.type().valueField
+                + "\":" + request.value() + "}";
+    }
+
+    static PricingRequest parseJsonRequest(final String line) {
+        Map<String, String> fields = parseJson(line);
+        String type = required(fields, "type");
+        Type requestType;
+        try {
+            requestType = Type.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown request type: " + type);
+        }
+        try {
+            return new PricingRequest(requestType, required(fields, "bond"),
+                    LocalDate.parse(required(fields, "settlementDate")),
+                    checkValue(requestType, Double.parseDouble(required(fields, requestType.valueField))));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed request: " + e.getMessage());
+        }
+    }
+
+    private static double checkValue(final Type type, final double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Invalid " + type.valueField + ": " + value);
+        }
+        return value;
+    }
+
+    static String valuesToJson(final Type type, final double[] values) {
+        return (type == Type.PRICE)
+                ? "{\"cleanPrice\":" + number(values[0]) + ",\"allInPrice\":" + number(values[1])
+                        + ",\"accruedInterest\":" + number(values[2]) + "}"
+                : "{\"yield\":" + number(values[0]) + "}";
+    }
+
+    static String detailsToJson(final PricingDetails details) {
+        return "{\"nextCouponDate\":\"" + details.getNextCouponDate()
+                + "\",\"lastCouponDate\":\"" + details.getLastCouponDate()
+                + "\",\"booksCloseDate\":\"" + details.getBooksCloseDate()
+                + "\",\"numberRemainingCoupons\":" + details.getNumberRemainingCoupons()
+                + ",\"cumexFlag\":" + details.isCumEx()
+                + ",\"daysAccrued\":" + details.getDaysAccrued()
+                + ",\"accruedInterest\":" + number(details.getAccruedInterest())
+                + ",\"brokenPeriod\":" + number(details.getBrokenPeriod())
+                + ",\"brokenPeriodDiscountFactor\":" + number(details.getBrokenPeriodDiscountFactor())
+                + ",\"discountFactor\":" + number(details.getDiscountFactor())
+                + ",\"couponPayable\":" + number(details.getCouponPayable())
+                + ",\"allInPrice\":" + number(details.getAllInPrice())
+                + ",\"cleanPrice\":" + number(details.getCleanPrice()) + "}";
+    }
+
+    static String errorToJson(final String message) {
+        return "{\"error\":" + quote(String.valueOf(message)) + "}";
+    }
+
+    static Map<String, String> parseJsonResponse(final String line) {
+        Map<String, String> fields = parseJson(line);
+        if (fields.containsKey("error")) {
+            throw new IllegalArgumentException(fields.get("error"));
+        }
+        return fields;
+    }
+
+    static Map<String, Object> detailsFromJson(final Map<String, String> fields) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("nextCouponDate", LocalDate.parse(required(fields, "nextCouponDate")));
+        details.put("lastCouponDate", LocalDate.parse(required(fields, "lastCouponDate")));
+        details.put("booksCloseDate", LocalDate.parse(required(fields, "booksCloseDate")));
+        details.put("numberRemainingCoupons", Integer.parseInt(required(fields, "numberRemainingCoupons")));
+        details.put("cumexFlag", Boolean.parseBoolean(required(fields, "cumexFlag")));
+        details.put("daysAccrued", Long.parseLong(required(fields, "daysAccrued")));
+        for (String field : new String[] { "accruedInterest", "brokenPeriod", "brokenPeriodDiscountFactor",
+                "discountFactor", "couponPayable", "allInPrice", "cleanPrice" }) {
+            details.put(field, parseNumber(required(fields, field)));
+        }
+        return details;
+    }
+
+    static String required(final Map<String, String> fields, final String field) {
+        String value = fields.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        return value;
+    }
+
+    // JSON has no NaN or infinity, a result that is not finite is written as null
+    private static String number(final double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    static double parseNumber(final String value) {
+        return "null".equals(value) ? Double.NaN : Double.parseDouble(value);
+    }
+
+    private static String quote(final String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // Only flat objects are parsed, every value is returned as its text without quotes
+    static Map<String, String> parseJson(final String text) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] position = { skipWhitespace(text, 0) };
+        expect(text, position, '{');
+        if (peek(text, position) == '}') {
+            position[0]++;
+        } else {
+            while (true) {
+                String name = parseString(text, position);
+                expect(text, position, ':');
+                String value = (peek(text, position) == '"') ? parseString(text, position)
+                        : parseLiteral(text, position);
+                fields.put(name, value);
+                if (peek(text, position) == ',') {
+                    position[0]++;
+                } else {
+                    expect(text, position, '}');
+                    break;
+                }
+            }
+        }
+        if (skipWhitespace(text, position[0]) != text.length()) {
+            throw new IllegalArgumentException("Malformed JSON: trailing characters");
+        }
+        return fields;
+    }
+
+    private static int skipWhitespace(final String text, final int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char peek(final String text, final int[] position) {
+        position[0] = skipWhitespace(text, position[0]);
+        if (position[0] >= text.length()) {
+            throw new IllegalArgumentException("Malformed JSON: unexpected end");
+        }
+        return text.charAt(position[0]);
+    }
+
+    private static void expect(final String text, final int[] position, final char expected) {
+        if (peek(text, position) != expected) {
+            throw new IllegalArgumentException("Malformed JSON: expected '" + expected + "' at " + position[0]);
+        }
+        position[0]++;
+    }
+
+    private static String parseString(final String text, final int[] position) {
+        expect(text, position, '"');
+        StringBuilder value = new StringBuilder();
+        int i = position[0];
+        while (true) {
+            if (i >= text.length()) {
+                throw new IllegalArgumentException("Malformed JSON: unterminated string");
+            }
+            char c = text.charAt(i++);
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                if (i >= text.length()) {
+                    throw new IllegalArgumentException("Malformed JSON: unterminated string");
+                }
+                char escaped = text.charAt(i++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (i + 4 > text.length()) {
+                            throw new IllegalArgumentException("Malformed JSON: bad unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Malformed JSON: bad unicode escape");
+                        }
+                        i += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        position[0] = i;
+        return value.toString();
+    }
+
+    private static String parseLiteral(final String text, final int[] position) {
+        int start = position[0];
+        int i = start;
+        while (i < text.length() && ",}".indexOf(text.charAt(i)) < 0 && !Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        if (i == start) {
+            throw new IllegalArgumentException("Malformed JSON: missing value at " + start);
+        }
+        position[0] = i;
+        return text.substring(start, i);
+    }
+}
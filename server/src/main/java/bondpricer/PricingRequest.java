@@ -0,0 +1,14 @@
+package bondpricer;
+
+import java.time.LocalDate;
+
+/**
+ * A request to the {@link PricingServer}.
+ *
+ * @param type           the request type
+ * @param bondName       the name of the bond in the server's registry
+ * @param settlementDate the settlement date
+ * @param value          the yield, or the clean price of a yield request
+ */
+record PricingRequest(PricingProtocol.Type type, String bondName, LocalDate settlementDate, double value) {
+}
@@ -0,0 +1,304 @@
+package bondpricer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The {@code PricingServer} class serves price, yield and details requests
+ * for the bonds of a {@link BondRegistry} on a loopback socket, so that
+ * many local services can share one warmed-up pricer. The wire formats are
+ * described by {@link PricingProtocol}; each connection picks binary or
+ * JSON with its first byte.
+ * <p>
+ * Each connection is served by its own virtual thread when the JVM
+ * supports them, and by a platform thread otherwise. Concurrent requests
+ * for the same bond and settlement date are batched by a
+ * {@link RequestCoalescer}.
+ */
+public final class PricingServer implements Closeable {
+
+    /**
+     * The port the server listens on when none is given.
+     */
+    public static final int DEFAULTPORT = 7430;
+
+    private final ServerSocket serverSocket;
+    private final RequestCoalescer coalescer;
+    private final ExecutorService connections;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final boolean virtualThreads;
+    private volatile boolean closed;
+
+    /**
+     * Binds a server to a loopback port. Requests are not served until the
+     * server is started.
+     *
+     * @param registry the bonds to price
+     * @param port     the port, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PricingServer(final BondRegistry registry, final int port) throws IOException {
+        this(registry, port, null);
+    }
+
+    /**
+     * Binds a server to a loopback port, pricing requests for the
+     * settlement date of a pre-market snapshot from its mapped snapshots
+     * instead of calculating them.
+     *
+     * @param registry  the bonds to price
+     * @param port      the port, or 0 for any free port
+     * @param preMarket the pre-market snapshot, or {@code null} to calculate
+     *                  every settlement date
+     * @throws IOException if the port cannot be bound
+     */
+    public PricingServer(final BondRegistry registry, final int port, final PreMarketSnapshot preMarket)
+            throws IOException {
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        coalescer = new RequestCoalescer(registry, preMarket);
+        ExecutorService executor = newVirtualThreadExecutor();
+        virtualThreads = executor != null;
+        connections = virtualThreads ? executor : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "pricing-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        // Virtual threads are looked up at run time so the server still runs on JDK 17
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     *
+     * @return this server
+     */
+    public PricingServer start() {
+        Thread acceptor = new Thread(this::accept, "pricing-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return this;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets whether connections are served on virtual threads.
+     *
+     * @return {@code true} if virtual threads are used
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Gets the number of requests evaluated.
+     *
+     * @return the request count
+     */
+    public long getRequests() {
+        return coalescer.getRequests();
+    }
+
+    /**
+     * Gets the number of batch evaluations the requests were coalesced into.
+     *
+     * @return the batch count
+     */
+    public long getBatches() {
+        return coalescer.getBatches();
+    }
+
+    RequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        connections.shutdownNow();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    connections.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Pricing server accept failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        sockets.add(socket);
+        try (socket) {
+            if (closed) {
+                return;
+            }
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            in.mark(1);
+            int first = in.read();
+            if (first < 0) {
+                return;
+            }
+            in.reset();
+            if (first == '{') {
+                serveJson(in, out);
+            } else {
+                serveBinary(in, out);
+            }
+        } catch (SocketException e) {
+            // The client went away
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Pricing connection failed: " + e);
+            }
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private void serveBinary(final InputStream in, final OutputStream out) throws IOException {
+        DataInputStream input = new DataInputStream(in);
+        DataOutputStream output = new DataOutputStream(out);
+        byte[] buffer = new byte[PricingProtocol.MAXFRAME];
+        ByteBuffer response = ByteBuffer.allocate(PricingProtocol.MAXFRAME);
+        double[] values = new double[3];
+        for (ByteBuffer frame = PricingProtocol.readFrame(input, buffer); frame != null;
+                frame = PricingProtocol.readFrame(input, buffer)) {
+            try {
+                PricingRequest request = PricingProtocol.readRequest(frame);
+                PricingDetails details = coalescer.evaluate(request, values);
+                if (details != null) {
+                    PricingProtocol.writeDetails(response, details);
+                } else {
+                    PricingProtocol.writeValues(response, values,
+                            (request.type() == PricingProtocol.Type.PRICE) ? 3 : 1);
+                }
+            } catch (RuntimeException e) {
+                // A failed batch is reported to each of its requests, and the connection stays open
+                PricingProtocol.writeError(response, e.getMessage());
+            }
+            PricingProtocol.writeFrame(output, response);
+        }
+    }
+
+    private void serveJson(final InputStream in, final OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        double[] values = new double[3];
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String response;
+            try {
+                PricingRequest request = PricingProtocol.parseJsonRequest(line);
+                PricingDetails details = coalescer.evaluate(request, values);
+                response = (details != null) ? PricingProtocol.detailsToJson(details)
+                        : PricingProtocol.valuesToJson(request.type(), values);
+            } catch (RuntimeException e) {
+                response = PricingProtocol.errorToJson(e.getMessage());
+            }
+            writer.write(response);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped. Given a pre-market
+     * snapshot, the server maps it, warms up the pricing hot paths on it and
+     * checks its first price before it reports ready, and reports the time
+     * from JVM start to that first correct price.
+     *
+     * @param args the port, default {@value #DEFAULTPORT}, optionally a bond
+     *             registry CSV file instead of the bundled bonds, or
+     *             {@code -} for the bundled bonds, and optionally a
+     *             pre-market snapshot file written by
+     *             {@link PreMarketPrepare}
+     * @throws IOException              if the port cannot be bound, or the
+     *                                  registry or snapshot read
+     * @throws IllegalArgumentException if the snapshot was not written from
+     *                                  the registry
+     */
+    public static void main(final String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULTPORT;
+        BondRegistry registry = (args.length > 1 && !args[1].equals("-")) ? BondRegistry.load(Path.of(args[1]))
+                : BondRegistry.loadDefault();
+        PreMarketSnapshot preMarket = (args.length > 2) ? prepare(Path.of(args[2]), registry) : null;
+        PricingServer server = new PricingServer(registry, port, preMarket);
+        System.out.println("Pricing " + registry.size() + " bonds on localhost:" + server.getPort()
+                + (server.isVirtualThreads() ? " with virtual threads" : " with platform threads"));
+        server.accept();
+    }
+
+    private static PreMarketSnapshot prepare(final Path file, final BondRegistry registry) throws IOException {
+        long start = System.nanoTime();
+        PreMarketSnapshot preMarket = PreMarketSnapshot.map(file);
+        preMarket.verify(registry);
+        long mapped = System.nanoTime() - start;
+        long warmedUp = PricerWarmup.warmUp(preMarket.getSnapshots(), PricerWarmup.DEFAULTROUNDS);
+        SettlementSnapshot first = preMarket.getSnapshot(0);
+        PricerWarmup.checkPrices(first, first.getBondDetails().couponRate());
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.printf("Pre-market snapshot for %s mapped and verified in %.1f ms, warmed up in %d ms,"
+                + " first correct price %d ms after JVM start%n", preMarket.getSettlementDate(),
+                mapped / 1e6, warmedUp / 1_000_000, uptime);
+        return preMarket;
+    }
+}
@@ -0,0 +1,272 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code RequestCoalescer} class evaluates the requests of the
+ * {@link PricingServer}, batching concurrent requests of the same type for
+ * the same bond and settlement date into one evaluation.
+ * <p>
+ * Each bond, settlement date and request type has a lane holding its
+ * {@link SettlementSnapshot}. A request on an idle lane is evaluated at
+ * once by its own thread, so a lightly loaded server adds no delay.
+ * Requests that arrive while the lane is busy join the lane's pending
+ * batch, and when the running evaluation finishes one of their threads is
+ * handed the whole batch and prices it with a single batch call.
+ * Locks rather than monitors are used so that waiting virtual threads do
+ * not pin their carriers.
+ * <p>
+ * A lane is replaced when its bond has been reloaded into the registry
+ * with different details. The lanes are bounded: once there are more than
+ * {@value #MAXLANES}, the lanes of settlement dates before today are
+ * dropped, and all lanes if that is not enough. A dropped lane finishes
+ * its running batch for the requests already holding it.
+ */
+final class RequestCoalescer {
+
+    static final int MAXLANES = 4096;
+
+    private final BondRegistry registry;
+    private final PreMarketSnapshot preMarket;
+    private final Map<LaneKey, Lane> lanes = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile Runnable batchHook;
+
+    RequestCoalescer(final BondRegistry registry, final PreMarketSnapshot preMarket) {
+        this.registry = registry;
+        this.preMarket = preMarket;
+    }
+
+    /**
+     * Evaluates a request, possibly as part of a batch with concurrent
+     * requests.
+     *
+     * @param request the request
+     * @param values  receives the clean price, all-in price and accrued
+     *                interest of a price request, or the yield of a yield
+     *                request
+     * @return the pricing details of a details request, otherwise
+     *         {@code null}
+     * @throws IllegalArgumentException if the bond is unknown or the
+     *                                  settlement date is not before maturity
+     * @throws IllegalStateException    if the evaluation of the batch failed
+     */
+    PricingDetails evaluate(final PricingRequest request, final double[] values) {
+        requests.increment();
+        Lane lane = laneOf(request);
+        Batch batch;
+        int index;
+        boolean lead;
+        lane.lock.lock();
+        try {
+            if (lane.pending == null) {
+                lane.pending = new Batch(lane.lock.newCondition());
+            }
+            batch = lane.pending;
+            index = batch.add(request.value());
+            lead = !lane.running;
+            if (lead) {
+                lane.running = true;
+                lane.pending = null;
+            } else {
+                while (!batch.done && !batch.handedOver) {
+                    batch.finished.awaitUninterruptibly();
+                }
+                lead = !batch.done;
+                batch.handedOver = false;
+            }
+        } finally {
+            lane.lock.unlock();
+        }
+        if (lead) {
+            run(lane, batch);
+        }
+        if (batch.failure != null) {
+            throw new IllegalStateException("Batch evaluation failed: " + batch.failure, batch.failure);
+        }
+        switch (lane.type) {
+            case PRICE:
+                values[0] = batch.cleanPrices[index];
+                values[1] = batch.allInPrices[index];
+                values[2] = lane.snapshot.getAccruedInterest();
+                return null;
+            case YIELD:
+                values[0] = batch.yields[index];
+                return null;
+            default:
+                return batch.details[index];
+        }
+    }
+
+    private Lane laneOf(final PricingRequest request) {
+        LaneKey key = new LaneKey(request.bondName(), request.settlementDate().toEpochDay(), request.type());
+        Bond bond = registry.getRequired(request.bondName());
+        Lane lane = lanes.get(key);
+        if (lane != null) {
+            BondDetails details = lane.snapshot.getBondDetails();
+            if (details == bond.details() || details.equals(bond.details())) {
+                return lane;
+            }
+        }
+        if (lanes.size() >= MAXLANES) {
+            evictLanes();
+        }
+        Lane fresh = new Lane(key.type(), snapshotOf(bond, request.settlementDate()));
+        if (lane == null) {
+            // A concurrent request may have created the lane first, and then prices with that one
+            Lane current = lanes.putIfAbsent(key, fresh);
+            return (current != null) ? current : fresh;
+        }
+        lanes.replace(key, lane, fresh);
+        return fresh;
+    }
+
+    private void evictLanes() {
+        long today = LocalDate.now().toEpochDay();
+        lanes.keySet().removeIf(key -> key.epochDay() < today);
+        if (lanes.size() >= MAXLANES) {
+            lanes.clear();
+        }
+    }
+
+    private SettlementSnapshot snapshotOf(final Bond bond, final LocalDate settlementDate) {
+        if (!settlementDate.isBefore(bond.details().maturityDate())) {
+            throw new IllegalArgumentException("Settlement date " + settlementDate + " is not before maturity "
+                    + bond.details().maturityDate());
+        }
+        if (preMarket != null && settlementDate.equals(preMarket.getSettlementDate())) {
+            int i = preMarket.indexOf(bond.name());
+            // A bond reloaded into the registry since the snapshot was written is calculated instead
+            if (i >= 0 && preMarket.getBond(i).details().equals(bond.details())) {
+                return preMarket.getSnapshot(i);
+            }
+        }
+        return SettlementSnapshot.of(bond.details(), settlementDate);
+    }
+
+    private void run(final Lane lane, final Batch batch) {
+        batches.increment();
+        try {
+            Runnable hook = batchHook;
+            if (hook != null) {
+                hook.run();
+            }
+            double[] inputs = Arrays.copyOf(batch.inputs, batch.size);
+            switch (lane.type) {
+                case PRICE:
+                    batch.cleanPrices = new double[inputs.length];
+                    batch.allInPrices = new double[inputs.length];
+                    lane.snapshot.getBondPrices(inputs, batch.cleanPrices, batch.allInPrices);
+                    break;
+                case YIELD:
+                    batch.yields = new double[inputs.length];
+                    lane.snapshot.getYieldsFromCleanPrices(inputs, batch.yields,
+                            SettlementSnapshot.DEFAULTYIELDTOLERANCE);
+                    break;
+                default:
+                    batch.details = new PricingDetails[inputs.length];
+                    for (int i = 0; i < inputs.length; i++) {
+                        batch.details[i] = lane.snapshot.getPricingDetails(inputs[i]);
+                    }
+            }
+        } catch (RuntimeException e) {
+            batch.failure = e;
+        }
+        lane.lock.lock();
+        try {
+            batch.done = true;
+            batch.finished.signalAll();
+            // The requests that queued behind this batch are handed to one of their own threads
+            Batch next = lane.pending;
+            if (next == null) {
+                lane.running = false;
+            } else {
+                lane.pending = null;
+                next.handedOver = true;
+                next.finished.signalAll();
+            }
+        } finally {
+            lane.lock.unlock();
+        }
+    }
+
+    // Runs at the start of every batch evaluation, so tests can hold a lane busy or make a batch fail
+    void setBatchHook(final Runnable hook) {
+        batchHook = hook;
+    }
+
+    int getLanes() {
+        return lanes.size();
+    }
+
+    int getPendingRequests() {
+        int pending = 0;
+        for (Lane lane : lanes.values()) {
+            lane.lock.lock();
+            try {
+                pending += (lane.pending == null) ? 0 : lane.pending.size;
+            } finally {
+                lane.lock.unlock();
+            }
+        }
+        return pending;
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getBatches() {
+        return batches.sum();
+    }
+
+    private record LaneKey(String bondName, long epochDay, PricingProtocol.Type type) {
+    }
+
+    private static final class Lane {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final PricingProtocol.Type type;
+        private final SettlementSnapshot snapshot;
+        private Batch pending;
+        private boolean running;
+
+        private Lane(final PricingProtocol.Type type, final SettlementSnapshot snapshot) {
+            this.type = type;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private static final class Batch {
+
+        private final Condition finished;
+        private double[] inputs = new double[8];
+        private int size;
+        private boolean handedOver;
+        private boolean done;
+        private double[] cleanPrices;
+        private double[] allInPrices;
+        private double[] yields;
+        private PricingDetails[] details;
+        private RuntimeException failure;
+
+        private Batch(final Condition finished) {
+            this.finished = finished;
+        }
+
+        private int add(final double input) {
+            if (size == inputs.length) {
+                inputs = Arrays.copyOf(inputs, 2 * size);
+            }
+            inputs[size] = input;
+            return size++;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the pricing server.
+ */
+public class PricingServerTest
+        extends TestCase {
+
+    private static final LocalDate SETTLEMENTDATE = LocalDate.of(2024, 5, 16);
+
+    private PricingServer server;
+
+    @Override
+    protected void setUp() throws IOException {
+        server = new PricingServer(BondRegistry.loadDefault(), 0).start();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.close();
+    }
+
+    private void checkRequests(final boolean json) throws IOException {
+        BondPricer pricer = new BondPricer(BondRegistry.loadDefault().getRequired("R2030"), SETTLEMENTDATE);
+        try (PricingClient client = PricingClient.connect(server.getPort(), json)) {
+            double[] prices = client.getBondPrices("R2030", SETTLEMENTDATE, 9.125);
+            double[] expected = pricer.getBondPrices(9.125);
+            assertEquals(expected[0], prices[0]);
+            assertEquals(expected[1], prices[1]);
+            assertEquals(pricer.getAccruedInterest(), prices[2]);
+
+            assertEquals(pricer.getYieldFromCleanPrice(expected[0]),
+                    client.getYieldFromCleanPrice("R2030", SETTLEMENTDATE, expected[0]));
+
+            Map<String, Object> details = client.getBondDetails("R2030", SETTLEMENTDATE, 9.125);
+            assertEquals(pricer.getBondDetails(9.125), details);
+
+            try {
+                client.getBondPrices("R999", SETTLEMENTDATE, 9.125);
+                fail("Expected an unknown bond to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("R999"));
+            }
+            // The connection is still usable after an error
+            assertEquals(expected[1], client.getBondPrices("R2030", SETTLEMENTDATE, 9.125)[1]);
+        }
+    }
+
+    public void testBinaryRequests() throws IOException {
+
+        checkRequests(false);
+    }
+
+    public void testJsonRequests() throws IOException {
+
+        checkRequests(true);
+    }
+
+    public void testNonFiniteValues() throws IOException {
+
+        for (boolean json : new boolean[] { false, true }) {
+            try (PricingClient client = PricingClient.connect(server.getPort(), json)) {
+                // No yield reproduces a negative clean price
+                assertTrue(Double.isNaN(client.getYieldFromCleanPrice("R2030", SETTLEMENTDATE, -1.0)));
+                try {
+                    client.getBondPrices("R2030", SETTLEMENTDATE, Double.NaN);
+                    fail("Expected a NaN yield to be rejected");
+                } catch (IllegalArgumentException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("Invalid yield"));
+                }
+                try {
+                    client.getYieldFromCleanPrice("R2030", SETTLEMENTDATE, Double.POSITIVE_INFINITY);
+                    fail("Expected an infinite clean price to be rejected");
+                } catch (IllegalArgumentException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("Invalid cleanPrice"));
+                }
+            }
+        }
+        assertEquals("{\"yield\":null}",
+                PricingProtocol.valuesToJson(PricingProtocol.Type.YIELD, new double[] { Double.NaN }));
+        assertEquals("{\"cleanPrice\":null,\"allInPrice\":null,\"accruedInterest\":1.0}",
+                PricingProtocol.valuesToJson(PricingProtocol.Type.PRICE,
+                        new double[] { Double.NaN, Double.POSITIVE_INFINITY, 1.0 }));
+    }
+
+    public void testConcurrentRequestsMatchPricer() throws InterruptedException {
+
+        int connections = 16;
+        int requests = 500;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            Random random = new Random(c);
+            Thread thread = new Thread(() -> {
+                BondPricer pricer = new BondPricer(BondType.R186, SETTLEMENTDATE);
+                try (PricingClient client = PricingClient.connect(server.getPort())) {
+                    for (int i = 0; i < requests; i++) {
+                        double yield = 6.0 + random.nextInt(500) / 100.0;
+                        double[] prices = client.getBondPrices("R186", SETTLEMENTDATE, yield);
+                        assertEquals(pricer.getBondPrices(yield)[1], prices[1]);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(String.valueOf(failure.get()), failure.get());
+        assertEquals(connections * requests, server.getRequests());
+    }
+
+    public void testPreMarketSnapshotMatchesPricer() throws IOException {
+
+        BondRegistry registry = BondRegistry.loadDefault();
+        Path file = Files.createTempFile("premarket", ".bin");
+        try {
+            PreMarketSnapshot.write(registry, SETTLEMENTDATE, file);
+            try (PricingServer preMarketServer = new PricingServer(registry, 0, PreMarketSnapshot.map(file)).start();
+                    PricingClient client = PricingClient.connect(preMarketServer.getPort())) {
+                for (Bond bond : registry.getBonds()) {
+                    BondPricer pricer = new BondPricer(bond, SETTLEMENTDATE);
+                    double[] prices = client.getBondPrices(bond.name(), SETTLEMENTDATE, 9.125);
+                    assertEquals(pricer.getBondPrices(9.125)[0], prices[0]);
+                    assertEquals(pricer.getAccruedInterest(), prices[2]);
+                }
+                // Other settlement dates are still calculated
+                BondPricer pricer = new BondPricer(registry.getRequired("R2030"), SETTLEMENTDATE.plusDays(1));
+                assertEquals(pricer.getBondPrices(9.125)[1],
+                        client.getBondPrices("R2030", SETTLEMENTDATE.plusDays(1), 9.125)[1]);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // Holds the first batch until released, then runs the rest of the hook for every batch
+    private static Runnable holdFirstBatch(final CountDownLatch entered, final CountDownLatch release,
+            final Runnable then) {
+        AtomicBoolean first = new AtomicBoolean(true);
+        return () -> {
+            if (first.getAndSet(false)) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            then.run();
+        };
+    }
+
+    private static void awaitPending(final RequestCoalescer coalescer, final int pending)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (coalescer.getPendingRequests() < pending) {
+            assertTrue("Requests did not queue on the busy lane", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    public void testFailedBatchIsReportedToEachRequest() throws Exception {
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.getCoalescer().setBatchHook(holdFirstBatch(entered, release, () -> {
+            throw new IllegalStateException("forced failure");
+        }));
+        int connections = 8;
+        List<PricingClient> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            for (int c = 0; c < connections; c++) {
+                PricingClient client = PricingClient.connect(server.getPort(), c % 2 == 1);
+                clients.add(client);
+                Thread thread = new Thread(() -> {
+                    try {
+                        client.getBondPrices("R186", SETTLEMENTDATE, 9.0);
+                        failure.compareAndSet(null, new AssertionError("Expected the failed batch to be reported"));
+                    } catch (IllegalArgumentException e) {
+                        if (!e.getMessage().contains("forced failure")) {
+                            failure.compareAndSet(null, e);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+                if (c == 0) {
+                    entered.await();
+                }
+            }
+            awaitPending(server.getCoalescer(), connections - 1);
+            release.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertNull(String.valueOf(failure.get()), failure.get());
+
+            // Every connection survives the failure
+            server.getCoalescer().setBatchHook(null);
+            double expected = new BondPricer(BondType.R186, SETTLEMENTDATE).getAllInPrice(9.0);
+            for (PricingClient client : clients) {
+                assertEquals(expected, client.getBondPrices("R186", SETTLEMENTDATE, 9.0)[1]);
+            }
+        } finally {
+            release.countDown();
+            for (PricingClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    public void testReloadedBondIsRepriced() throws IOException {
+
+        BondRegistry registry = BondRegistry.loadDefault();
+        Path file = Files.createTempFile("bonds", ".csv");
+        try (PricingServer reloadServer = new PricingServer(registry, 0).start();
+                PricingClient client = PricingClient.connect(reloadServer.getPort())) {
+            double before = client.getBondPrices("R186", SETTLEMENTDATE, 9.0)[1];
+            assertEquals(new BondPricer(BondType.R186, SETTLEMENTDATE).getAllInPrice(9.0), before);
+
+            Files.writeString(file, "R186,2026-12-21,11.5,06-21,12-21,06-11,12-11\n");
+            registry.reload(file);
+            double after = client.getBondPrices("R186", SETTLEMENTDATE, 9.0)[1];
+            assertEquals(new BondPricer(registry.getRequired("R186"), SETTLEMENTDATE).getAllInPrice(9.0), after);
+            assertTrue(after > before);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testLanesAreBounded() {
+
+        RequestCoalescer coalescer = new RequestCoalescer(BondRegistry.loadDefault(), null);
+        double[] values = new double[3];
+        LocalDate date = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < RequestCoalescer.MAXLANES + 100; i++) {
+            coalescer.evaluate(new PricingRequest(PricingProtocol.Type.PRICE, "R186", date.plusDays(i), 9.0),
+                    values);
+            assertTrue(coalescer.getLanes() <= RequestCoalescer.MAXLANES);
+        }
+        coalescer.evaluate(new PricingRequest(PricingProtocol.Type.PRICE, "R186", date, 9.0), values);
+        assertEquals(new BondPricer(BondType.R186, date).getAllInPrice(9.0), values[1]);
+    }
+
+    public void testRequestsCoalesceWhileLaneIsBusy() throws Exception {
+
+        RequestCoalescer coalescer = new RequestCoalescer(BondRegistry.loadDefault(), null);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        coalescer.setBatchHook(holdFirstBatch(entered, release, () -> { }));
+        int waiting = 20;
+        double[][] prices = new double[waiting + 1][3];
+        double[] yields = new double[waiting + 1];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i <= waiting; i++) {
+            int request = i;
+            yields[i] = 7.0 + i / 8.0;
+            Thread thread = new Thread(() -> coalescer.evaluate(new PricingRequest(PricingProtocol.Type.PRICE,
+                    "R186", SETTLEMENTDATE, yields[request]), prices[request]));
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                entered.await();
+            }
+        }
+        awaitPending(coalescer, waiting);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // The first request ran alone, and the ones queued behind it in a single batch
+        assertEquals(waiting + 1, coalescer.getRequests());
+        assertEquals(2, coalescer.getBatches());
+        assertTrue(coalescer.getBatches() < coalescer.getRequests());
+        BondPricer pricer = new BondPricer(BondType.R186, SETTLEMENTDATE);
+        for (int i = 0; i <= waiting; i++) {
+            double[] expected = pricer.getBondPrices(yields[i]);
+            assertEquals(expected[0], prices[i][0]);
+            assertEquals(expected[1], prices[i][1]);
+            assertEquals(pricer.getAccruedInterest(), prices[i][2]);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package bondpricer;
+
+/**
+ * The {@code Bond} record pairs a bond's name with its details, for bonds
+ * that are loaded at runtime rather than listed in {@link BondType}.
+ *
+ * @param name    the bond name, such as R186
+ * @param details the bond details
+ */
+public record Bond(
+        String name,
+        BondDetails details
+) {
+
+    /**
+     * Gets the bond for a bond type.
+     *
+     * @param bondType the bond type
+     * @return the bond
+     */
+    public static Bond of(final BondType bondType) {
+        return new Bond(bondType.name(), bondType.getBondDetails());
+    }
+}
@@ -1,10 +1,7 @@
 package bondpricer;
 
 import java.time.LocalDate;
-import java.time.MonthDay;
-import java.time.temporal.ChronoUnit;
 import java.util.Map;
-import java.util.HashMap;
 
 /**
  * The {@code BondPricer} class calculates various bond prices and details.
@@ -13,33 +10,21 @@ import java.util.HashMap;
  * https://clientportal.jse.co.za/Content/JSEValuations%20Methodologies/Bond%20Pricing%20Formula%20-%20Speciﬁcations.pdf
  * It uses bond-related parameters to perform calculations such as clean price,
  * all-in price, accrued interest, and more.
+ * The settlement date dependent values are held in an immutable
+ * {@link SettlementSnapshot}, which can be shared between pricing threads.
  */
 public class BondPricer {
 
     private String bondName;
-    private final LocalDate maturityDate;
-    private final MonthDay firstCouponDate;
-    private final MonthDay secondCouponDate;
-    private final MonthDay firstBooksCloseDate;
-    private final MonthDay secondBooksCloseDate;
-    private final double couponRate;
-    private final double basicCouponAmount;
-
-    private LocalDate settlementDate;
-    private LocalDate nextCouponDate;
-    private LocalDate booksCloseDate;
-    private LocalDate lastCouponDate;
-    private int numberRemainingCoupons;
-    private long daysAccrued;
-    private boolean cumexFlag;
-    private double couponPayable;
-    private double accruedInterest;
-
-    private static final int FREQUENCY = 2;
-    private static final int DAYSINYEAR = 365;
-    private static final double AVERAGEDAYSINYEAR = 365.25;
-    private static final int PROUND = 5;
-    private static final double SCALE = Math.pow(10, PROUND);
+    private final BondDetails details;
+
+    private SettlementSnapshot snapshot;
+    private SettlementTable settlementTable;
+    private double yieldTolerance = SettlementSnapshot.DEFAULTYIELDTOLERANCE;
+    private final int[] solverIterations = new int[1];
+    private PricerMetrics.Counters metrics;
+    private IncrementalPricer incrementalPricer;
+    private ChebyshevPricer approximation;
 
     /**
      * Constructs a {@code BondPricer} with the specified bond type.
@@ -48,33 +33,185 @@ public class BondPricer {
      * @param settlementDate the settlement date
      */
     public BondPricer(final BondType bondType, final LocalDate settlementDate) {
-        bondName = bondType.name();
-        BondDetails details = bondType.getBondDetails();
-        maturityDate = details.maturityDate();
-        couponRate = details.couponRate();
-        firstCouponDate = details.firstCouponDate();
-        secondCouponDate = details.secondCouponDate();
-        firstBooksCloseDate = details.firstBooksCloseDate();
-        secondBooksCloseDate = details.secondBooksCloseDate();
-        basicCouponAmount = couponRate / FREQUENCY;
+        this(Bond.of(bondType), settlementDate);
+    }
+
+    /**
+     * Constructs a {@code BondPricer} for a bond, such as one held in a
+     * {@link BondRegistry}.
+     *
+     * @param bond           the bond
+     * @param settlementDate the settlement date
+     */
+    public BondPricer(final Bond bond, final LocalDate settlementDate) {
+        bondName = bond.name();
+        details = bond.details();
         setSettlementDate(settlementDate);
     }
 
+    /**
+     * Constructs a {@code BondPricer} from a precomputed settlement snapshot,
+     * such as one read from a {@link PreMarketSnapshot}, so no settlement
+     * date values are calculated.
+     *
+     * @param bond     the bond
+     * @param snapshot the settlement snapshot of the bond
+     * @throws IllegalArgumentException if the snapshot is for a different
+     *                                  bond
+     */
+    public BondPricer(final Bond bond, final SettlementSnapshot snapshot) {
+        if (snapshot.getBondDetails() != bond.details() && !snapshot.getBondDetails().equals(bond.details())) {
+            throw new IllegalArgumentException("Settlement snapshot is for a different bond");
+        }
+        bondName = bond.name();
+        details = bond.details();
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Constructs a {@code BondPricer} for a trade, settling
+     * {@value BusinessCalendar#SETTLEMENTDAYS} business days after the trade
+     * date.
+     *
+     * @param bond      the bond
+     * @param tradeDate the trade date
+     * @param calendar  the business calendar
+     * @throws IllegalArgumentException if a date is outside the calendar
+     */
+    public BondPricer(final Bond bond, final LocalDate tradeDate, final BusinessCalendar calendar) {
+        this(bond, calendar.getSettlementDate(tradeDate));
+    }
+
+    /**
+     * Constructs a {@code BondPricer} with the specified bond type for a
+     * trade, settling {@value BusinessCalendar#SETTLEMENTDAYS} business days
+     * after the trade date.
+     *
+     * @param bondType  the bond type
+     * @param tradeDate the trade date
+     * @param calendar  the business calendar
+     * @throws IllegalArgumentException if a date is outside the calendar
+     */
+    public BondPricer(final BondType bondType, final LocalDate tradeDate, final BusinessCalendar calendar) {
+        this(Bond.of(bondType), tradeDate, calendar);
+    }
+
+    /**
+     * Sets the settlement date of a trade,
+     * {@value BusinessCalendar#SETTLEMENTDAYS} business days after the trade
+     * date, and calculates date related values.
+     *
+     * @param tradeDate the trade date
+     * @param calendar  the business calendar
+     * @throws IllegalArgumentException if a date is outside the calendar
+     */
+    public void setTradeDate(final LocalDate tradeDate, final BusinessCalendar calendar) {
+        setSettlementDate(calendar.getSettlementDate(tradeDate));
+    }
+
     /**
      * Sets the settlement date and calculates date related values.
+     * Dates covered by the settlement table, if one is set, are looked up
+     * instead of calculated.
      *
      * @param settlementDate the settlement date
      */
     public void setSettlementDate(final LocalDate settlementDate) {
-        this.settlementDate = settlementDate;
-        nextCouponDate = getNextCouponDate();
-        booksCloseDate = getBooksCloseDate();
-        lastCouponDate = getLastCouponDate();
-        numberRemainingCoupons = calculateRemainingCoupons();
-        cumexFlag = isCumEx();
-        daysAccrued = calculateDaysAccrued();
-        couponPayable = calculateCouponPayable();
-        accruedInterest = calculateAccruedInterest();
+        PricerMetrics.SettlementUpdateEvent event = (metrics != null) ? metrics.beginSettlement() : null;
+        boolean fromTable = settlementTable != null && settlementTable.contains(settlementDate);
+        snapshot = fromTable ? settlementTable.getSnapshot(settlementDate)
+                : SettlementSnapshot.of(details, settlementDate);
+        if (incrementalPricer != null) {
+            incrementalPricer.setSettlementSnapshot(snapshot);
+        }
+        if (approximation != null) {
+            approximation = ChebyshevPricer.build(snapshot, approximation.getMinYield(),
+                    approximation.getMaxYield());
+        }
+        if (metrics != null) {
+            metrics.settled(snapshot, fromTable, event);
+        }
+    }
+
+    /**
+     * Sets a precomputed settlement table for the bond, so that later
+     * settlement date changes within the table are array lookups.
+     *
+     * @param settlementTable the settlement table, or {@code null} to
+     *                        calculate every settlement date
+     * @throws IllegalArgumentException if the table is for a different bond
+     */
+    public void setSettlementTable(final SettlementTable settlementTable) {
+        if (settlementTable != null && !settlementTable.getBondDetails().equals(details)) {
+            throw new IllegalArgumentException("Settlement table is for a different bond");
+        }
+        this.settlementTable = settlementTable;
+    }
+
+    /**
+     * Attaches metrics that count and time the calls to this pricer. Many
+     * pricers can share one {@link PricerMetrics}.
+     *
+     * @param metrics the metrics, or {@code null} to stop collecting them
+     */
+    public void setMetrics(final PricerMetrics metrics) {
+        this.metrics = (metrics != null) ? metrics.counters(bondName) : null;
+    }
+
+    /**
+     * Turns incremental pricing of single yields on or off. When on, small
+     * yield moves are priced from an expansion around the last exactly
+     * priced yield, with identical rounded prices; see
+     * {@link IncrementalPricer}.
+     *
+     * @param enabled whether to price incrementally
+     */
+    public void setIncrementalPricing(final boolean enabled) {
+        incrementalPricer = enabled ? new IncrementalPricer(snapshot) : null;
+    }
+
+    /**
+     * Turns approximate pricing on or off, over yields from
+     * {@value ChebyshevPricer#DEFAULTMINYIELD} to
+     * {@value ChebyshevPricer#DEFAULTMAXYIELD} percent.
+     *
+     * @param enabled whether to price from the approximation
+     * @see #setApproximatePricing(double, double)
+     */
+    public void setApproximatePricing(final boolean enabled) {
+        if (enabled) {
+            setApproximatePricing(ChebyshevPricer.DEFAULTMINYIELD, ChebyshevPricer.DEFAULTMAXYIELD);
+        } else {
+            approximation = null;
+        }
+    }
+
+    /**
+     * Turns approximate pricing on over a band of yields. Prices in the band
+     * are evaluated from a Chebyshev fit of the price, refitted on every
+     * settlement date change, with identical rounded prices; see
+     * {@link ChebyshevPricer}. Approximate pricing takes precedence over
+     * incremental pricing.
+     *
+     * @param minYield the lowest yield of the band
+     * @param maxYield the highest yield of the band
+     * @throws IllegalArgumentException if the band is empty, starts below
+     *                                  {@value ChebyshevPricer#MINYIELD} or
+     *                                  cannot be fitted
+     */
+    public void setApproximatePricing(final double minYield, final double maxYield) {
+        approximation = ChebyshevPricer.build(snapshot, minYield, maxYield);
+    }
+
+    /**
+     * Gets the immutable snapshot of the current settlement date dependent
+     * values. The snapshot is not affected by later settlement date changes
+     * and can be used to price the bond concurrently from many threads.
+     *
+     * @return the settlement snapshot
+     */
+    public SettlementSnapshot getSettlementSnapshot() {
+        return snapshot;
     }
 
     /**
@@ -83,7 +220,7 @@ public class BondPricer {
      * @return the accrued interest
      */
     public double getAccruedInterest() {
-        return Math.round(accruedInterest * SCALE) / SCALE;
+        return snapshot.getAccruedInterest();
     }
 
     /**
@@ -94,18 +231,10 @@ public class BondPricer {
      * @return the all-in price
      */
     public double getAllInPrice(final double yield) {
-        double discountFactor = calculateDiscountFactor(yield);
-        double brokenPeriod = calculateBrokenPeriod(settlementDate,
-                nextCouponDate,
-                discountFactor);
-        double brokenPeriodDiscountFactor = calculateBrokenPeriodDiscountFactor(
-                nextCouponDate,
-                discountFactor,
-                brokenPeriod);
-        return Math.round(calculateAllInPrice(discountFactor,
-                brokenPeriod,
-                brokenPeriodDiscountFactor,
-                yield) * SCALE) / SCALE;
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.ALLINPRICE, snapshot, 1);
+        }
+        return calculateAllInPrice(yield);
     }
 
     /**
@@ -115,8 +244,13 @@ public class BondPricer {
      * @return the clean price
      */
     public double getCleanPrice(final double yield) {
-        return Math.round(calculateCleanPrice(getAllInPrice(yield))
-                * SCALE) / SCALE;
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.CLEANPRICE, snapshot, 1);
+        }
+        if (approximation != null || incrementalPricer != null) {
+            return SettlementSnapshot.round(snapshot.calculateCleanPrice(calculateAllInPrice(yield)));
+        }
+        return snapshot.getCleanPrice(yield);
     }
 
     /**
@@ -127,130 +261,199 @@ public class BondPricer {
      *         dirty price at index 1
      */
     public double[] getBondPrices(final double yield) {
-        double discountFactor = calculateDiscountFactor(yield);
-        double brokenPeriod = calculateBrokenPeriod(settlementDate,
-                nextCouponDate,
-                discountFactor);
-        double brokenPeriodDiscountFactor = calculateBrokenPeriodDiscountFactor(
-                nextCouponDate,
-                discountFactor,
-                brokenPeriod);
-        double allInPrice = Math.round(
-                calculateAllInPrice(discountFactor,
-                        brokenPeriod,
-                        brokenPeriodDiscountFactor, yield) * SCALE)
-                / SCALE;
-        double cleanPrice = Math.round(calculateCleanPrice(allInPrice)
-                * SCALE) / SCALE;
-        return new double[] { cleanPrice, allInPrice };
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.BONDPRICES, snapshot, 1);
+        }
+        if (approximation != null) {
+            return approximation.getBondPrices(yield);
+        }
+        return (incrementalPricer != null) ? incrementalPricer.getBondPrices(yield) : snapshot.getBondPrices(yield);
     }
 
-    private double calculateCleanPrice(final double allInPrice) {
-        return allInPrice - accruedInterest;
+    /**
+     * Gets the clean and dirty prices of the bond for a batch of yields.
+     * The settlement dependent values are shared by every yield and no
+     * objects are allocated, the results are identical to calling
+     * {@link #getBondPrices(double)} for each yield.
+     *
+     * @param yields      the yields
+     * @param cleanPrices receives the clean price of each yield
+     * @param allInPrices receives the all-in price of each yield
+     * @throws IllegalArgumentException if an output array is shorter than
+     *                                  the yields
+     */
+    public void getBondPrices(final double[] yields, final double[] cleanPrices,
+            final double[] allInPrices) {
+        PricerMetrics.BatchPricingEvent event = (metrics != null) ? metrics.beginBatch() : null;
+        if (approximation != null) {
+            approximation.getBondPrices(yields, cleanPrices, allInPrices);
+        } else {
+            snapshot.getBondPrices(yields, cleanPrices, allInPrices);
+        }
+        if (metrics != null) {
+            metrics.batched(PricerMetrics.Method.BONDPRICESBATCH, snapshot, yields.length, event);
+        }
     }
 
-    private double calculateAllInPrice(final double discountFactor,
-            final double brokenPeriod, final double brokenPeriodDiscountFactor,
-            final double yield) {
-        return brokenPeriodDiscountFactor * (couponPayable
-                + basicCouponAmount * (discountFactor
-                        * (1 - Math.pow(discountFactor, numberRemainingCoupons))
-                        / (1 - discountFactor))
-                + 100 * Math.pow(discountFactor, numberRemainingCoupons));
+    /**
+     * Calculates the prices of the bond together with its modified duration,
+     * DV01 and convexity for the specified yield. The sensitivities are the
+     * analytic derivatives of the pricing formula, so no bumped prices are
+     * calculated.
+     *
+     * @param yield the yield
+     * @return the prices and risk measures
+     */
+    public RiskMeasures getRiskMeasures(final double yield) {
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.RISKMEASURES, snapshot, 1);
+        }
+        return snapshot.getRiskMeasures(yield);
     }
 
-    private LocalDate getNextCouponDate() {
-        return (settlementDate.isBefore(
-                firstCouponDate.atYear(settlementDate.getYear())))
-                        ? firstCouponDate.atYear(settlementDate.getYear())
-                        : (settlementDate.isBefore(secondCouponDate.atYear(
-                                settlementDate.getYear())))
-                                        ? secondCouponDate.atYear(settlementDate.getYear())
-                                        : firstCouponDate.atYear(settlementDate.getYear() + 1);
+    /**
+     * Solves for the yield at which the bond has the specified all-in price.
+     * Uses Newton's method on the analytic slope of the pricing formula,
+     * falling back to bisection whenever a step leaves the bracket.
+     *
+     * @param allInPrice the all-in price
+     * @return the yield, or {@code NaN} if no yield reproduces the price
+     */
+    public double getYield(final double allInPrice) {
+        solverIterations[0] = 0;
+        double yield = snapshot.solveYield(allInPrice, details.couponRate(), yieldTolerance, solverIterations);
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.YIELD, snapshot, solverIterations[0]);
+        }
+        return yield;
     }
 
-    private LocalDate getLastCouponDate() {
-        return (nextCouponDate.equals(firstCouponDate.atYear(nextCouponDate.getYear())))
-                ? secondCouponDate.atYear(nextCouponDate.getYear() - 1)
-                : firstCouponDate.atYear(nextCouponDate.getYear());
+    /**
+     * Solves for the yield at which the bond has the specified clean price.
+     *
+     * @param cleanPrice the clean price
+     * @return the yield, or {@code NaN} if no yield reproduces the price
+     */
+    public double getYieldFromCleanPrice(final double cleanPrice) {
+        return getYield(cleanPrice + snapshot.getUnroundedAccruedInterest());
     }
 
-    private LocalDate getBooksCloseDate() {
-        return (nextCouponDate.equals(firstCouponDate.atYear(nextCouponDate.getYear()))
-                ? firstBooksCloseDate.atYear(nextCouponDate.getYear())
-                : secondBooksCloseDate.atYear(nextCouponDate.getYear()));
+    /**
+     * Solves for the yields of a batch of all-in prices. Each solve starts
+     * from the previous solution, so sorted or clustered prices converge in
+     * very few iterations.
+     *
+     * @param allInPrices the all-in prices
+     * @param yields      receives the yield of each price
+     * @throws IllegalArgumentException if the output array is shorter than
+     *                                  the prices
+     */
+    public void getYields(final double[] allInPrices, final double[] yields) {
+        solveYields(allInPrices, 0, yields);
     }
 
-    private int calculateRemainingCoupons() {
-        long daysBetween = ChronoUnit.DAYS.between(nextCouponDate, maturityDate);
-        return (int) Math.round(daysBetween / (AVERAGEDAYSINYEAR / FREQUENCY));
+    /**
+     * Solves for the yields of a batch of clean prices.
+     *
+     * @param cleanPrices the clean prices
+     * @param yields      receives the yield of each price
+     * @throws IllegalArgumentException if the output array is shorter than
+     *                                  the prices
+     */
+    public void getYieldsFromCleanPrices(final double[] cleanPrices, final double[] yields) {
+        solveYields(cleanPrices, snapshot.getUnroundedAccruedInterest(), yields);
     }
 
-    private boolean isCumEx() {
-        return settlementDate.isBefore(booksCloseDate);
+    private double calculateAllInPrice(final double yield) {
+        if (approximation != null) {
+            return approximation.getAllInPrice(yield);
+        }
+        return (incrementalPricer != null) ? incrementalPricer.getAllInPrice(yield) : snapshot.getAllInPrice(yield);
     }
 
-    private long calculateDaysAccrued() {
-        return cumexFlag ? ChronoUnit.DAYS.between(lastCouponDate, settlementDate)
-                : ChronoUnit.DAYS.between(nextCouponDate, settlementDate);
+    private void solveYields(final double[] prices, final double accrued, final double[] yields) {
+        PricerMetrics.BatchPricingEvent event = (metrics != null) ? metrics.beginBatch() : null;
+        solverIterations[0] = 0;
+        snapshot.solveYields(prices, accrued, yields, yieldTolerance, solverIterations);
+        if (metrics != null) {
+            metrics.batched(PricerMetrics.Method.YIELDSBATCH, snapshot, solverIterations[0], event);
+        }
     }
 
-    private double calculateDiscountFactor(final double yield) {
-        return 1 / (1 + yield / (100 * FREQUENCY));
+    /**
+     * Sets the tolerance on the yield at which the solver stops.
+     *
+     * @param yieldTolerance the yield tolerance, in percentage points
+     * @throws IllegalArgumentException if the tolerance is not positive
+     */
+    public void setYieldTolerance(final double yieldTolerance) {
+        if (!(yieldTolerance > 0)) {
+            throw new IllegalArgumentException("Yield tolerance must be positive: " + yieldTolerance);
+        }
+        this.yieldTolerance = yieldTolerance;
     }
 
-    private double calculateCouponPayable() {
-        return cumexFlag ? basicCouponAmount : 0;
+    /**
+     * Gets the tolerance on the yield at which the solver stops.
+     *
+     * @return the yield tolerance
+     */
+    public double getYieldTolerance() {
+        return yieldTolerance;
     }
 
-    private double calculateAccruedInterest() {
-        return daysAccrued * couponRate / DAYSINYEAR;
+    /**
+     * Gets the number of pricing evaluations used by the last yield solve,
+     * summed over all prices for a batch solve.
+     *
+     * @return the solver iteration count
+     */
+    public int getSolverIterations() {
+        return solverIterations[0];
     }
 
-    private double calculateBrokenPeriod(final LocalDate settlementDate,
-            final LocalDate nextCouponDate, final double discountFactor) {
-        return (!nextCouponDate.isEqual(maturityDate))
-                ? (double) ChronoUnit.DAYS.between(settlementDate, nextCouponDate)
-                        / ChronoUnit.DAYS.between(lastCouponDate, nextCouponDate)
-                : ChronoUnit.DAYS.between(settlementDate, nextCouponDate) / (DAYSINYEAR / FREQUENCY);
+    /**
+     * Calculates the intermediate values and unrounded prices of the bond for
+     * the specified yield.
+     *
+     * @param yield the yield
+     * @return the pricing details
+     */
+    public PricingDetails getPricingDetails(final double yield) {
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.PRICINGDETAILS, snapshot, 1);
+        }
+        return snapshot.getPricingDetails(yield);
     }
 
-    private double calculateBrokenPeriodDiscountFactor(final LocalDate nextCouponDate, final double discountFactor,
-            final double brokenPeriod) {
-        return (!nextCouponDate.isEqual(maturityDate)) ? Math.pow(discountFactor, brokenPeriod)
-                : discountFactor / (discountFactor + brokenPeriod * (1 - discountFactor));
+    /**
+     * Calculates the intermediate values and unrounded prices of the bond for
+     * the specified yield into a caller owned instance, without allocating.
+     *
+     * @param yield   the yield
+     * @param details the instance to fill
+     * @return the filled instance
+     */
+    public PricingDetails getPricingDetails(final double yield, final PricingDetails details) {
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.PRICINGDETAILS, snapshot, 1);
+        }
+        return snapshot.getPricingDetails(yield, details);
     }
 
     /**
-     * Gets the bond details in a map.
+     * Gets the bond details in a map. Kept for compatibility, the typed
+     * {@link #getPricingDetails(double, PricingDetails)} does not box or
+     * allocate.
      *
      * @param yield the yield
      * @return a map containing the bond details
      */
     public Map<String, Object> getBondDetails(final double yield) {
-        Map<String, Object> bondDetails = new HashMap<>();
-        double discountFactor = calculateDiscountFactor(yield);
-        double brokenPeriod = calculateBrokenPeriod(settlementDate, nextCouponDate, accruedInterest);
-        double brokenPeriodDiscountFactor = calculateBrokenPeriodDiscountFactor(nextCouponDate, discountFactor,
-                brokenPeriod);
-        double allInPrice = calculateAllInPrice(discountFactor, brokenPeriod, brokenPeriodDiscountFactor, yield);
-        double cleanPrice = calculateCleanPrice(allInPrice);
-
-        bondDetails.put("nextCouponDate", nextCouponDate);
-        bondDetails.put("lastCouponDate", lastCouponDate);
-        bondDetails.put("booksCloseDate", booksCloseDate);
-        bondDetails.put("numberRemainingCoupons", numberRemainingCoupons);
-        bondDetails.put("cumexFlag", cumexFlag);
-        bondDetails.put("daysAccrued", daysAccrued);
-        bondDetails.put("accruedInterest", accruedInterest);
-        bondDetails.put("brokenPeriod", brokenPeriod);
-        bondDetails.put("brokenPeriodDiscountFactor", brokenPeriodDiscountFactor);
-        bondDetails.put("discountFactor", discountFactor);
-        bondDetails.put("couponPayable", couponPayable);
-        bondDetails.put("allInPrice", allInPrice);
-        bondDetails.put("cleanPrice", cleanPrice);
-
-        return bondDetails;
+        if (metrics != null) {
+            metrics.priced(PricerMetrics.Method.PRICINGDETAILS, snapshot, 1);
+        }
+        return snapshot.getPricingDetails(yield).toMap();
     }
 
     /**
@@ -261,12 +464,12 @@ public class BondPricer {
     @Override
     public String toString() {
         return "The bond type is: " + bondName + "\n" +
-                "The next coupon date is: " + nextCouponDate + "\n" +
-                "The books close date is: " + booksCloseDate + "\n" +
-                "Number of remaining coupons: " + numberRemainingCoupons + "\n" +
-                "Cum-ex flag: " + cumexFlag + "\n" +
-                "Days accrued interest: " + daysAccrued + "\n" +
-                "Accrued Interest: " + accruedInterest + "\n" +
-                "Coupon at Next Coupon Date: " + couponPayable;
+                "The next coupon date is: " + snapshot.getNextCouponDate() + "\n" +
+                "The books close date is: " + snapshot.getBooksCloseDate() + "\n" +
+                "Number of remaining coupons: " + snapshot.getNumberRemainingCoupons() + "\n" +
+                "Cum-ex flag: " + snapshot.isCumEx() + "\n" +
+                "Days accrued interest: " + snapshot.getDaysAccrued() + "\n" +
+                "Accrued Interest: " + snapshot.getUnroundedAccruedInterest() + "\n" +
+                "Coupon at Next Coupon Date: " + snapshot.getCouponPayable();
     }
 }
@@ -0,0 +1,237 @@
+package bondpricer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code BondRegistry} class holds the universe of bonds that can be
+ * priced, loaded from a CSV file instead of being listed in code.
+ * Each line holds one bond:
+ * <pre>
+ * name,maturityDate,couponRate,firstCouponDate,secondCouponDate,firstBooksCloseDate,secondBooksCloseDate
+ * R186,2026-12-21,10.5,06-21,12-21,06-11,12-11
+ * </pre>
+ * with the coupon and books close dates given as {@code MM-dd}. Blank lines
+ * and lines starting with {@code #} are ignored.
+ * Bond names are interned and held in a hash index. The index is immutable
+ * and is replaced as a whole on {@link #reload(Path)}, so pricing threads
+ * can read the registry while it is being reloaded.
+ */
+public final class BondRegistry {
+
+    private static final String DEFAULTRESOURCE = "jse-bonds.csv";
+    private static final int FIELDS = 7;
+
+    private volatile Map<String, Bond> bonds;
+
+    private BondRegistry(final Map<String, Bond> bonds) {
+        this.bonds = bonds;
+    }
+
+    /**
+     * Loads a registry from a CSV file.
+     *
+     * @param path the CSV file
+     * @return the bond registry
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static BondRegistry load(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new BondRegistry(parse(reader));
+        }
+    }
+
+    /**
+     * Loads a registry from CSV text.
+     *
+     * @param reader the CSV text
+     * @return the bond registry
+     * @throws IOException              if the text cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static BondRegistry load(final Reader reader) throws IOException {
+        return new BondRegistry(parse(reader));
+    }
+
+    /**
+     * Loads the JSE government bonds bundled with the library.
+     *
+     * @return the bond registry
+     * @throws IllegalStateException if the bundled bonds are missing
+     */
+    public static BondRegistry loadDefault() {
+        return loadResource(DEFAULTRESOURCE);
+    }
+
+    static BondRegistry loadResource(final String resource) {
+        try (InputStream in = BondRegistry.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Bond resource not found on the classpath: " + resource);
+            }
+            return new BondRegistry(parse(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a registry holding the given bonds.
+     *
+     * @param bonds the bonds
+     * @return the bond registry
+     * @throws IllegalArgumentException if two bonds have the same name
+     */
+    public static BondRegistry of(final Collection<Bond> bonds) {
+        Map<String, Bond> index = new HashMap<>(capacity(bonds.size()));
+        for (Bond bond : bonds) {
+            put(index, new Bond(bond.name().intern(), bond.details()));
+        }
+        return new BondRegistry(Collections.unmodifiableMap(index));
+    }
+
+    /**
+     * Replaces the bonds in the registry with those in a CSV file. Readers
+     * see either the old or the new universe, never a mix of the two, and
+     * the registry is unchanged if the file cannot be loaded.
+     *
+     * @param path the CSV file
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public void reload(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            bonds = parse(reader);
+        }
+    }
+
+    /**
+     * Gets a bond by name.
+     *
+     * @param name the bond name
+     * @return the bond, or {@code null} if the registry does not hold it
+     */
+    public Bond get(final String name) {
+        return bonds.get(name);
+    }
+
+    /**
+     * Gets a bond by name, failing if the registry does not hold it.
+     *
+     * @param name the bond name
+     * @return the bond
+     * @throws IllegalArgumentException if the registry does not hold the bond
+     */
+    public Bond getRequired(final String name) {
+        Bond bond = bonds.get(name);
+        if (bond == null) {
+            throw new IllegalArgumentException("Unknown bond: " + name);
+        }
+        return bond;
+    }
+
+    /**
+     * Gets all the bonds in the registry.
+     *
+     * @return an unmodifiable view of the bonds
+     */
+    public Collection<Bond> getBonds() {
+        return bonds.values();
+    }
+
+    /**
+     * Gets the number of bonds in the registry.
+     *
+     * @return the number of bonds
+     */
+    public int size() {
+        return bonds.size();
+    }
+
+    private static Map<String, Bond> parse(final Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        Map<String, Bond> index = new HashMap<>();
+        String[] fields = new String[FIELDS];
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            try {
+                split(line, fields);
+                BondDetails details = new BondDetails(
+                        LocalDate.parse(fields[1]),
+                        Double.parseDouble(fields[2]),
+                        parseMonthDay(fields[3]),
+                        parseMonthDay(fields[4]),
+                        parseMonthDay(fields[5]),
+                        parseMonthDay(fields[6]));
+                checkDates(details);
+                put(index, new Bond(fields[0].intern(), details));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid bond on line " + lineNumber + ": " + line, e);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static void checkDates(final BondDetails details) {
+        if (!details.firstCouponDate().isBefore(details.secondCouponDate())) {
+            throw new IllegalArgumentException("First coupon date " + details.firstCouponDate()
+                    + " is not before second coupon date " + details.secondCouponDate());
+        }
+        if (!details.firstBooksCloseDate().isBefore(details.firstCouponDate())) {
+            throw new IllegalArgumentException("Books close date " + details.firstBooksCloseDate()
+                    + " is not before coupon date " + details.firstCouponDate());
+        }
+        if (!details.secondBooksCloseDate().isBefore(details.secondCouponDate())) {
+            throw new IllegalArgumentException("Books close date " + details.secondBooksCloseDate()
+                    + " is not before coupon date " + details.secondCouponDate());
+        }
+    }
+
+    private static void split(final String line, final String[] fields) {
+        int start = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            int end = (i < FIELDS - 1) ? line.indexOf(',', start) : line.length();
+            if (end < 0) {
+                throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+            }
+            fields[i] = line.substring(start, end).trim();
+            start = end + 1;
+        }
+        if (fields[FIELDS - 1].indexOf(',') >= 0) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields");
+        }
+    }
+
+    private static MonthDay parseMonthDay(final String text) {
+        return MonthDay.parse(text.startsWith("--") ? text : "--" + text);
+    }
+
+    private static void put(final Map<String, Bond> index, final Bond bond) {
+        if (index.putIfAbsent(bond.name(), bond) != null) {
+            throw new IllegalArgumentException("Duplicate bond: " + bond.name());
+        }
+    }
+
+    private static int capacity(final int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
@@ -0,0 +1,294 @@
+package bondpricer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code BusinessCalendar} class tells business days from weekends and
+ * holidays, and converts trade dates to settlement dates. The business days
+ * of the calendar's range are precomputed into a bitset indexed by epoch
+ * day, so checking a day is one array read and adding business days counts
+ * the bits of whole 64 day words at a time.
+ * <p>
+ * Holidays are loaded from a CSV file with one holiday per line:
+ * <pre>
+ * date,name
+ * 2024-05-29,General election
+ * </pre>
+ * Blank lines and lines starting with {@code #} are ignored, and the name
+ * is optional. The calendar covers every day from 1 January of the first
+ * year to 31 December of the last year with a holiday. A calendar is
+ * immutable and can be shared between threads.
+ */
+public final class BusinessCalendar {
+
+    /**
+     * The number of business days from trade date to settlement date on the
+     * JSE.
+     */
+    public static final int SETTLEMENTDAYS = 3;
+
+    private static final String DEFAULTRESOURCE = "jse-holidays.csv";
+
+    private final long firstDay;
+    private final long lastDay;
+    private final long[] businessDays;
+
+    private BusinessCalendar(final LocalDate firstDate, final LocalDate lastDate,
+            final Collection<LocalDate> holidays) {
+        firstDay = firstDate.toEpochDay();
+        lastDay = lastDate.toEpochDay();
+        if (lastDay < firstDay) {
+            throw new IllegalArgumentException("Calendar ends on " + lastDate + " before it starts on "
+                    + firstDate);
+        }
+        businessDays = new long[(int) ((lastDay - firstDay) >> 6) + 1];
+        int offset = firstDate.getDayOfWeek().getValue() - 1;
+        for (long day = firstDay; day <= lastDay; day++) {
+            // Monday to Friday, counting from the first date's day of the week
+            if ((day - firstDay + offset) % 7 < 5) {
+                int index = (int) (day - firstDay);
+                businessDays[index >> 6] |= 1L << index;
+            }
+        }
+        for (LocalDate holiday : holidays) {
+            long day = holiday.toEpochDay();
+            if (day >= firstDay && day <= lastDay) {
+                int index = (int) (day - firstDay);
+                businessDays[index >> 6] &= ~(1L << index);
+            }
+        }
+    }
+
+    /**
+     * Creates a calendar for a range of dates with the given holidays.
+     * Holidays outside the range are ignored.
+     *
+     * @param firstDate the first date of the calendar
+     * @param lastDate  the last date of the calendar
+     * @param holidays  the holidays
+     * @return the business calendar
+     * @throws IllegalArgumentException if the last date is before the first
+     */
+    public static BusinessCalendar of(final LocalDate firstDate, final LocalDate lastDate,
+            final Collection<LocalDate> holidays) {
+        return new BusinessCalendar(firstDate, lastDate, holidays);
+    }
+
+    /**
+     * Loads a calendar from a holiday file.
+     *
+     * @param path the CSV file
+     * @return the business calendar
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed or the file
+     *                                  has no holidays
+     */
+    public static BusinessCalendar load(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Loads a calendar from holiday CSV text.
+     *
+     * @param reader the CSV text
+     * @return the business calendar
+     * @throws IOException              if the text cannot be read
+     * @throws IllegalArgumentException if a line is malformed or the text
+     *                                  has no holidays
+     */
+    public static BusinessCalendar load(final Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        List<LocalDate> holidays = new ArrayList<>();
+        LocalDate first = LocalDate.MAX;
+        LocalDate last = LocalDate.MIN;
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            int comma = line.indexOf(',');
+            LocalDate holiday;
+            try {
+                holiday = LocalDate.parse((comma < 0) ? line : line.substring(0, comma).trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid holiday on line " + lineNumber + ": " + line, e);
+            }
+            holidays.add(holiday);
+            first = holiday.isBefore(first) ? holiday : first;
+            last = holiday.isAfter(last) ? holiday : last;
+        }
+        if (holidays.isEmpty()) {
+            throw new IllegalArgumentException("No holidays to set the calendar range");
+        }
+        return new BusinessCalendar(first.withDayOfYear(1), last.withDayOfYear(last.lengthOfYear()), holidays);
+    }
+
+    /**
+     * Loads the JSE holiday calendar bundled with the library.
+     *
+     * @return the business calendar
+     */
+    public static BusinessCalendar loadDefault() {
+        try (InputStream in = BusinessCalendar.class.getResourceAsStream(DEFAULTRESOURCE)) {
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the first date of the calendar.
+     *
+     * @return the first date
+     */
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    /**
+     * Gets the last date of the calendar.
+     *
+     * @return the last date
+     */
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(lastDay);
+    }
+
+    /**
+     * Checks whether a date is a business day.
+     *
+     * @param date the date
+     * @return {@code true} if the date is neither a weekend nor a holiday
+     * @throws IllegalArgumentException if the date is outside the calendar
+     */
+    public boolean isBusinessDay(final LocalDate date) {
+        return isBusinessDay(date.toEpochDay());
+    }
+
+    /**
+     * Checks whether an epoch day is a business day.
+     *
+     * @param epochDay the epoch day
+     * @return {@code true} if the day is neither a weekend nor a holiday
+     * @throws IllegalArgumentException if the day is outside the calendar
+     */
+    public boolean isBusinessDay(final long epochDay) {
+        int index = indexOf(epochDay);
+        return (businessDays[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Adds business days to a date.
+     *
+     * @param date the date, which need not be a business day
+     * @param days the business days to add, negative to go back
+     * @return the date {@code days} business days after the date, or the
+     *         date itself if {@code days} is zero
+     * @throws IllegalArgumentException if the date or the result is outside
+     *                                  the calendar
+     */
+    public LocalDate addBusinessDays(final LocalDate date, final int days) {
+        return LocalDate.ofEpochDay(addBusinessDays(date.toEpochDay(), days));
+    }
+
+    /**
+     * Adds business days to an epoch day, without allocating.
+     *
+     * @param epochDay the epoch day, which need not be a business day
+     * @param days     the business days to add, negative to go back
+     * @return the epoch day {@code days} business days after the day, or
+     *         the day itself if {@code days} is zero
+     * @throws IllegalArgumentException if the day or the result is outside
+     *                                  the calendar
+     */
+    public long addBusinessDays(final long epochDay, final int days) {
+        int index = indexOf(epochDay);
+        return firstDay + ((days >= 0) ? forward(index, days) : backward(index, -days));
+    }
+
+    private int forward(final int index, final int days) {
+        if (days == 0) {
+            return index;
+        }
+        int remaining = days;
+        int word = (index + 1) >> 6;
+        // The business days after the index in its word, shifts only use the low 6 bits of the index
+        long bits = (word < businessDays.length) ? businessDays[word] & (-1L << (index + 1)) : 0;
+        while (true) {
+            int count = Long.bitCount(bits);
+            if (count >= remaining) {
+                for (int i = 1; i < remaining; i++) {
+                    bits &= bits - 1;
+                }
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            remaining -= count;
+            if (++word >= businessDays.length) {
+                throw new IllegalArgumentException(days + " business days after "
+                        + LocalDate.ofEpochDay(firstDay + index) + " is past the calendar end "
+                        + getLastDate());
+            }
+            bits = businessDays[word];
+        }
+    }
+
+    private int backward(final int index, final int days) {
+        int remaining = days;
+        int word = index >> 6;
+        // The business days before the index in its own word
+        long bits = businessDays[word] & ((1L << index) - 1);
+        while (true) {
+            int count = Long.bitCount(bits);
+            if (count >= remaining) {
+                for (int i = 1; i < remaining; i++) {
+                    bits &= ~Long.highestOneBit(bits);
+                }
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+            remaining -= count;
+            if (--word < 0) {
+                throw new IllegalArgumentException(days + " business days before "
+                        + LocalDate.ofEpochDay(firstDay + index) + " is before the calendar start "
+                        + getFirstDate());
+            }
+            bits = businessDays[word];
+        }
+    }
+
+    /**
+     * Gets the settlement date of a trade, {@value #SETTLEMENTDAYS}
+     * business days after the trade date.
+     *
+     * @param tradeDate the trade date
+     * @return the settlement date
+     * @throws IllegalArgumentException if a date is outside the calendar
+     */
+    public LocalDate getSettlementDate(final LocalDate tradeDate) {
+        return addBusinessDays(tradeDate, SETTLEMENTDAYS);
+    }
+
+    private int indexOf(final long epochDay) {
+        if (epochDay < firstDay || epochDay > lastDay) {
+            throw new IllegalArgumentException("Date " + LocalDate.ofEpochDay(epochDay)
+                    + " is outside the calendar " + getFirstDate() + " to " + getLastDate());
+        }
+        return (int) (epochDay - firstDay);
+    }
+}
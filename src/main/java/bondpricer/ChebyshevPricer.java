@@ -0,0 +1,337 @@
+package bondpricer;
+
+/**
+ * The {@code ChebyshevPricer} class prices a bond from a piecewise
+ * Chebyshev fit of its all-in price against the yield, so that a price
+ * costs a few multiply-adds instead of the two powers of the pricing
+ * formula.
+ * <p>
+ * The yield band is split into equal segments and the price is
+ * interpolated on each segment at the {@value #DEGREE}th degree Chebyshev
+ * nodes, then held as a polynomial in the position within the segment. As
+ * explained for {@link IncrementalPricer}, every derivative of the price
+ * alternates in sign and shrinks in size as the yield rises, so the
+ * derivative of order {@value #DEGREE} + 1 at the bottom of a segment
+ * bounds the interpolation error on the whole segment. Segments are halved
+ * until that bound is below {@value #TARGETERROR} on every segment, far
+ * below the 5 decimal rounding of the price. The bound, together with
+ * bounds on the floating point error of the fit, its evaluation and the
+ * exact formula, is used to check that the exact price must round to the
+ * same 5 decimal price as the estimate; if it might not, the price is
+ * calculated exactly. Rounded prices are therefore always identical to
+ * {@link SettlementSnapshot#getBondPrices(double)}.
+ * <p>
+ * Yields outside the band are priced exactly. A Chebyshev pricer is
+ * immutable, so any number of threads can use it concurrently.
+ */
+public final class ChebyshevPricer {
+
+    /**
+     * The lowest yield, in percent, of the default band.
+     */
+    public static final double DEFAULTMINYIELD = 1;
+
+    /**
+     * The highest yield, in percent, of the default band.
+     */
+    public static final double DEFAULTMAXYIELD = 20;
+
+    /**
+     * The lowest yield, in percent, a band may start at.
+     */
+    public static final double MINYIELD = IncrementalPricer.MINYIELD;
+
+    // getAllInPrice evaluates polynomials of exactly this degree
+    static final int DEGREE = 10;
+    static final double TARGETERROR = 1e-9;
+    static final int MAXSEGMENTS = 1 << 12;
+
+    private static final int NODES = DEGREE + 1;
+    private static final double YIELDSCALE = 100 * SettlementSnapshot.FREQUENCY;
+    private static final double EPSILON = Math.ulp(1.0);
+    // Relative error allowed for the derivatives, far above their accumulated rounding error
+    private static final double DERIVATIVEERROR = 1e-10;
+    // Bounds the Lebesgue constant of the Chebyshev nodes, which scales errors in the node prices
+    private static final double LEBESGUECONSTANT = 2 / Math.PI * Math.log(NODES) + 1;
+
+    // The coefficients of the powers of x in each Chebyshev polynomial, all exact
+    private static final double[][] CHEBYSHEVPOWERS = chebyshevPowers();
+
+    private final SettlementSnapshot snapshot;
+    private final double minYield;
+    private final double maxYield;
+    private final int segments;
+    private final double segmentScale;
+    private final double[] coefficients;
+    private final double[] errorBounds;
+    private final double interpolationError;
+
+    private ChebyshevPricer(final SettlementSnapshot snapshot, final double minYield, final double maxYield) {
+        this.snapshot = snapshot;
+        this.minYield = minYield;
+        this.maxYield = maxYield;
+        int count = 1;
+        double error = interpolationError(count);
+        while (error > TARGETERROR) {
+            if (count == MAXSEGMENTS) {
+                throw new IllegalArgumentException("Cannot fit yields " + minYield + " to " + maxYield
+                        + " within " + TARGETERROR);
+            }
+            count *= 2;
+            error = interpolationError(count);
+        }
+        segments = count;
+        segmentScale = segments / (maxYield - minYield);
+        interpolationError = error;
+        coefficients = new double[segments * NODES];
+        errorBounds = new double[segments];
+        double[] prices = new double[NODES];
+        for (int segment = 0; segment < segments; segment++) {
+            fit(segment, prices);
+        }
+    }
+
+    /**
+     * Fits the all-in price of a settlement snapshot over a band of yields.
+     *
+     * @param snapshot the settlement snapshot
+     * @param minYield the lowest yield of the band, at least
+     *                 {@value #MINYIELD}
+     * @param maxYield the highest yield of the band
+     * @return the Chebyshev pricer
+     * @throws IllegalArgumentException if the band is empty, starts below
+     *                                  {@value #MINYIELD} or cannot be fitted
+     */
+    public static ChebyshevPricer build(final SettlementSnapshot snapshot, final double minYield,
+            final double maxYield) {
+        if (!(minYield >= MINYIELD) || !(maxYield > minYield) || !Double.isFinite(maxYield)) {
+            throw new IllegalArgumentException("Invalid yield band " + minYield + " to " + maxYield);
+        }
+        return new ChebyshevPricer(snapshot, minYield, maxYield);
+    }
+
+    /**
+     * Gets the settlement snapshot the fit was built from.
+     *
+     * @return the settlement snapshot
+     */
+    public SettlementSnapshot getSettlementSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the lowest yield of the band.
+     *
+     * @return the lowest yield
+     */
+    public double getMinYield() {
+        return minYield;
+    }
+
+    /**
+     * Gets the highest yield of the band.
+     *
+     * @return the highest yield
+     */
+    public double getMaxYield() {
+        return maxYield;
+    }
+
+    /**
+     * Gets the number of segments the band is split into.
+     *
+     * @return the number of segments
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Gets the certified bound on the interpolation error of the fit over
+     * the whole band, before floating point errors.
+     *
+     * @return the interpolation error bound
+     */
+    public double getInterpolationError() {
+        return interpolationError;
+    }
+
+    /**
+     * Calculates the all-in price of the bond for the specified yield,
+     * identical to {@link SettlementSnapshot#getAllInPrice(double)}.
+     *
+     * @param yield the yield
+     * @return the all-in price
+     */
+    public double getAllInPrice(final double yield) {
+        double position = (yield - minYield) * segmentScale;
+        if (!(position >= 0 && position < segments)) {
+            return snapshot.getAllInPrice(yield);
+        }
+        int segment = (int) position;
+        double x = 2 * (position - segment) - 1;
+        // Estrin's scheme, so the multiply-adds do not wait on each other as in Horner's
+        double[] c = coefficients;
+        int base = segment * NODES;
+        double x2 = x * x;
+        double x4 = x2 * x2;
+        double low = (c[base] + c[base + 1] * x) + (c[base + 2] + c[base + 3] * x) * x2;
+        double middle = (c[base + 4] + c[base + 5] * x) + (c[base + 6] + c[base + 7] * x) * x2;
+        double high = (c[base + 8] + c[base + 9] * x) + c[base + 10] * x2;
+        double estimate = low + middle * x4 + high * (x4 * x4);
+        double bound = errorBounds[segment] + 2 * Math.ulp(estimate);
+        long rounded = Math.round((estimate - bound) * SettlementSnapshot.SCALE);
+        if (rounded != Math.round((estimate + bound) * SettlementSnapshot.SCALE)) {
+            return snapshot.getAllInPrice(yield);
+        }
+        return rounded / SettlementSnapshot.SCALE;
+    }
+
+    /**
+     * Gets the clean and dirty prices of the bond for the specified yield,
+     * identical to {@link SettlementSnapshot#getBondPrices(double)}.
+     *
+     * @param yield the yield
+     * @return an array containing the clean price at index 0 and the
+     *         dirty price at index 1
+     */
+    public double[] getBondPrices(final double yield) {
+        double allInPrice = getAllInPrice(yield);
+        return new double[] { SettlementSnapshot.round(snapshot.calculateCleanPrice(allInPrice)), allInPrice };
+    }
+
+    /**
+     * Gets the clean and dirty prices of the bond for a batch of yields
+     * without allocating, identical to
+     * {@link SettlementSnapshot#getBondPrices(double[], double[], double[])}.
+     *
+     * @param yields      the yields
+     * @param cleanPrices receives the clean price of each yield
+     * @param allInPrices receives the all-in price of each yield
+     * @throws IllegalArgumentException if an output array is shorter than
+     *                                  the yields
+     */
+    public void getBondPrices(final double[] yields, final double[] cleanPrices, final double[] allInPrices) {
+        if (cleanPrices.length < yields.length || allInPrices.length < yields.length) {
+            throw new IllegalArgumentException("Output arrays must hold " + yields.length + " prices");
+        }
+        for (int i = 0; i < yields.length; i++) {
+            double allInPrice = getAllInPrice(yields[i]);
+            allInPrices[i] = allInPrice;
+            cleanPrices[i] = SettlementSnapshot.round(snapshot.calculateCleanPrice(allInPrice));
+        }
+    }
+
+    private double interpolationError(final int count) {
+        double width = (maxYield - minYield) / count;
+        double error = 0;
+        for (int segment = 0; segment < count; segment++) {
+            error = Math.max(error, interpolationError(minYield + segment * width, width));
+        }
+        return error;
+    }
+
+    // Chebyshev interpolation error bound, from the derivative of order NODES at the bottom of the segment
+    private double interpolationError(final double low, final double width) {
+        return Math.pow(width / 2, NODES) / (Math.pow(2, DEGREE) * factorial(NODES)) * derivativeBound(low, NODES);
+    }
+
+    private void fit(final int segment, final double[] prices) {
+        double width = (maxYield - minYield) / segments;
+        double low = minYield + segment * width;
+        double half = width / 2;
+        double middle = low + half;
+        for (int j = 0; j < NODES; j++) {
+            prices[j] = snapshot.calculateAllInPrice(middle + half * Math.cos(Math.PI * (j + 0.5) / NODES));
+        }
+        // Converts the Chebyshev series of the segment to powers of x, tracking the size of every term
+        int base = segment * NODES;
+        double termSum = 0;
+        for (int k = 0; k < NODES; k++) {
+            double sum = 0;
+            for (int j = 0; j < NODES; j++) {
+                sum += prices[j] * Math.cos(Math.PI * k * (j + 0.5) / NODES);
+            }
+            double coefficient = ((k == 0) ? 1.0 : 2.0) / NODES * sum;
+            for (int j = 0; j <= k; j++) {
+                double term = coefficient * CHEBYSHEVPOWERS[k][j];
+                coefficients[base + j] += term;
+                termSum += Math.abs(term);
+            }
+        }
+
+        // The price, its slope and the error of the exact formula are largest at the bottom of the segment
+        double maxPrice = snapshot.calculateAllInPrice(low);
+        double lowest = 1 + low / YIELDSCALE;
+        int remaining = snapshot.getNumberRemainingCoupons();
+        double evaluationError = EPSILON * (16.0 * (remaining + 2) / (1 - 1 / lowest) + 64) * 4 * maxPrice;
+        double slope = derivativeBound(low, 1);
+        errorBounds[segment] = interpolationError(low, width)
+                + (LEBESGUECONSTANT + 1) * evaluationError
+                // Rounding in the coefficients, their conversion and the polynomial
+                + 4 * NODES * NODES * EPSILON * (maxPrice + termSum)
+                // Rounding in the position of the yield in its segment
+                + slope * half * (8 * EPSILON * segments + 4 * EPSILON);
+    }
+
+    // Bounds the m-th derivative of the all-in price with respect to the yield, at or above a yield
+    private double derivativeBound(final double yield, final int m) {
+        double brokenPeriod = snapshot.getBrokenPeriod();
+        if (snapshot.isMoneyMarket()) {
+            // P(y) = C / (1 + brokenPeriod * y / 200), its m-th derivative is m! C s^m / (1 + s y)^(m + 1)
+            double rate = brokenPeriod / YIELDSCALE;
+            double cashFlow = snapshot.getCouponPayable() + 100;
+            return factorial(m) * cashFlow * Math.pow(rate, m) / Math.pow(1 + rate * yield, m + 1)
+                    * (1 + DERIVATIVEERROR);
+        }
+        // P(y) = sum of c a^-t with a = 1 + y / 200, its m-th derivative is t(t+1)...(t+m-1) c a^-(t+m) / 200^m
+        double base = 1 + yield / YIELDSCALE;
+        double discountFactor = 1 / base;
+        double weight = Math.pow(discountFactor, brokenPeriod + m);
+        double time = brokenPeriod;
+        int remaining = snapshot.getNumberRemainingCoupons();
+        double coupon = snapshot.getBondDetails().couponRate() / SettlementSnapshot.FREQUENCY;
+        double sum = 0;
+        for (int k = 0; k <= remaining; k++) {
+            double cashFlow = (k == 0) ? snapshot.getCouponPayable() : coupon;
+            if (k == remaining) {
+                cashFlow += 100;
+            }
+            double term = cashFlow * weight;
+            for (int i = 0; i < m; i++) {
+                term *= time + i;
+            }
+            sum += term;
+            weight *= discountFactor;
+            time++;
+        }
+        return sum / Math.pow(YIELDSCALE, m) * (1 + DERIVATIVEERROR);
+    }
+
+    private static double[][] chebyshevPowers() {
+        // T0 = 1, T1 = x, T(k+1) = 2x T(k) - T(k-1)
+        double[][] powers = new double[NODES][];
+        for (int k = 0; k < NODES; k++) {
+            powers[k] = new double[k + 1];
+            if (k < 2) {
+                powers[k][k] = 1;
+                continue;
+            }
+            for (int j = 0; j < k; j++) {
+                powers[k][j + 1] = 2 * powers[k - 1][j];
+            }
+            for (int j = 0; j < k - 1; j++) {
+                powers[k][j] -= powers[k - 2][j];
+            }
+        }
+        return powers;
+    }
+
+    private static double factorial(final int n) {
+        double factorial = 1;
+        for (int i = 2; i <= n; i++) {
+            factorial *= i;
+        }
+        return factorial;
+    }
+}
@@ -0,0 +1,121 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code CouponSchedule} class lists the coupon dates of a bond and the
+ * books close date of each coupon, from the last coupon on or before a
+ * start date up to the coupon paid at maturity. The dates are generated
+ * once from the coupon and books close {@code MonthDay}s of the
+ * {@link BondDetails}, the same way {@link SettlementSnapshot} derives them.
+ */
+final class CouponSchedule {
+
+    private final BondDetails bondDetails;
+    private final LocalDate[] couponDates;
+    private final LocalDate[] booksCloseDates;
+    private final long[] couponDays;
+    private final long[] booksCloseDays;
+    private final int[] remainingCoupons;
+
+    /**
+     * Generates the coupon schedule of a bond.
+     *
+     * @param bondDetails the bond details
+     * @param startDate   the first date the schedule must cover
+     */
+    CouponSchedule(final BondDetails bondDetails, final LocalDate startDate) {
+        this.bondDetails = bondDetails;
+        LocalDate maturityDate = bondDetails.maturityDate();
+        List<LocalDate> coupons = new ArrayList<>();
+        List<LocalDate> booksCloses = new ArrayList<>();
+        for (int year = startDate.getYear() - 1; coupons.isEmpty()
+                || coupons.get(coupons.size() - 1).isBefore(maturityDate); year++) {
+            addCoupon(coupons, booksCloses, bondDetails.firstCouponDate().atYear(year),
+                    bondDetails.firstBooksCloseDate().atYear(year), startDate);
+            addCoupon(coupons, booksCloses, bondDetails.secondCouponDate().atYear(year),
+                    bondDetails.secondBooksCloseDate().atYear(year), startDate);
+        }
+        int size = coupons.size();
+        couponDates = coupons.toArray(new LocalDate[size]);
+        booksCloseDates = booksCloses.toArray(new LocalDate[size]);
+        couponDays = new long[size];
+        booksCloseDays = new long[size];
+        remainingCoupons = new int[size];
+        for (int i = 0; i < size; i++) {
+            couponDays[i] = couponDates[i].toEpochDay();
+            booksCloseDays[i] = booksCloseDates[i].toEpochDay();
+            remainingCoupons[i] = (int) Math.round((maturityDate.toEpochDay() - couponDays[i])
+                    / (SettlementSnapshot.AVERAGEDAYSINYEAR / SettlementSnapshot.FREQUENCY));
+        }
+    }
+
+    private static void addCoupon(final List<LocalDate> coupons, final List<LocalDate> booksCloses,
+            final LocalDate couponDate, final LocalDate booksCloseDate, final LocalDate startDate) {
+        // Only the latest coupon on or before the start date is kept
+        if (!couponDate.isAfter(startDate) && !coupons.isEmpty()) {
+            coupons.clear();
+            booksCloses.clear();
+        }
+        coupons.add(couponDate);
+        booksCloses.add(booksCloseDate);
+    }
+
+    BondDetails getBondDetails() {
+        return bondDetails;
+    }
+
+    int size() {
+        return couponDays.length;
+    }
+
+    LocalDate getCouponDate(final int index) {
+        return couponDates[index];
+    }
+
+    LocalDate getBooksCloseDate(final int index) {
+        return booksCloseDates[index];
+    }
+
+    long getCouponDay(final int index) {
+        return couponDays[index];
+    }
+
+    long getBooksCloseDay(final int index) {
+        return booksCloseDays[index];
+    }
+
+    /**
+     * Gets the number of coupons remaining after the coupon at an index,
+     * rounded the way {@link SettlementSnapshot} counts them.
+     *
+     * @param index the coupon index
+     * @return the number of remaining coupons
+     */
+    int getRemainingCoupons(final int index) {
+        return remainingCoupons[index];
+    }
+
+    /**
+     * Finds the first coupon paid strictly after an epoch day.
+     *
+     * @param epochDay the epoch day
+     * @return the index of the next coupon, or {@link #size()} if the day is
+     *         on or after the final coupon
+     */
+    int indexOfNextCoupon(final long epochDay) {
+        int low = 0;
+        int high = couponDays.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (couponDays[middle] <= epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
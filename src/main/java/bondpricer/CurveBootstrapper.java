@@ -0,0 +1,230 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code CurveBootstrapper} class fits a {@link ZeroCurve} to the
+ * market yields of a universe of bonds. Each bond's yield is converted to
+ * its all-in price with the JSE formula, and its cash flows are taken from
+ * the coupon dates of its {@link BondDetails}: the next coupon only if the
+ * bond settles cum coupon, every later coupon, and the redemption at
+ * maturity. Bonds are fitted in maturity order, each adding the curve node
+ * at its maturity that discounts its cash flows to its all-in price.
+ * <p>
+ * A node only depends on the bonds that mature on or before it, so when
+ * one bond's yield ticks only its node and the nodes after it are refitted.
+ * The cash flows of every bond are prepared once per settlement date.
+ * A bootstrapper is not thread safe, but the curves it returns are
+ * immutable and can be shared.
+ */
+public final class CurveBootstrapper {
+
+    private static final int MAXITERATIONS = 100;
+    private static final double LOGTOLERANCE = 1e-15;
+
+    private final LocalDate settlementDate;
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+    private final SettlementSnapshot[] snapshots;
+    private final LocalDate[] maturityDates;
+    private final double[][] cashFlowTimes;
+    private final double[][] cashFlowAmounts;
+    private final double[] yields;
+    private final double[] allInPrices;
+    private final double[] times;
+    private final double[] logDiscountFactors;
+    private int fittedNodes;
+    private int nodesRefitted;
+
+    /**
+     * Prepares the cash flows of a universe of bonds for a settlement date.
+     * Bonds that mature on or before the settlement date are left out.
+     *
+     * @param bonds          the bonds
+     * @param settlementDate the settlement date
+     * @throws IllegalArgumentException if two bonds mature on the same date,
+     *                                  or no bond is left to fit
+     */
+    public CurveBootstrapper(final Collection<Bond> bonds, final LocalDate settlementDate) {
+        this.settlementDate = settlementDate;
+        List<Bond> sorted = new ArrayList<>();
+        for (Bond bond : bonds) {
+            if (bond.details().maturityDate().isAfter(settlementDate)) {
+                sorted.add(bond);
+            }
+        }
+        if (sorted.isEmpty()) {
+            throw new IllegalArgumentException("No bond matures after " + settlementDate);
+        }
+        sorted.sort(Comparator.comparing(bond -> bond.details().maturityDate()));
+        int size = sorted.size();
+        snapshots = new SettlementSnapshot[size];
+        maturityDates = new LocalDate[size];
+        cashFlowTimes = new double[size][];
+        cashFlowAmounts = new double[size][];
+        yields = new double[size];
+        allInPrices = new double[size];
+        times = new double[size + 1];
+        logDiscountFactors = new double[size + 1];
+        long settlementDay = settlementDate.toEpochDay();
+        for (int i = 0; i < size; i++) {
+            Bond bond = sorted.get(i);
+            maturityDates[i] = bond.details().maturityDate();
+            if (i > 0 && maturityDates[i].equals(maturityDates[i - 1])) {
+                throw new IllegalArgumentException("Bonds " + sorted.get(i - 1).name() + " and " + bond.name()
+                        + " both mature on " + maturityDates[i]);
+            }
+            nodeIndex.put(bond.name(), i);
+            snapshots[i] = SettlementSnapshot.of(bond.details(), settlementDate);
+            times[i + 1] = (double) (maturityDates[i].toEpochDay() - settlementDay)
+                    / SettlementSnapshot.DAYSINYEAR;
+            calculateCashFlows(i, new CouponSchedule(bond.details(), settlementDate), settlementDay);
+        }
+    }
+
+    private void calculateCashFlows(final int bond, final CouponSchedule schedule, final long settlementDay) {
+        int next = schedule.indexOfNextCoupon(settlementDay);
+        // The schedule can run a coupon past maturity, the cash flows stop at the maturity coupon
+        int last = schedule.indexOfNextCoupon(schedule.getBondDetails().maturityDate().toEpochDay() - 1);
+        int count = last - next + 1;
+        double coupon = schedule.getBondDetails().couponRate() / SettlementSnapshot.FREQUENCY;
+        double[] flowTimes = new double[count];
+        double[] amounts = new double[count];
+        for (int j = 0; j < count; j++) {
+            flowTimes[j] = (double) (schedule.getCouponDay(next + j) - settlementDay)
+                    / SettlementSnapshot.DAYSINYEAR;
+            amounts[j] = coupon;
+        }
+        // An ex coupon bond does not receive its next coupon
+        if (settlementDay >= schedule.getBooksCloseDay(next)) {
+            amounts[0] = 0;
+        }
+        amounts[count - 1] += 100;
+        cashFlowTimes[bond] = flowTimes;
+        cashFlowAmounts[bond] = amounts;
+    }
+
+    /**
+     * Gets the settlement date the curve is fitted for.
+     *
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate() {
+        return settlementDate;
+    }
+
+    /**
+     * Fits the curve to the yields of every bond.
+     *
+     * @param marketYields the yield of each bond, by bond name
+     * @return the fitted curve
+     * @throws IllegalArgumentException if a bond has no yield, or no curve
+     *                                  reprices a bond
+     */
+    public ZeroCurve fit(final Map<String, Double> marketYields) {
+        for (Map.Entry<String, Integer> node : nodeIndex.entrySet()) {
+            Double yield = marketYields.get(node.getKey());
+            if (yield == null) {
+                throw new IllegalArgumentException("No yield for bond " + node.getKey());
+            }
+            setYield(node.getValue(), yield);
+        }
+        return refit(0);
+    }
+
+    /**
+     * Refits the curve after one bond's yield has changed. Only the node of
+     * the bond and the nodes after it are refitted.
+     *
+     * @param bondName the bond name
+     * @param yield    the new yield
+     * @return the refitted curve
+     * @throws IllegalArgumentException if the bond is not in the curve, the
+     *                                  curve has not been fitted, or no
+     *                                  curve reprices a bond
+     */
+    public ZeroCurve update(final String bondName, final double yield) {
+        Integer node = nodeIndex.get(bondName);
+        if (node == null) {
+            throw new IllegalArgumentException("Bond " + bondName + " is not in the curve");
+        }
+        if (fittedNodes < snapshots.length) {
+            throw new IllegalArgumentException("The curve has not been fitted");
+        }
+        setYield(node, yield);
+        return refit(node);
+    }
+
+    /**
+     * Gets the yield a node is fitted to.
+     *
+     * @param index the node index, in maturity order
+     * @return the yield
+     */
+    public double getYield(final int index) {
+        return yields[index];
+    }
+
+    int getNodesRefitted() {
+        return nodesRefitted;
+    }
+
+    private void setYield(final int node, final double yield) {
+        yields[node] = yield;
+        allInPrices[node] = snapshots[node].calculateAllInPrice(yield);
+    }
+
+    private ZeroCurve refit(final int from) {
+        fittedNodes = Math.min(fittedNodes, from);
+        for (int i = from; i < snapshots.length; i++) {
+            logDiscountFactors[i + 1] = solveNode(i);
+            fittedNodes = i + 1;
+        }
+        nodesRefitted = snapshots.length - from;
+        return new ZeroCurve(settlementDate, maturityDates, times.clone(), logDiscountFactors.clone());
+    }
+
+    private double solveNode(final int bond) {
+        int node = bond + 1;
+        double previousTime = times[node - 1];
+        double previousLog = logDiscountFactors[node - 1];
+        double span = times[node] - previousTime;
+        double[] flowTimes = cashFlowTimes[bond];
+        double[] amounts = cashFlowAmounts[bond];
+        // Cash flows up to the previous node are discounted on the fitted part of the curve
+        double known = 0;
+        int j = 0;
+        for (; j < flowTimes.length && flowTimes[j] <= previousTime; j++) {
+            known += amounts[j] * Math.exp(ZeroCurve.calculateLogDiscountFactor(times, logDiscountFactors, node,
+                    flowTimes[j]));
+        }
+        double target = allInPrices[bond] - known;
+        if (!(target > 0)) {
+            throw new IllegalArgumentException("No discount factor reprices bond maturing " + maturityDates[bond]
+                    + " at " + allInPrices[bond]);
+        }
+        // Newton's method on the log discount factor, the present value is increasing and convex in it
+        double x = -2 * Math.log(1 + yields[bond] / (100 * SettlementSnapshot.FREQUENCY)) * times[node];
+        for (int iteration = 0; iteration < MAXITERATIONS; iteration++) {
+            double value = -target;
+            double slope = 0;
+            for (int k = j; k < flowTimes.length; k++) {
+                double weight = (flowTimes[k] - previousTime) / span;
+                double presentValue = amounts[k] * Math.exp(previousLog + weight * (x - previousLog));
+                value += presentValue;
+                slope += weight * presentValue;
+            }
+            double step = value / slope;
+            x -= step;
+            if (Math.abs(step) <= LOGTOLERANCE * Math.max(1, Math.abs(x))) {
+                return x;
+            }
+        }
+        throw new IllegalArgumentException("Curve node at " + maturityDates[bond] + " did not converge");
+    }
+}
@@ -0,0 +1,241 @@
+package bondpricer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code DifferentialHarness} class checks a fast pricing path against
+ * the {@link ReferencePricer} on random (bond, settlement date, yield)
+ * triples, in parallel on a fork-join pool.
+ * <p>
+ * Each sampled settlement date is priced at {@value #YIELDSPERSETTLEMENT}
+ * yields, alternating between yields quoted to 3 decimals and arbitrary
+ * doubles in the yield band, so a path that prepares per settlement date,
+ * such as a {@link ChebyshevPricer} fit, is exercised the way it is used.
+ * The triples depend only on the seed, not on the thread count, and the
+ * first {@value #MAXREPORTED} mismatches are reported in sampling order.
+ * A fast path that throws is reported as a mismatch with {@code NaN}
+ * prices, and one that throws while it is prepared for a settlement date
+ * as a mismatch at each yield of that settlement date.
+ */
+public final class DifferentialHarness {
+
+    /**
+     * The lowest yield sampled by default.
+     */
+    public static final double DEFAULTMINYIELD = 0.5;
+
+    /**
+     * The highest yield sampled by default.
+     */
+    public static final double DEFAULTMAXYIELD = 25;
+
+    /**
+     * The distance of an exact price from a rounding half-way point within
+     * which a different rounding is a boundary case, not a mismatch.
+     */
+    public static final double BOUNDARYTOLERANCE = 1e-9;
+
+    /**
+     * The number of yields priced for each sampled settlement date.
+     */
+    public static final int YIELDSPERSETTLEMENT = 16;
+
+    /**
+     * The maximum number of mismatches reported.
+     */
+    public static final int MAXREPORTED = 100;
+
+    // Settlement dates sampled by one task
+    private static final int CHUNK = 64;
+    private static final long SEEDSTRIDE = 0x9E3779B97F4A7C15L;
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+    private static final BigDecimal SCALEDTOLERANCE = new BigDecimal(BOUNDARYTOLERANCE * SettlementSnapshot.SCALE);
+    private static final DoubleFunction<double[]> FAILED = yield -> new double[] { Double.NaN, Double.NaN };
+
+    /**
+     * A fast pricing path under test, prepared once per bond and settlement
+     * date and then priced at several yields.
+     */
+    @FunctionalInterface
+    public interface PricingPath {
+
+        /**
+         * Prepares the path for a bond and settlement date.
+         *
+         * @param bond           the bond
+         * @param settlementDate the settlement date
+         * @return a function from a yield to the clean price at index 0 and
+         *         the all-in price at index 1
+         */
+        DoubleFunction<double[]> prepare(Bond bond, LocalDate settlementDate);
+    }
+
+    private final Bond[] bonds;
+    private final long firstDay;
+    private final long lastDay;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a {@code DifferentialHarness} that runs on the common pool.
+     *
+     * @param bonds     the bonds to sample
+     * @param firstDate the first settlement date to sample
+     * @param lastDate  the last settlement date to sample
+     */
+    public DifferentialHarness(final Collection<Bond> bonds, final LocalDate firstDate, final LocalDate lastDate) {
+        this(bonds, firstDate, lastDate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a {@code DifferentialHarness} that runs on a given pool.
+     * Settlement dates are sampled up to the day before each bond matures.
+     *
+     * @param bonds     the bonds to sample
+     * @param firstDate the first settlement date to sample
+     * @param lastDate  the last settlement date to sample
+     * @param pool      the fork-join pool
+     * @throws IllegalArgumentException if the dates are out of order or no
+     *                                  bond matures after the first date
+     */
+    public DifferentialHarness(final Collection<Bond> bonds, final LocalDate firstDate, final LocalDate lastDate,
+            final ForkJoinPool pool) {
+        if (lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("Last date " + lastDate + " is before first date " + firstDate);
+        }
+        this.bonds = bonds.stream().filter(bond -> bond.details().maturityDate().isAfter(firstDate))
+                .toArray(Bond[]::new);
+        if (this.bonds.length == 0) {
+            throw new IllegalArgumentException("No bond matures after " + firstDate);
+        }
+        firstDay = firstDate.toEpochDay();
+        lastDay = lastDate.toEpochDay();
+        this.pool = pool;
+    }
+
+    /**
+     * Runs a fast pricing path on random triples with yields in the default
+     * band.
+     *
+     * @param path    the fast pricing path
+     * @param triples the number of triples
+     * @param seed    the seed of the sampled triples
+     * @return the result
+     */
+    public DifferentialResult run(final PricingPath path, final long triples, final long seed) {
+        return run(path, triples, seed, DEFAULTMINYIELD, DEFAULTMAXYIELD);
+    }
+
+    /**
+     * Runs a fast pricing path on random triples.
+     *
+     * @param path     the fast pricing path
+     * @param triples  the number of triples
+     * @param seed     the seed of the sampled triples
+     * @param minYield the lowest yield sampled
+     * @param maxYield the highest yield sampled
+     * @return the result
+     * @throws IllegalArgumentException if the number of triples is negative
+     *                                  or the yield band is invalid
+     */
+    public DifferentialResult run(final PricingPath path, final long triples, final long seed,
+            final double minYield, final double maxYield) {
+        if (triples < 0) {
+            throw new IllegalArgumentException("Invalid number of triples " + triples);
+        }
+        if (!(minYield > -100 * SettlementSnapshot.FREQUENCY) || !(maxYield >= minYield)
+                || Double.isInfinite(maxYield)) {
+            throw new IllegalArgumentException("Invalid yield band " + minYield + " to " + maxYield);
+        }
+        long settlements = (triples + YIELDSPERSETTLEMENT - 1) / YIELDSPERSETTLEMENT;
+        int tasks = Math.toIntExact((settlements + CHUNK - 1) / CHUNK);
+        LongAdder mismatches = new LongAdder();
+        LongAdder boundaryCases = new LongAdder();
+        List<List<PriceMismatch>> reported = new ArrayList<>(Collections.nCopies(tasks, List.of()));
+        long start = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(task -> {
+            Random random = new Random(seed ^ (task * SEEDSTRIDE));
+            List<PriceMismatch> found = new ArrayList<>();
+            long firstTriple = (long) task * CHUNK * YIELDSPERSETTLEMENT;
+            long lastTriple = Math.min(triples, firstTriple + (long) CHUNK * YIELDSPERSETTLEMENT);
+            for (long from = firstTriple; from < lastTriple; from += YIELDSPERSETTLEMENT) {
+                Bond bond = bonds[random.nextInt(bonds.length)];
+                long maxDay = Math.min(lastDay, bond.details().maturityDate().toEpochDay() - 1);
+                LocalDate date = LocalDate.ofEpochDay(firstDay
+                        + (long) (random.nextDouble() * (maxDay - firstDay + 1)));
+                ReferencePricer reference = new ReferencePricer(bond.details(), date);
+                DoubleFunction<double[]> prices;
+                try {
+                    prices = path.prepare(bond, date);
+                } catch (RuntimeException e) {
+                    prices = FAILED;
+                }
+                int yields = (int) Math.min(YIELDSPERSETTLEMENT, lastTriple - from);
+                for (int i = 0; i < yields; i++) {
+                    double yield = minYield + random.nextDouble() * (maxYield - minYield);
+                    if (i % 2 == 0) {
+                        yield = Math.min(maxYield, Math.max(minYield, Math.round(yield * 1000) / 1000.0));
+                    }
+                    check(bond, reference, prices, yield, mismatches, boundaryCases, found);
+                }
+            }
+            reported.set(task, found);
+        })).join();
+
+        // Merged in task order so the reported mismatches do not depend on the thread count
+        List<PriceMismatch> first = new ArrayList<>();
+        for (int task = 0; task < tasks && first.size() < MAXREPORTED; task++) {
+            List<PriceMismatch> found = reported.get(task);
+            first.addAll(found.subList(0, Math.min(found.size(), MAXREPORTED - first.size())));
+        }
+        return new DifferentialResult(triples, mismatches.sum(), boundaryCases.sum(), first,
+                System.nanoTime() - start);
+    }
+
+    private static void check(final Bond bond, final ReferencePricer reference, final DoubleFunction<double[]> prices,
+            final double yield, final LongAdder mismatches, final LongAdder boundaryCases,
+            final List<PriceMismatch> found) {
+        BigDecimal exactAllInPrice = reference.calculateAllInPrice(yield);
+        BigDecimal expectedAllInPrice = ReferencePricer.round(exactAllInPrice);
+        BigDecimal expectedCleanPrice = reference.calculateCleanPrice(expectedAllInPrice);
+        double[] actual;
+        try {
+            actual = prices.apply(yield);
+        } catch (RuntimeException e) {
+            actual = new double[] { Double.NaN, Double.NaN };
+        }
+        boolean allInMatches = actual[1] == expectedAllInPrice.doubleValue();
+        boolean cleanMatches = actual[0] == expectedCleanPrice.doubleValue();
+        if (allInMatches && cleanMatches) {
+            return;
+        }
+        // A different clean price from the same all-in price can only come from the accrued interest
+        boolean boundary = !allInMatches ? isNearHalfWay(exactAllInPrice)
+                : isNearHalfWay(expectedAllInPrice.subtract(reference.calculateAccruedInterest()));
+        if (boundary && !Double.isNaN(actual[1])) {
+            boundaryCases.increment();
+            return;
+        }
+        mismatches.increment();
+        if (found.size() < MAXREPORTED) {
+            found.add(new PriceMismatch(bond.name(), reference.getSettlementDate(), yield, exactAllInPrice,
+                    expectedCleanPrice.doubleValue(), expectedAllInPrice.doubleValue(), actual[0], actual[1]));
+        }
+    }
+
+    private static boolean isNearHalfWay(final BigDecimal price) {
+        BigDecimal scaled = price.movePointRight(SettlementSnapshot.PROUND);
+        BigDecimal fraction = scaled.subtract(scaled.setScale(0, RoundingMode.FLOOR));
+        return fraction.subtract(HALF).abs().compareTo(SCALEDTOLERANCE) <= 0;
+    }
+}
@@ -0,0 +1,101 @@
+package bondpricer;
+
+import java.util.List;
+
+/**
+ * The {@code DifferentialResult} class holds the outcome of running a fast
+ * pricing path against the {@link ReferencePricer} with a
+ * {@link DifferentialHarness}: the number of triples priced, the number of
+ * mismatches, and the first mismatches in sampling order.
+ * <p>
+ * A price that differs only because the exact price lies within
+ * {@link DifferentialHarness#BOUNDARYTOLERANCE} of a rounding half-way
+ * point is counted as a boundary case rather than a mismatch, since no
+ * double precision formula can be expected to round it the same way.
+ */
+public final class DifferentialResult {
+
+    private final long triples;
+    private final long mismatches;
+    private final long boundaryCases;
+    private final List<PriceMismatch> reportedMismatches;
+    private final long elapsedNanos;
+
+    DifferentialResult(final long triples, final long mismatches, final long boundaryCases,
+            final List<PriceMismatch> reportedMismatches, final long elapsedNanos) {
+        this.triples = triples;
+        this.mismatches = mismatches;
+        this.boundaryCases = boundaryCases;
+        this.reportedMismatches = List.copyOf(reportedMismatches);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of (bond, settlement date, yield) triples priced.
+     *
+     * @return the number of triples
+     */
+    public long getTriples() {
+        return triples;
+    }
+
+    /**
+     * Gets the number of triples where the fast path differs from the
+     * reference away from a rounding boundary.
+     *
+     * @return the number of mismatches
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Gets the number of triples where the fast path differs from the
+     * reference at a rounding boundary.
+     *
+     * @return the number of boundary cases
+     */
+    public long getBoundaryCases() {
+        return boundaryCases;
+    }
+
+    /**
+     * Gets the first mismatches, in sampling order, up to
+     * {@link DifferentialHarness#MAXREPORTED}.
+     *
+     * @return the reported mismatches
+     */
+    public List<PriceMismatch> getReportedMismatches() {
+        return reportedMismatches;
+    }
+
+    /**
+     * Gets the time taken to run the harness.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets whether the fast path matched the reference for every triple
+     * away from a rounding boundary.
+     *
+     * @return {@code true} if there were no mismatches
+     */
+    public boolean isEquivalent() {
+        return mismatches == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(triples).append(" triples, ").append(mismatches).append(" mismatches, ")
+                .append(boundaryCases).append(" boundary cases in ").append(elapsedNanos / 1_000_000).append(" ms");
+        for (PriceMismatch mismatch : reportedMismatches) {
+            builder.append(System.lineSeparator()).append("  ").append(mismatch);
+        }
+        return builder.toString();
+    }
+}
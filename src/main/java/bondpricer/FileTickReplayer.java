@@ -0,0 +1,92 @@
+package bondpricer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code FileTickReplayer} class replays yield ticks recorded in a text
+ * file, one tick per line:
+ * <pre>
+ * bondName,yield[,offsetMicros]
+ * </pre>
+ * Blank lines and lines starting with {@code #} are ignored. When paced,
+ * each tick is released at its offset in microseconds from the start of the
+ * replay, otherwise ticks are replayed as fast as they can be read.
+ */
+public final class FileTickReplayer implements TickSource {
+
+    private final BufferedReader reader;
+    private final boolean paced;
+    private long startNanos;
+    private int lineNumber;
+
+    /**
+     * Opens a tick file for replay.
+     *
+     * @param path  the tick file
+     * @param paced whether to release ticks at their recorded offsets
+     * @throws IOException if the file cannot be opened
+     */
+    public FileTickReplayer(final Path path, final boolean paced) throws IOException {
+        reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        this.paced = paced;
+    }
+
+    /**
+     * Reads the next tick from the file.
+     *
+     * @return the next tick, or {@code null} at the end of the file
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    @Override
+    public YieldTick next() throws IOException {
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            int comma = line.indexOf(',');
+            int secondComma = line.indexOf(',', comma + 1);
+            if (comma < 0) {
+                throw new IllegalArgumentException("Invalid tick on line " + lineNumber + ": " + line);
+            }
+            try {
+                String bondName = line.substring(0, comma);
+                double yield = Double.parseDouble(
+                        line.substring(comma + 1, secondComma < 0 ? line.length() : secondComma));
+                if (paced && secondComma >= 0) {
+                    waitUntil(Long.parseLong(line.substring(secondComma + 1)) * 1000);
+                }
+                return new YieldTick(bondName, yield, System.nanoTime());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid tick on line " + lineNumber + ": " + line, e);
+            }
+        }
+        return null;
+    }
+
+    private void waitUntil(final long offsetNanos) {
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+        for (long wait = startNanos + offsetNanos - System.nanoTime(); wait > 0;
+                wait = startNanos + offsetNanos - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * Closes the tick file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
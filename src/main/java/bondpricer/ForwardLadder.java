@@ -0,0 +1,144 @@
+package bondpricer;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code ForwardLadder} class holds the forward prices of a bond on a
+ * ladder of forward settlement dates, as produced by {@link ForwardPricer}.
+ * The values are held in columns, one primitive array per field in forward
+ * date order. Carry is the spot clean price less the forward clean price,
+ * positive when the coupon income of holding the bond exceeds the cost of
+ * funding it at the repo rate.
+ */
+public final class ForwardLadder {
+
+    private final String bondName;
+    private final LocalDate spotDate;
+    private final double spotCleanPrice;
+    private final double spotAllInPrice;
+    private final double repoRate;
+    private final int[] epochDays;
+    private final double[] allInPrices;
+    private final double[] cleanPrices;
+    private final double[] accruedInterest;
+    private final double[] carry;
+
+    ForwardLadder(final String bondName, final LocalDate spotDate, final double spotCleanPrice,
+            final double spotAllInPrice, final double repoRate, final int[] epochDays, final double[] allInPrices,
+            final double[] cleanPrices, final double[] accruedInterest, final double[] carry) {
+        this.bondName = bondName;
+        this.spotDate = spotDate;
+        this.spotCleanPrice = spotCleanPrice;
+        this.spotAllInPrice = spotAllInPrice;
+        this.repoRate = repoRate;
+        this.epochDays = epochDays;
+        this.allInPrices = allInPrices;
+        this.cleanPrices = cleanPrices;
+        this.accruedInterest = accruedInterest;
+        this.carry = carry;
+    }
+
+    /**
+     * Gets the name of the bond.
+     *
+     * @return the bond name
+     */
+    public String getBondName() {
+        return bondName;
+    }
+
+    /**
+     * Gets the spot settlement date.
+     *
+     * @return the spot date
+     */
+    public LocalDate getSpotDate() {
+        return spotDate;
+    }
+
+    /**
+     * Gets the spot clean price.
+     *
+     * @return the spot clean price
+     */
+    public double getSpotCleanPrice() {
+        return spotCleanPrice;
+    }
+
+    /**
+     * Gets the spot all-in price.
+     *
+     * @return the spot all-in price
+     */
+    public double getSpotAllInPrice() {
+        return spotAllInPrice;
+    }
+
+    /**
+     * Gets the repo rate the spot price was carried at.
+     *
+     * @return the repo rate, in percent
+     */
+    public double getRepoRate() {
+        return repoRate;
+    }
+
+    /**
+     * Gets the number of forward dates.
+     *
+     * @return the number of forward dates
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * Gets a forward settlement date.
+     *
+     * @param index the index in forward date order
+     * @return the forward date
+     */
+    public LocalDate getForwardDate(final int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    /**
+     * Gets the forward all-in price on a forward date.
+     *
+     * @param index the index in forward date order
+     * @return the forward all-in price
+     */
+    public double getAllInPrice(final int index) {
+        return allInPrices[index];
+    }
+
+    /**
+     * Gets the forward clean price on a forward date.
+     *
+     * @param index the index in forward date order
+     * @return the forward clean price
+     */
+    public double getCleanPrice(final int index) {
+        return cleanPrices[index];
+    }
+
+    /**
+     * Gets the accrued interest on a forward date.
+     *
+     * @param index the index in forward date order
+     * @return the accrued interest
+     */
+    public double getAccruedInterest(final int index) {
+        return accruedInterest[index];
+    }
+
+    /**
+     * Gets the carry to a forward date.
+     *
+     * @param index the index in forward date order
+     * @return the spot clean price less the forward clean price
+     */
+    public double getCarry(final int index) {
+        return carry[index];
+    }
+}
@@ -0,0 +1,119 @@
+package bondpricer;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code ForwardPricer} class prices a bond for forward settlement on a
+ * ladder of forward dates, the way the JSE prices bond forwards and repos.
+ * The spot all-in price is carried to each forward date at a simple repo
+ * rate on an actual/365 basis, less the coupons the spot holder receives
+ * before the forward buyer would: each coupon whose books close on or
+ * before the forward date, grown at the repo rate from its payment date to
+ * the forward date, or discounted to the forward date if the forward date
+ * falls in its ex period.
+ * <p>
+ * The forward dates are walked once against the {@link CouponSchedule} of
+ * the bond. Coupons are added to running totals as their books close dates
+ * are passed, so each date costs a few arithmetic operations whatever the
+ * length of the ladder.
+ */
+public final class ForwardPricer {
+
+    private ForwardPricer() {
+    }
+
+    /**
+     * Prices a bond for forward settlement on each of a ladder of dates.
+     *
+     * @param bond         the bond
+     * @param spotDate     the spot settlement date
+     * @param spotYield    the spot yield
+     * @param repoRate     the repo rate, in percent, simple on an
+     *                     actual/365 basis
+     * @param forwardDates the forward settlement dates, in ascending order
+     * @return the forward prices and carry of each date
+     * @throws IllegalArgumentException if a forward date is before the spot
+     *                                  date or on or after maturity, or the
+     *                                  dates are not strictly ascending
+     */
+    public static ForwardLadder price(final Bond bond, final LocalDate spotDate, final double spotYield,
+            final double repoRate, final LocalDate[] forwardDates) {
+        BondDetails details = bond.details();
+        SettlementSnapshot spot = SettlementSnapshot.of(details, spotDate);
+        double[] spotPrices = spot.getBondPrices(spotYield);
+        double spotCleanPrice = spotPrices[0];
+        double spotAllInPrice = spotPrices[1];
+
+        int size = forwardDates.length;
+        int[] epochDays = new int[size];
+        double[] allInPrices = new double[size];
+        double[] cleanPrices = new double[size];
+        double[] accruedInterest = new double[size];
+        double[] carry = new double[size];
+        if (size > 0) {
+            CouponSchedule schedule = new CouponSchedule(details, spotDate);
+            long spotDay = spotDate.toEpochDay();
+            long maturityDay = details.maturityDate().toEpochDay();
+            double rate = details.couponRate();
+            double coupon = rate / SettlementSnapshot.FREQUENCY;
+            double repo = repoRate / (100.0 * SettlementSnapshot.DAYSINYEAR);
+            // The first coupon the spot holder is entitled to
+            int received = schedule.indexOfNextCoupon(spotDay);
+            if (spotDay >= schedule.getBooksCloseDay(received)) {
+                received++;
+            }
+            int next = schedule.indexOfNextCoupon(spotDay);
+            int couponsPaid = 0;
+            double couponDaysPaid = 0;
+            long previousDay = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                long day = forwardDates[i].toEpochDay();
+                if (day <= previousDay) {
+                    throw new IllegalArgumentException("Forward dates are not strictly ascending at "
+                            + forwardDates[i]);
+                }
+                if (day < spotDay || day >= maturityDay) {
+                    throw new IllegalArgumentException("Forward date " + forwardDates[i]
+                            + " is not between the spot date " + spotDate + " and maturity "
+                            + details.maturityDate());
+                }
+                previousDay = day;
+                while (schedule.getCouponDay(next) <= day) {
+                    next++;
+                }
+                // Coupons gone ex by the forward date belong to the spot holder
+                double discounted = 0;
+                while (received < schedule.size() && schedule.getBooksCloseDay(received) <= day) {
+                    long couponDay = schedule.getCouponDay(received);
+                    if (couponDay <= day) {
+                        couponsPaid++;
+                        couponDaysPaid += couponDay;
+                        received++;
+                    } else {
+                        // In the ex period the coupon is still to be paid, it is paid once the date passes it
+                        discounted = coupon / (1 + repo * (couponDay - day));
+                        break;
+                    }
+                }
+                double couponValue = coupon * (couponsPaid + repo * (couponsPaid * (double) day - couponDaysPaid))
+                        + discounted;
+                double allInPrice = SettlementSnapshot.round(spotAllInPrice * (1 + repo * (day - spotDay))
+                        - couponValue);
+
+                long nextCouponDay = schedule.getCouponDay(next);
+                boolean cumex = day < schedule.getBooksCloseDay(next);
+                long daysAccrued = cumex ? day - schedule.getCouponDay(next - 1) : day - nextCouponDay;
+                double accrued = daysAccrued * rate / SettlementSnapshot.DAYSINYEAR;
+                double cleanPrice = SettlementSnapshot.round(allInPrice - accrued);
+
+                epochDays[i] = (int) day;
+                allInPrices[i] = allInPrice;
+                cleanPrices[i] = cleanPrice;
+                accruedInterest[i] = SettlementSnapshot.round(accrued);
+                carry[i] = SettlementSnapshot.round(spotCleanPrice - cleanPrice);
+            }
+        }
+        return new ForwardLadder(bond.name(), spotDate, spotCleanPrice, spotAllInPrice, repoRate, epochDays,
+                allInPrices, cleanPrices, accruedInterest, carry);
+    }
+}
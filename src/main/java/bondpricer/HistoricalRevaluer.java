@@ -0,0 +1,104 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The {@code HistoricalRevaluer} class prices a bond at the end of each day
+ * of a yield time series. Rather than deriving the coupon dates afresh for
+ * every settlement date, it walks the dates forward against the bond's
+ * {@link CouponSchedule}: the next coupon, books close date and remaining
+ * coupons only change when a coupon or books close date is passed, and the
+ * accrued interest and broken period step with the day count. The prices
+ * are identical to setting each settlement date on a {@link BondPricer} and
+ * calling {@link BondPricer#getBondPrices(double)}.
+ */
+public final class HistoricalRevaluer {
+
+    private HistoricalRevaluer() {
+    }
+
+    /**
+     * Revalues a bond over a date range from a yield time series. Dates of
+     * the series outside the range, or on or after maturity, are skipped.
+     *
+     * @param bond   the bond
+     * @param from   the first settlement date to price
+     * @param to     the last settlement date to price
+     * @param dates  the settlement dates of the series, in ascending order
+     * @param yields the yield on each date of the series
+     * @return the price history, one entry per priced date
+     * @throws IllegalArgumentException if the range is empty, the series
+     *                                  lengths differ or the dates are not
+     *                                  strictly ascending
+     */
+    public static PriceHistory revalue(final Bond bond, final LocalDate from, final LocalDate to,
+            final LocalDate[] dates, final double[] yields) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+        }
+        if (dates.length != yields.length) {
+            throw new IllegalArgumentException("Got " + dates.length + " dates but " + yields.length + " yields");
+        }
+        BondDetails details = bond.details();
+        long maturityDay = details.maturityDate().toEpochDay();
+        long firstDay = from.toEpochDay();
+        long lastDay = Math.min(to.toEpochDay(), maturityDay - 1);
+        int[] epochDays = new int[dates.length];
+        double[] pricedYields = new double[dates.length];
+        double[] cleanPrices = new double[dates.length];
+        double[] allInPrices = new double[dates.length];
+        double[] accruedInterest = new double[dates.length];
+        int size = 0;
+        if (firstDay <= lastDay) {
+            CouponSchedule schedule = new CouponSchedule(details, from);
+            double rate = details.couponRate();
+            double basicCouponAmount = rate / SettlementSnapshot.FREQUENCY;
+            int next = schedule.indexOfNextCoupon(firstDay);
+            long nextCouponDay = schedule.getCouponDay(next);
+            long lastCouponDay = schedule.getCouponDay(next - 1);
+            long booksCloseDay = schedule.getBooksCloseDay(next);
+            int remainingCoupons = schedule.getRemainingCoupons(next);
+            boolean moneyMarket = nextCouponDay == maturityDay;
+            long previousDay = Long.MIN_VALUE;
+            for (int i = 0; i < dates.length; i++) {
+                long day = dates[i].toEpochDay();
+                if (day <= previousDay) {
+                    throw new IllegalArgumentException("Dates are not strictly ascending at " + dates[i]);
+                }
+                previousDay = day;
+                if (day < firstDay || day > lastDay) {
+                    continue;
+                }
+                // Coupon state only changes when a coupon date is passed
+                while (nextCouponDay <= day) {
+                    next++;
+                    lastCouponDay = nextCouponDay;
+                    nextCouponDay = schedule.getCouponDay(next);
+                    booksCloseDay = schedule.getBooksCloseDay(next);
+                    remainingCoupons = schedule.getRemainingCoupons(next);
+                    moneyMarket = nextCouponDay == maturityDay;
+                }
+                boolean cumex = day < booksCloseDay;
+                long daysAccrued = cumex ? day - lastCouponDay : day - nextCouponDay;
+                double accrued = daysAccrued * rate / SettlementSnapshot.DAYSINYEAR;
+                double brokenPeriod = SettlementSnapshot.calculateBrokenPeriod(day, nextCouponDay, lastCouponDay,
+                        moneyMarket);
+                double discountFactor = SettlementSnapshot.calculateDiscountFactor(yields[i]);
+                double allInPrice = SettlementSnapshot.round(SettlementSnapshot.calculateAllInPrice(discountFactor,
+                        SettlementSnapshot.calculateBrokenPeriodDiscountFactor(discountFactor, brokenPeriod,
+                                moneyMarket),
+                        cumex ? basicCouponAmount : 0, basicCouponAmount, remainingCoupons));
+                epochDays[size] = (int) day;
+                pricedYields[size] = yields[i];
+                allInPrices[size] = allInPrice;
+                cleanPrices[size] = SettlementSnapshot.round(allInPrice - accrued);
+                accruedInterest[size] = SettlementSnapshot.round(accrued);
+                size++;
+            }
+        }
+        return new PriceHistory(bond.name(), Arrays.copyOf(epochDays, size), Arrays.copyOf(pricedYields, size),
+                Arrays.copyOf(cleanPrices, size), Arrays.copyOf(allInPrices, size),
+                Arrays.copyOf(accruedInterest, size));
+    }
+}
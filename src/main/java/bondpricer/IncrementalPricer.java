@@ -0,0 +1,215 @@
+package bondpricer;
+
+/**
+ * The {@code IncrementalPricer} class reprices a bond for small yield moves
+ * from a Taylor expansion around the last fully evaluated yield, instead of
+ * evaluating the two powers of the pricing formula for every tick.
+ * <p>
+ * The all-in price is a sum of positive cash flows discounted by powers of
+ * {@code 1 + yield / 200}, or for a money market bond a single cash flow
+ * discounted by {@code 1 + brokenPeriod * yield / 200}, so every derivative
+ * of the price alternates in sign and shrinks in size as the yield rises.
+ * The fourth derivative at the bottom of the step range therefore bounds
+ * the remainder of a third order expansion anywhere in the range. That
+ * bound, together with bounds on the floating point error of both the
+ * expansion and the exact formula, is used to check that the exact price
+ * must round to the same 5 decimal price as the estimate; if it might not,
+ * the price is calculated exactly. Rounded prices are therefore always
+ * identical to {@link SettlementSnapshot#getBondPrices(double)}.
+ * <p>
+ * Yield moves of more than {@value #MAXSTEP} percentage points, and yields
+ * below {@value #MINYIELD} percent, are priced exactly, and a large move
+ * makes the new yield the base of later expansions. An incremental pricer
+ * is not thread safe.
+ */
+public final class IncrementalPricer {
+
+    /**
+     * The largest yield move, in percentage points, priced incrementally.
+     */
+    public static final double MAXSTEP = 0.05;
+
+    /**
+     * The lowest yield, in percent, priced incrementally.
+     */
+    public static final double MINYIELD = 0.5;
+
+    private static final double YIELDSCALE = 100 * SettlementSnapshot.FREQUENCY;
+    private static final double EPSILON = Math.ulp(1.0);
+    // Relative error allowed for the derivatives, far above their accumulated rounding error
+    private static final double DERIVATIVEERROR = 1e-10;
+
+    private SettlementSnapshot snapshot;
+    private boolean based;
+    private double baseYield;
+    private double basePrice;
+    private double slope;
+    private double halfCurvature;
+    private double thirdOrderTerm;
+    private double remainderBound;
+    private double evaluationError;
+    private long incrementalPrices;
+    private long exactPrices;
+
+    /**
+     * Constructs an incremental pricer for a settlement snapshot.
+     *
+     * @param snapshot the settlement snapshot
+     */
+    public IncrementalPricer(final SettlementSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Gets the settlement snapshot the bond is priced on.
+     *
+     * @return the settlement snapshot
+     */
+    public SettlementSnapshot getSettlementSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Sets the settlement snapshot the bond is priced on, discarding the
+     * base of the expansion.
+     *
+     * @param snapshot the settlement snapshot
+     */
+    public void setSettlementSnapshot(final SettlementSnapshot snapshot) {
+        this.snapshot = snapshot;
+        based = false;
+    }
+
+    /**
+     * Calculates the all-in price of the bond for the specified yield,
+     * identical to {@link SettlementSnapshot#getAllInPrice(double)}.
+     *
+     * @param yield the yield
+     * @return the all-in price
+     */
+    public double getAllInPrice(final double yield) {
+        double step = yield - baseYield;
+        if (!based || !(Math.abs(step) <= MAXSTEP)) {
+            return rebase(yield);
+        }
+        double estimate = basePrice + step * (slope + step * (halfCurvature + step * thirdOrderTerm));
+        double size = Math.abs(step);
+        double bound = remainderBound * (size * size) * (size * size)
+                + evaluationError
+                + 8 * EPSILON * basePrice
+                + DERIVATIVEERROR * size * (Math.abs(slope) + size * (halfCurvature
+                        + size * Math.abs(thirdOrderTerm)))
+                + 2 * EPSILON * (Math.abs(yield) + Math.abs(baseYield)) * Math.abs(slope)
+                + 2 * Math.ulp(estimate);
+        long low = Math.round((estimate - bound) * SettlementSnapshot.SCALE);
+        if (low != Math.round((estimate + bound) * SettlementSnapshot.SCALE)) {
+            exactPrices++;
+            return snapshot.getAllInPrice(yield);
+        }
+        incrementalPrices++;
+        return low / SettlementSnapshot.SCALE;
+    }
+
+    /**
+     * Gets the clean and dirty prices of the bond for the specified yield,
+     * identical to {@link SettlementSnapshot#getBondPrices(double)}.
+     *
+     * @param yield the yield
+     * @return an array containing the clean price at index 0 and the
+     *         dirty price at index 1
+     */
+    public double[] getBondPrices(final double yield) {
+        double allInPrice = getAllInPrice(yield);
+        return new double[] { SettlementSnapshot.round(snapshot.calculateCleanPrice(allInPrice)), allInPrice };
+    }
+
+    /**
+     * Gets the number of prices estimated from the expansion.
+     *
+     * @return the incremental price count
+     */
+    public long getIncrementalPrices() {
+        return incrementalPrices;
+    }
+
+    /**
+     * Gets the number of prices calculated with the exact formula.
+     *
+     * @return the exact price count
+     */
+    public long getExactPrices() {
+        return exactPrices;
+    }
+
+    private double rebase(final double yield) {
+        exactPrices++;
+        double price = snapshot.calculateAllInPrice(yield);
+        based = yield - MAXSTEP >= MINYIELD && price > 0 && Double.isFinite(price);
+        if (based) {
+            baseYield = yield;
+            basePrice = price;
+            calculateDerivatives();
+        }
+        return SettlementSnapshot.round(price);
+    }
+
+    private void calculateDerivatives() {
+        // Derivatives with respect to u = yield / 200, scaled to the yield below
+        double base = 1 + baseYield / YIELDSCALE;
+        double lowest = 1 + (baseYield - MAXSTEP) / YIELDSCALE;
+        double[] sums = new double[5];
+        double fourthSum;
+        double brokenPeriod = snapshot.getBrokenPeriod();
+        if (snapshot.isMoneyMarket()) {
+            // P(u) = C / (1 + brokenPeriod * u), its m-th derivative is m! C brokenPeriod^m / (...)^(m + 1)
+            double cashFlow = snapshot.getCouponPayable() + 100;
+            double scaled = 1 + brokenPeriod * (base - 1);
+            double scaledLowest = 1 + brokenPeriod * (lowest - 1);
+            double factorial = 1;
+            for (int m = 1; m <= 3; m++) {
+                factorial *= m;
+                sums[m] = factorial * cashFlow * Math.pow(brokenPeriod / scaled, m) / scaled
+                        * Math.pow(base, m);
+            }
+            fourthSum = 24 * cashFlow * Math.pow(brokenPeriod / scaledLowest, 4) / scaledLowest
+                    * Math.pow(lowest, 4);
+        } else {
+            calculateFlowSums(base, sums);
+            double[] lowestSums = new double[5];
+            calculateFlowSums(lowest, lowestSums);
+            fourthSum = lowestSums[4];
+        }
+        slope = -sums[1] / base / YIELDSCALE;
+        halfCurvature = sums[2] / (base * base) / (YIELDSCALE * YIELDSCALE) / 2;
+        thirdOrderTerm = -sums[3] / (base * base * base) / (YIELDSCALE * YIELDSCALE * YIELDSCALE) / 6;
+        double lowestSquared = lowest * lowest * YIELDSCALE * YIELDSCALE;
+        remainderBound = fourthSum / (lowestSquared * lowestSquared) / 24 * (1 + DERIVATIVEERROR);
+
+        // The exact formula loses accuracy in 1 - discountFactor, worst at the lowest yield
+        int remaining = snapshot.getNumberRemainingCoupons();
+        double relativeError = EPSILON * (16.0 * (remaining + 2) / (1 - 1 / lowest) + 64);
+        evaluationError = 2 * relativeError * 2 * basePrice;
+    }
+
+    // Sums the cash flows c at times t, in coupon periods, weighted by t(t+1)...(t+m-1) / a^t for m up to 4
+    private void calculateFlowSums(final double base, final double[] sums) {
+        double discountFactor = 1 / base;
+        double weight = Math.pow(discountFactor, snapshot.getBrokenPeriod());
+        double time = snapshot.getBrokenPeriod();
+        int remaining = snapshot.getNumberRemainingCoupons();
+        double coupon = snapshot.getBondDetails().couponRate() / SettlementSnapshot.FREQUENCY;
+        for (int k = 0; k <= remaining; k++) {
+            double cashFlow = (k == 0) ? snapshot.getCouponPayable() : coupon;
+            if (k == remaining) {
+                cashFlow += 100;
+            }
+            double term = cashFlow * weight;
+            for (int m = 1; m <= 4; m++) {
+                term *= time + m - 1;
+                sums[m] += term;
+            }
+            weight *= discountFactor;
+            time++;
+        }
+    }
+}
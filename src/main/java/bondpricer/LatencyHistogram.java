@@ -0,0 +1,136 @@
+package bondpricer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code LatencyHistogram} class records latencies in nanoseconds into
+ * log-linear buckets, in the style of an HDR histogram. Values below 256 are
+ * recorded exactly, larger values to within one part in 128, so any
+ * percentile is reported to better than 1% without storing the samples.
+ * Recording is lock free and allocation free and may be done from any
+ * number of threads.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUBBUCKETBITS = 7;
+    private static final int SUBBUCKETS = 1 << SUBBUCKETBITS;
+    private static final int LINEARLIMIT = 2 * SUBBUCKETS;
+    private static final int BUCKETS = LINEARLIMIT + (Long.SIZE - 1 - SUBBUCKETBITS - 1) * SUBBUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds, negative values are recorded
+     *              as zero
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean recorded latency.
+     *
+     * @return the mean in nanoseconds, or zero if nothing was recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Gets the latency at or below which a percentage of the recorded
+     * latencies fall, reported as the upper bound of its bucket.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency in nanoseconds, or zero if nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Clears the histogram. Latencies recorded concurrently with a reset may
+     * be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns a one line summary of the histogram.
+     *
+     * @return the count, mean and main percentiles in microseconds
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.2fus p50=%.2fus p99=%.2fus p99.9=%.2fus max=%.2fus",
+                getCount(), getMean() / 1000, getValueAtPercentile(50) / 1000.0,
+                getValueAtPercentile(99) / 1000.0, getValueAtPercentile(99.9) / 1000.0, getMax() / 1000.0);
+    }
+
+    static int indexOf(final long value) {
+        if (value < LINEARLIMIT) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUBBUCKETBITS;
+        return LINEARLIMIT + (exponent - SUBBUCKETBITS - 1) * SUBBUCKETS
+                + (int) (value >>> shift) - SUBBUCKETS;
+    }
+
+    static long highestValueOf(final int index) {
+        if (index < LINEARLIMIT) {
+            return index;
+        }
+        int offset = index - LINEARLIMIT;
+        int shift = offset / SUBBUCKETS + 1;
+        long mantissa = SUBBUCKETS + offset % SUBBUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,155 @@
+package bondpricer;
+
+/**
+ * The {@code PortfolioValuation} class holds the result of valuing a list of
+ * positions with a {@link PortfolioValuer}: the per position prices and
+ * values, in the order of the positions, and their totals.
+ * Prices are per 100 nominal, values are in the currency of the nominal.
+ */
+public final class PortfolioValuation {
+
+    private final double[] allInPrices;
+    private final double[] cleanPrices;
+    private final double[] accruedInterest;
+    private final double[] presentValues;
+    private final double[] accruedValues;
+    private final double[] dv01s;
+    private final int settlementGroups;
+    private double totalPresentValue;
+    private double totalAccruedValue;
+    private double totalDv01;
+
+    PortfolioValuation(final int size, final int settlementGroups) {
+        allInPrices = new double[size];
+        cleanPrices = new double[size];
+        accruedInterest = new double[size];
+        presentValues = new double[size];
+        accruedValues = new double[size];
+        dv01s = new double[size];
+        this.settlementGroups = settlementGroups;
+    }
+
+    void set(final int index, final double nominal, final double accrued, final RiskMeasures risk) {
+        allInPrices[index] = risk.allInPrice();
+        cleanPrices[index] = risk.cleanPrice();
+        accruedInterest[index] = accrued;
+        presentValues[index] = nominal * risk.allInPrice() / 100;
+        accruedValues[index] = nominal * accrued / 100;
+        dv01s[index] = nominal * risk.dv01() / 100;
+    }
+
+    void total() {
+        // Summed in position order so the totals do not depend on the thread count
+        for (int i = 0; i < presentValues.length; i++) {
+            totalPresentValue += presentValues[i];
+            totalAccruedValue += accruedValues[i];
+            totalDv01 += dv01s[i];
+        }
+    }
+
+    /**
+     * Gets the number of positions valued.
+     *
+     * @return the number of positions
+     */
+    public int size() {
+        return presentValues.length;
+    }
+
+    /**
+     * Gets the number of distinct bond and settlement date pairs, each of
+     * which was prepared once.
+     *
+     * @return the number of settlement groups
+     */
+    public int getSettlementGroups() {
+        return settlementGroups;
+    }
+
+    /**
+     * Gets the all-in price of a position.
+     *
+     * @param index the position index
+     * @return the all-in price
+     */
+    public double getAllInPrice(final int index) {
+        return allInPrices[index];
+    }
+
+    /**
+     * Gets the clean price of a position.
+     *
+     * @param index the position index
+     * @return the clean price
+     */
+    public double getCleanPrice(final int index) {
+        return cleanPrices[index];
+    }
+
+    /**
+     * Gets the accrued interest per 100 nominal of a position.
+     *
+     * @param index the position index
+     * @return the accrued interest
+     */
+    public double getAccruedInterest(final int index) {
+        return accruedInterest[index];
+    }
+
+    /**
+     * Gets the present value, the all-in value, of a position.
+     *
+     * @param index the position index
+     * @return the present value
+     */
+    public double getPresentValue(final int index) {
+        return presentValues[index];
+    }
+
+    /**
+     * Gets the accrued interest value of a position.
+     *
+     * @param index the position index
+     * @return the accrued value
+     */
+    public double getAccruedValue(final int index) {
+        return accruedValues[index];
+    }
+
+    /**
+     * Gets the DV01 of a position.
+     *
+     * @param index the position index
+     * @return the DV01
+     */
+    public double getDv01(final int index) {
+        return dv01s[index];
+    }
+
+    /**
+     * Gets the total present value of the positions.
+     *
+     * @return the total present value
+     */
+    public double getTotalPresentValue() {
+        return totalPresentValue;
+    }
+
+    /**
+     * Gets the total accrued interest value of the positions.
+     *
+     * @return the total accrued value
+     */
+    public double getTotalAccruedValue() {
+        return totalAccruedValue;
+    }
+
+    /**
+     * Gets the total DV01 of the positions.
+     *
+     * @return the total DV01
+     */
+    public double getTotalDv01() {
+        return totalDv01;
+    }
+}
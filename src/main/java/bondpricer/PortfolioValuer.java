@@ -0,0 +1,81 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code PortfolioValuer} class values many positions across many bonds
+ * and settlement dates in parallel.
+ * Positions are grouped by bond and settlement date so that each
+ * {@link SettlementSnapshot} is calculated once per group, after which the
+ * positions are priced independently on a fork-join pool.
+ */
+public final class PortfolioValuer {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a {@code PortfolioValuer} that runs on the common pool.
+     */
+    public PortfolioValuer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a {@code PortfolioValuer} that runs on a given pool.
+     *
+     * @param pool the fork-join pool
+     */
+    public PortfolioValuer(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Values the positions.
+     *
+     * @param positions the positions
+     * @return the per position values and their totals
+     */
+    public PortfolioValuation value(final List<Position> positions) {
+        // Copied once, as get on a linked or synchronized list is slow or contended in the parallel loop
+        Position[] array = positions.toArray(new Position[0]);
+        int size = array.length;
+        Map<SettlementKey, Integer> groups = new HashMap<>();
+        List<SettlementKey> keys = new ArrayList<>();
+        int[] groupOf = new int[size];
+        for (int i = 0; i < size; i++) {
+            Position position = array[i];
+            SettlementKey key = new SettlementKey(position.bond().details(), position.settlementDate());
+            Integer group = groups.get(key);
+            if (group == null) {
+                group = keys.size();
+                groups.put(key, group);
+                keys.add(key);
+            }
+            groupOf[i] = group;
+        }
+
+        SettlementSnapshot[] snapshots = new SettlementSnapshot[keys.size()];
+        PortfolioValuation valuation = new PortfolioValuation(size, snapshots.length);
+        pool.submit(() -> {
+            IntStream.range(0, snapshots.length).parallel().forEach(g ->
+                    snapshots[g] = SettlementSnapshot.of(keys.get(g).bondDetails(), keys.get(g).settlementDate()));
+            IntStream.range(0, size).parallel().forEach(i -> {
+                Position position = array[i];
+                SettlementSnapshot snapshot = snapshots[groupOf[i]];
+                valuation.set(i, position.nominal(), snapshot.getAccruedInterest(),
+                        snapshot.getRiskMeasures(position.yield()));
+            });
+        }).join();
+        valuation.total();
+        return valuation;
+    }
+
+    private record SettlementKey(BondDetails bondDetails, LocalDate settlementDate) {
+    }
+}
@@ -0,0 +1,21 @@
+package bondpricer;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code Position} record represents a holding of a bond to be valued
+ * at a yield for a settlement date.
+ *
+ * @param bond           the bond
+ * @param nominal        the nominal amount held, negative for a short
+ * @param yield          the yield to value the position at
+ * @param settlementDate the settlement date
+ */
+public record Position(
+        Bond bond,
+        double nominal,
+        double yield,
+        LocalDate settlementDate
+) {
+
+}
@@ -0,0 +1,331 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code PreMarketSnapshot} class persists the settlement snapshots of
+ * every bond in a universe for one settlement date, so that they can be
+ * calculated before the market opens and read by a starting process
+ * without recalculating anything.
+ * <p>
+ * The file holds a 16 byte header, the magic number, format version,
+ * settlement epoch day and bond count as ints, followed by one 72 byte
+ * record per bond, sorted by name:
+ * <pre>
+ *  0 double couponRate          8 double accruedInterest  16 double brokenPeriod
+ * 24 int    maturityDay        28 int    nextCouponDay    32 int    lastCouponDay
+ * 36 int    booksCloseDay      40 int    remainingCoupons 44 int    daysAccrued
+ * 48 byte[8] coupon and books close months and days      56 byte[16] name
+ * </pre>
+ * All values are little-endian. The file is written to a temporary file
+ * and moved into place, so a reader never sees a partly written snapshot.
+ * It is read by memory-mapping it, and each {@link SettlementSnapshot} is
+ * built from its record on request.
+ */
+public final class PreMarketSnapshot {
+
+    static final int MAGIC = 0x4A534550;
+    static final int VERSION = 1;
+    static final int HEADERBYTES = 16;
+    static final int RECORDBYTES = 72;
+    static final int NAMEBYTES = 16;
+
+    private static final int ACCRUEDINTEREST = 8;
+    private static final int BROKENPERIOD = 16;
+    private static final int MATURITYDAY = 24;
+    private static final int NEXTCOUPONDAY = 28;
+    private static final int LASTCOUPONDAY = 32;
+    private static final int BOOKSCLOSEDAY = 36;
+    private static final int REMAININGCOUPONS = 40;
+    private static final int DAYSACCRUED = 44;
+    private static final int MONTHDAYS = 48;
+    private static final int NAME = 56;
+
+    private final ByteBuffer buffer;
+    private final LocalDate settlementDate;
+    private final Bond[] bonds;
+    private final Map<String, Integer> index;
+
+    private PreMarketSnapshot(final ByteBuffer buffer, final LocalDate settlementDate, final int count) {
+        this.buffer = buffer;
+        this.settlementDate = settlementDate;
+        bonds = new Bond[count];
+        index = new HashMap<>((int) (count / 0.75f) + 1);
+        byte[] name = new byte[NAMEBYTES];
+        for (int i = 0; i < count; i++) {
+            buffer.get(offsetOf(i) + NAME, name);
+            int length = 0;
+            while (length < NAMEBYTES && name[length] != 0) {
+                length++;
+            }
+            // One details instance per bond, shared by its snapshots
+            bonds[i] = new Bond(new String(name, 0, length, StandardCharsets.US_ASCII).intern(),
+                    getBondDetails(offsetOf(i)));
+            index.put(bonds[i].name(), i);
+        }
+    }
+
+    /**
+     * Calculates the settlement snapshot of every bond in a registry that
+     * matures after the settlement date and writes them to a file,
+     * replacing any previous snapshot.
+     *
+     * @param registry       the bonds
+     * @param settlementDate the settlement date
+     * @param file           the snapshot file
+     * @return the number of bonds written
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if a bond name is not at most
+     *                                  {@value #NAMEBYTES} ASCII characters
+     */
+    public static int write(final BondRegistry registry, final LocalDate settlementDate, final Path file)
+            throws IOException {
+        List<Bond> bonds = new ArrayList<>();
+        for (Bond bond : registry.getBonds()) {
+            if (settlementDate.isBefore(bond.details().maturityDate())) {
+                bonds.add(bond);
+            }
+        }
+        bonds.sort(Comparator.comparing(Bond::name));
+        ByteBuffer buffer = ByteBuffer.allocate(HEADERBYTES + bonds.size() * RECORDBYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, (int) settlementDate.toEpochDay());
+        buffer.putInt(12, bonds.size());
+        for (int i = 0; i < bonds.size(); i++) {
+            Bond bond = bonds.get(i);
+            putRecord(buffer, offsetOf(i), bond.name(), SettlementSnapshot.of(bond.details(), settlementDate));
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return bonds.size();
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be mapped or is not a complete
+     *                     snapshot of this format version
+     */
+    public static PreMarketSnapshot map(final Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADERBYTES) {
+                throw new IOException("Not a pre-market snapshot: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a pre-market snapshot: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported pre-market snapshot version " + buffer.getInt(4) + ": " + file);
+        }
+        int count = buffer.getInt(12);
+        if (count < 0 || buffer.capacity() != HEADERBYTES + (long) count * RECORDBYTES) {
+            throw new IOException("Truncated pre-market snapshot: " + file);
+        }
+        return new PreMarketSnapshot(buffer, LocalDate.ofEpochDay(buffer.getInt(8)), count);
+    }
+
+    /**
+     * Gets the settlement date of the snapshot.
+     *
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate() {
+        return settlementDate;
+    }
+
+    /**
+     * Gets the number of bonds in the snapshot.
+     *
+     * @return the number of bonds
+     */
+    public int size() {
+        return bonds.length;
+    }
+
+    /**
+     * Gets the name of a bond in the snapshot.
+     *
+     * @param i the index of the bond, in name order
+     * @return the bond name
+     */
+    public String getBondName(final int i) {
+        return bonds[i].name();
+    }
+
+    /**
+     * Gets the index of a bond in the snapshot.
+     *
+     * @param bondName the bond name
+     * @return the index of the bond, or -1 if the snapshot does not hold it
+     */
+    public int indexOf(final String bondName) {
+        Integer i = index.get(bondName);
+        return (i != null) ? i : -1;
+    }
+
+    /**
+     * Gets a bond in the snapshot.
+     *
+     * @param i the index of the bond, in name order
+     * @return the bond
+     */
+    public Bond getBond(final int i) {
+        return bonds[i];
+    }
+
+    /**
+     * Gets the settlement snapshot of a bond. The snapshot is identical to
+     * {@link SettlementSnapshot#of(BondDetails, LocalDate)}.
+     *
+     * @param i the index of the bond, in name order
+     * @return the settlement snapshot
+     */
+    public SettlementSnapshot getSnapshot(final int i) {
+        int offset = offsetOf(i);
+        return new SettlementSnapshot(bonds[i].details(),
+                settlementDate,
+                LocalDate.ofEpochDay(buffer.getInt(offset + NEXTCOUPONDAY)),
+                LocalDate.ofEpochDay(buffer.getInt(offset + LASTCOUPONDAY)),
+                LocalDate.ofEpochDay(buffer.getInt(offset + BOOKSCLOSEDAY)),
+                buffer.getInt(offset + REMAININGCOUPONS),
+                buffer.getInt(offset + DAYSACCRUED),
+                buffer.getDouble(offset + ACCRUEDINTEREST),
+                buffer.getDouble(offset + BROKENPERIOD));
+    }
+
+    /**
+     * Gets the settlement snapshot of a bond by name.
+     *
+     * @param bondName the bond name
+     * @return the settlement snapshot
+     * @throws IllegalArgumentException if the snapshot does not hold the bond
+     */
+    public SettlementSnapshot getSnapshot(final String bondName) {
+        int i = indexOf(bondName);
+        if (i < 0) {
+            throw new IllegalArgumentException("No pre-market snapshot for bond: " + bondName);
+        }
+        return getSnapshot(i);
+    }
+
+    /**
+     * Gets the settlement snapshots of every bond.
+     *
+     * @return the settlement snapshots, in name order
+     */
+    public List<SettlementSnapshot> getSnapshots() {
+        List<SettlementSnapshot> snapshots = new ArrayList<>(bonds.length);
+        for (int i = 0; i < bonds.length; i++) {
+            snapshots.add(getSnapshot(i));
+        }
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    /**
+     * Checks that the snapshot was written from a registry, holding every
+     * bond of the registry that matures after the settlement date with the
+     * same details.
+     *
+     * @param registry the bonds
+     * @throws IllegalArgumentException if a bond is missing or its details
+     *                                  differ, such as after the registry
+     *                                  was reloaded
+     */
+    public void verify(final BondRegistry registry) {
+        int matched = 0;
+        for (Bond bond : registry.getBonds()) {
+            if (!settlementDate.isBefore(bond.details().maturityDate())) {
+                continue;
+            }
+            int i = indexOf(bond.name());
+            if (i < 0) {
+                throw new IllegalArgumentException("No pre-market snapshot for bond: " + bond.name());
+            }
+            if (!bonds[i].details().equals(bond.details())) {
+                throw new IllegalArgumentException("Pre-market snapshot of " + bond.name()
+                        + " is for different bond details");
+            }
+            matched++;
+        }
+        if (matched != bonds.length) {
+            throw new IllegalArgumentException("Pre-market snapshot holds " + bonds.length
+                    + " bonds, the registry " + matched);
+        }
+    }
+
+    private BondDetails getBondDetails(final int offset) {
+        int monthDays = offset + MONTHDAYS;
+        return new BondDetails(LocalDate.ofEpochDay(buffer.getInt(offset + MATURITYDAY)),
+                buffer.getDouble(offset),
+                MonthDay.of(buffer.get(monthDays), buffer.get(monthDays + 1)),
+                MonthDay.of(buffer.get(monthDays + 2), buffer.get(monthDays + 3)),
+                MonthDay.of(buffer.get(monthDays + 4), buffer.get(monthDays + 5)),
+                MonthDay.of(buffer.get(monthDays + 6), buffer.get(monthDays + 7)));
+    }
+
+    private static void putRecord(final ByteBuffer buffer, final int offset, final String name,
+            final SettlementSnapshot snapshot) {
+        if (name.isEmpty() || name.length() > NAMEBYTES || !StandardCharsets.US_ASCII.newEncoder().canEncode(name)) {
+            throw new IllegalArgumentException("Bond name must be 1 to " + NAMEBYTES + " ASCII characters: "
+                    + name);
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        BondDetails details = snapshot.getBondDetails();
+        buffer.putDouble(offset, details.couponRate());
+        buffer.putDouble(offset + ACCRUEDINTEREST, snapshot.getUnroundedAccruedInterest());
+        buffer.putDouble(offset + BROKENPERIOD, snapshot.getBrokenPeriod());
+        buffer.putInt(offset + MATURITYDAY, (int) details.maturityDate().toEpochDay());
+        buffer.putInt(offset + NEXTCOUPONDAY, (int) snapshot.getNextCouponDate().toEpochDay());
+        buffer.putInt(offset + LASTCOUPONDAY, (int) snapshot.getLastCouponDate().toEpochDay());
+        buffer.putInt(offset + BOOKSCLOSEDAY, (int) snapshot.getBooksCloseDate().toEpochDay());
+        buffer.putInt(offset + REMAININGCOUPONS, snapshot.getNumberRemainingCoupons());
+        buffer.putInt(offset + DAYSACCRUED, (int) snapshot.getDaysAccrued());
+        int monthDays = offset + MONTHDAYS;
+        putMonthDay(buffer, monthDays, details.firstCouponDate());
+        putMonthDay(buffer, monthDays + 2, details.secondCouponDate());
+        putMonthDay(buffer, monthDays + 4, details.firstBooksCloseDate());
+        putMonthDay(buffer, monthDays + 6, details.secondBooksCloseDate());
+        buffer.put(offset + NAME, bytes);
+    }
+
+    private static void putMonthDay(final ByteBuffer buffer, final int offset, final MonthDay monthDay) {
+        buffer.put(offset, (byte) monthDay.getMonthValue());
+        buffer.put(offset + 1, (byte) monthDay.getDayOfMonth());
+    }
+
+    private static int offsetOf(final int i) {
+        return HEADERBYTES + i * RECORDBYTES;
+    }
+}
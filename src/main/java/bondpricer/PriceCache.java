@@ -0,0 +1,194 @@
+package bondpricer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code PriceCache} class holds the latest published yield, clean
+ * price, all-in price and accrued interest of each bond in a universe, for
+ * many threads to read while feed threads publish new yields.
+ * <p>
+ * Each bond's prices are guarded by a sequence lock: a writer makes the
+ * sequence odd, writes the prices and makes it even again, and a reader
+ * retries if the sequence was odd or changed while it copied the prices.
+ * Readers therefore never block a writer, never take a lock and never
+ * allocate. Writers to the same bond are serialized on the sequence, so
+ * one writer per bond never waits.
+ * <p>
+ * Rolling the settlement date swaps in new settlement snapshots and
+ * invalidates every cached price at once: prices published before the roll
+ * are not returned after it, even if their writer finishes later.
+ */
+public final class PriceCache {
+
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(Slot.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<String, Integer> bondIndex = new HashMap<>();
+    private final BondDetails[] bondDetails;
+    private final Slot[] slots;
+    private volatile State state;
+
+    /**
+     * Constructs an empty cache for a universe of bonds.
+     *
+     * @param bonds          the bonds
+     * @param settlementDate the settlement date prices are published for
+     * @throws IllegalArgumentException if two bonds have the same name
+     */
+    public PriceCache(final Collection<Bond> bonds, final LocalDate settlementDate) {
+        bondDetails = new BondDetails[bonds.size()];
+        slots = new Slot[bonds.size()];
+        int i = 0;
+        for (Bond bond : bonds) {
+            if (bondIndex.put(bond.name(), i) != null) {
+                throw new IllegalArgumentException("Bond " + bond.name() + " is listed twice");
+            }
+            bondDetails[i] = bond.details();
+            slots[i] = new Slot();
+            i++;
+        }
+        state = createState(settlementDate, 1);
+    }
+
+    private State createState(final LocalDate settlementDate, final long generation) {
+        SettlementSnapshot[] snapshots = new SettlementSnapshot[bondDetails.length];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = SettlementSnapshot.of(bondDetails[i], settlementDate);
+        }
+        return new State(settlementDate, generation, snapshots);
+    }
+
+    /**
+     * Gets the settlement date prices are published for.
+     *
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate() {
+        return state.settlementDate();
+    }
+
+    /**
+     * Rolls the cache to a new settlement date, invalidating every cached
+     * price. Should not be called by more than one thread at a time.
+     *
+     * @param settlementDate the new settlement date
+     */
+    public void setSettlementDate(final LocalDate settlementDate) {
+        state = createState(settlementDate, state.generation() + 1);
+    }
+
+    /**
+     * Invalidates every cached price without changing the settlement date.
+     */
+    public void invalidateAll() {
+        State current = state;
+        state = new State(current.settlementDate(), current.generation() + 1, current.snapshots());
+    }
+
+    /**
+     * Prices a bond at a yield on the current settlement date and publishes
+     * the prices. The prices are rounded as by
+     * {@link BondPricer#getBondPrices(double)}.
+     *
+     * @param bondName the bond name
+     * @param yield    the yield
+     * @throws IllegalArgumentException if the bond is not in the cache
+     */
+    public void publish(final String bondName, final double yield) {
+        int index = indexOf(bondName);
+        State current = state;
+        SettlementSnapshot snapshot = current.snapshots()[index];
+        double allInPrice = SettlementSnapshot.round(snapshot.calculateAllInPrice(yield));
+        double cleanPrice = SettlementSnapshot.round(snapshot.calculateCleanPrice(allInPrice));
+
+        Slot slot = slots[index];
+        long sequence = lock(slot);
+        slot.generation = current.generation();
+        slot.yield = yield;
+        slot.cleanPrice = cleanPrice;
+        slot.allInPrice = allInPrice;
+        slot.accruedInterest = snapshot.getAccruedInterest();
+        SEQUENCE.setRelease(slot, sequence + 2);
+    }
+
+    private static long lock(final Slot slot) {
+        while (true) {
+            long sequence = (long) SEQUENCE.getVolatile(slot);
+            if ((sequence & 1) == 0 && SEQUENCE.compareAndSet(slot, sequence, sequence + 1)) {
+                // The prices must not be written before the sequence is odd
+                VarHandle.storeStoreFence();
+                return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads the latest published prices of a bond as one consistent tuple.
+     *
+     * @param bondName the bond name
+     * @param prices   receives the yield at index 0, the clean price at
+     *                 index 1, the all-in price at index 2 and the accrued
+     *                 interest at index 3
+     * @return {@code false}, leaving the array unchanged, if no price has
+     *         been published since the cache was last invalidated
+     * @throws IllegalArgumentException if the bond is not in the cache
+     */
+    public boolean getPrices(final String bondName, final double[] prices) {
+        Slot slot = slots[indexOf(bondName)];
+        while (true) {
+            long sequence = (long) SEQUENCE.getAcquire(slot);
+            long generation = slot.generation;
+            double yield = slot.yield;
+            double cleanPrice = slot.cleanPrice;
+            double allInPrice = slot.allInPrice;
+            double accruedInterest = slot.accruedInterest;
+            // The prices must be read before the sequence is checked again
+            VarHandle.loadLoadFence();
+            if ((sequence & 1) == 0 && sequence == (long) SEQUENCE.getOpaque(slot)) {
+                if (generation != state.generation()) {
+                    return false;
+                }
+                prices[0] = yield;
+                prices[1] = cleanPrice;
+                prices[2] = allInPrice;
+                prices[3] = accruedInterest;
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int indexOf(final String bondName) {
+        Integer index = bondIndex.get(bondName);
+        if (index == null) {
+            throw new IllegalArgumentException("Bond " + bondName + " is not in the cache");
+        }
+        return index;
+    }
+
+    private record State(LocalDate settlementDate, long generation, SettlementSnapshot[] snapshots) {
+    }
+
+    private static final class Slot {
+
+        private volatile long sequence;
+        private long generation;
+        private double yield;
+        private double cleanPrice;
+        private double allInPrice;
+        private double accruedInterest;
+    }
+}
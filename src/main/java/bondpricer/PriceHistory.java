@@ -0,0 +1,177 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code PriceHistory} class holds the end of day prices of a bond over
+ * a range of settlement dates, as produced by {@link HistoricalRevaluer}.
+ * The values are held in columns, one primitive array per field in
+ * settlement date order, so a history of decades of business days takes a
+ * few hundred kilobytes and can be scanned or written out column by column.
+ */
+public final class PriceHistory {
+
+    private final String bondName;
+    private final int[] epochDays;
+    private final double[] yields;
+    private final double[] cleanPrices;
+    private final double[] allInPrices;
+    private final double[] accruedInterest;
+
+    PriceHistory(final String bondName, final int[] epochDays, final double[] yields,
+            final double[] cleanPrices, final double[] allInPrices, final double[] accruedInterest) {
+        this.bondName = bondName;
+        this.epochDays = epochDays;
+        this.yields = yields;
+        this.cleanPrices = cleanPrices;
+        this.allInPrices = allInPrices;
+        this.accruedInterest = accruedInterest;
+    }
+
+    /**
+     * Converts the maps returned by {@link BondPricer#getBondDetails(double)}
+     * into a price history. The prices in the maps are unrounded, so they are
+     * rounded the way {@link BondPricer#getBondPrices(double)} rounds them.
+     *
+     * @param bondName    the bond name
+     * @param dates       the settlement date of each map, in ascending order
+     * @param yields      the yield of each map
+     * @param bondDetails the bond details maps
+     * @return the price history
+     * @throws IllegalArgumentException if the lengths differ, the dates are
+     *                                  not strictly ascending or a map lacks
+     *                                  a price field
+     */
+    public static PriceHistory fromBondDetails(final String bondName, final LocalDate[] dates,
+            final double[] yields, final List<Map<String, Object>> bondDetails) {
+        int size = dates.length;
+        if (yields.length != size || bondDetails.size() != size) {
+            throw new IllegalArgumentException("Got " + size + " dates, " + yields.length + " yields and "
+                    + bondDetails.size() + " bond details");
+        }
+        int[] epochDays = new int[size];
+        double[] cleanPrices = new double[size];
+        double[] allInPrices = new double[size];
+        double[] accruedInterest = new double[size];
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = (int) dates[i].toEpochDay();
+            if (i > 0 && epochDays[i] <= epochDays[i - 1]) {
+                throw new IllegalArgumentException("Dates are not strictly ascending at " + dates[i]);
+            }
+            Map<String, Object> details = bondDetails.get(i);
+            double accrued = getDouble(details, "accruedInterest");
+            allInPrices[i] = SettlementSnapshot.round(getDouble(details, "allInPrice"));
+            cleanPrices[i] = SettlementSnapshot.round(allInPrices[i] - accrued);
+            accruedInterest[i] = SettlementSnapshot.round(accrued);
+        }
+        return new PriceHistory(bondName, epochDays, yields.clone(), cleanPrices, allInPrices, accruedInterest);
+    }
+
+    private static double getDouble(final Map<String, Object> details, final String field) {
+        Object value = details.get(field);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Bond details have no numeric " + field + ": " + value);
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * Gets the name of the bond.
+     *
+     * @return the bond name
+     */
+    public String getBondName() {
+        return bondName;
+    }
+
+    /**
+     * Gets the number of settlement dates in the history.
+     *
+     * @return the number of dates
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * Gets a settlement date.
+     *
+     * @param index the date index
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate(final int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    /**
+     * Gets a settlement date as an epoch day.
+     *
+     * @param index the date index
+     * @return the epoch day
+     */
+    public int getEpochDay(final int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * Gets the yield a settlement date was priced at.
+     *
+     * @param index the date index
+     * @return the yield
+     */
+    public double getYield(final int index) {
+        return yields[index];
+    }
+
+    /**
+     * Gets the clean price on a settlement date.
+     *
+     * @param index the date index
+     * @return the clean price
+     */
+    public double getCleanPrice(final int index) {
+        return cleanPrices[index];
+    }
+
+    /**
+     * Gets the all-in price on a settlement date.
+     *
+     * @param index the date index
+     * @return the all-in price
+     */
+    public double getAllInPrice(final int index) {
+        return allInPrices[index];
+    }
+
+    /**
+     * Gets the rounded accrued interest on a settlement date.
+     *
+     * @param index the date index
+     * @return the accrued interest
+     */
+    public double getAccruedInterest(final int index) {
+        return accruedInterest[index];
+    }
+
+    int[] epochDays() {
+        return epochDays;
+    }
+
+    double[] yields() {
+        return yields;
+    }
+
+    double[] cleanPrices() {
+        return cleanPrices;
+    }
+
+    double[] allInPrices() {
+        return allInPrices;
+    }
+
+    double[] accruedInterest() {
+        return accruedInterest;
+    }
+}
@@ -0,0 +1,222 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code PriceHistoryStore} class persists {@link PriceHistory} series
+ * in a directory, one sub-directory per bond and one fixed-width binary
+ * file per column:
+ * <pre>
+ * R2030/epochDay.col        int per date
+ * R2030/yield.col           double per date
+ * R2030/cleanPrice.col      double per date
+ * R2030/allInPrice.col      double per date
+ * R2030/accruedInterest.col double per date
+ * </pre>
+ * All values are little-endian, so the n-th date of a bond is at the same
+ * index in every column. Files are only appended to, with dates after the
+ * last stored date. A series is read by memory-mapping its columns, so
+ * scanning it does not copy or parse anything.
+ * <p>
+ * The date column is written last, and a series holds as many dates as its
+ * shortest column, so an append interrupted part way is ignored on read
+ * and overwritten by the next append.
+ */
+public final class PriceHistoryStore {
+
+    static final String EPOCHDAY = "epochDay.col";
+    static final String YIELD = "yield.col";
+    static final String CLEANPRICE = "cleanPrice.col";
+    static final String ALLINPRICE = "allInPrice.col";
+    static final String ACCRUEDINTEREST = "accruedInterest.col";
+
+    private static final String[] DOUBLECOLUMNS = { YIELD, CLEANPRICE, ALLINPRICE, ACCRUEDINTEREST };
+    private static final Pattern BONDNAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Path directory;
+
+    private PriceHistoryStore(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens a store, creating its directory if it does not exist.
+     *
+     * @param directory the store directory
+     * @return the store
+     * @throws IOException if the directory cannot be created
+     */
+    public static PriceHistoryStore open(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new PriceHistoryStore(directory);
+    }
+
+    /**
+     * Gets the store directory.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the names of the bonds with a stored series.
+     *
+     * @return the bond names, sorted
+     * @throws IOException if the directory cannot be listed
+     */
+    public List<String> getBondNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> bonds = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path bond : bonds) {
+                names.add(bond.getFileName().toString());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Gets the number of dates stored for a bond.
+     *
+     * @param bondName the bond name
+     * @return the number of dates, zero if the bond has no series
+     * @throws IOException              if a column cannot be read
+     * @throws IllegalArgumentException if the bond name is not a plain name
+     */
+    public int size(final String bondName) throws IOException {
+        return countOf(bondDirectory(bondName));
+    }
+
+    /**
+     * Appends a price history to the series of its bond.
+     *
+     * @param history the price history
+     * @throws IOException              if a column cannot be written
+     * @throws IllegalArgumentException if the first date of the history is
+     *                                  not after the last stored date, or
+     *                                  the bond name is not a plain name
+     */
+    public synchronized void append(final PriceHistory history) throws IOException {
+        int size = history.size();
+        if (size == 0) {
+            return;
+        }
+        Path bond = bondDirectory(history.getBondName());
+        Files.createDirectories(bond);
+        int count = countOf(bond);
+        if (count > 0) {
+            int lastDay = readLastEpochDay(bond.resolve(EPOCHDAY), count);
+            if (history.getEpochDay(0) <= lastDay) {
+                throw new IllegalArgumentException("Cannot append " + history.getSettlementDate(0) + " to "
+                        + history.getBondName() + ", the series already ends on "
+                        + LocalDate.ofEpochDay(lastDay));
+            }
+        }
+        writeColumn(bond.resolve(YIELD), count, Double.BYTES, history.yields(), size);
+        writeColumn(bond.resolve(CLEANPRICE), count, Double.BYTES, history.cleanPrices(), size);
+        writeColumn(bond.resolve(ALLINPRICE), count, Double.BYTES, history.allInPrices(), size);
+        writeColumn(bond.resolve(ACCRUEDINTEREST), count, Double.BYTES, history.accruedInterest(), size);
+        ByteBuffer days = ByteBuffer.allocate(size * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        days.asIntBuffer().put(history.epochDays(), 0, size);
+        writeColumn(bond.resolve(EPOCHDAY), count, Integer.BYTES, days);
+    }
+
+    /**
+     * Maps the stored series of a bond. Dates appended after the series is
+     * mapped are not visible through it.
+     *
+     * @param bondName the bond name
+     * @return the mapped series
+     * @throws IOException              if a column cannot be mapped
+     * @throws IllegalArgumentException if the bond has no stored series, or
+     *                                  the bond name is not a plain name
+     */
+    public PriceSeries read(final String bondName) throws IOException {
+        Path bond = bondDirectory(bondName);
+        if (!Files.isDirectory(bond)) {
+            throw new IllegalArgumentException("No price history for bond: " + bondName);
+        }
+        int count = countOf(bond);
+        return new PriceSeries(bondName, count,
+                map(bond.resolve(EPOCHDAY), (long) count * Integer.BYTES),
+                map(bond.resolve(YIELD), (long) count * Double.BYTES),
+                map(bond.resolve(CLEANPRICE), (long) count * Double.BYTES),
+                map(bond.resolve(ALLINPRICE), (long) count * Double.BYTES),
+                map(bond.resolve(ACCRUEDINTEREST), (long) count * Double.BYTES));
+    }
+
+    private Path bondDirectory(final String bondName) {
+        if (!BONDNAME.matcher(bondName).matches()) {
+            throw new IllegalArgumentException("Invalid bond name: " + bondName);
+        }
+        return directory.resolve(bondName);
+    }
+
+    private static int countOf(final Path bond) throws IOException {
+        long count = columnSize(bond.resolve(EPOCHDAY)) / Integer.BYTES;
+        for (String column : DOUBLECOLUMNS) {
+            count = Math.min(count, columnSize(bond.resolve(column)) / Double.BYTES);
+        }
+        return (int) count;
+    }
+
+    private static long columnSize(final Path column) throws IOException {
+        return Files.exists(column) ? Files.size(column) : 0;
+    }
+
+    private static int readLastEpochDay(final Path column, final int count) throws IOException {
+        try (FileChannel channel = FileChannel.open(column, StandardOpenOption.READ)) {
+            ByteBuffer day = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long position = (long) (count - 1) * Integer.BYTES;
+            while (day.hasRemaining()) {
+                if (channel.read(day, position + day.position()) < 0) {
+                    throw new IOException("Unexpected end of " + column);
+                }
+            }
+            return day.getInt(0);
+        }
+    }
+
+    private static void writeColumn(final Path column, final int count, final int width,
+            final double[] values, final int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size * width).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values, 0, size);
+        writeColumn(column, count, width, buffer);
+    }
+
+    private static void writeColumn(final Path column, final int count, final int width,
+            final ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(column, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drops whatever an interrupted append left past the last complete date
+            long end = (long) count * width;
+            channel.truncate(end);
+            channel.position(end);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static ByteBuffer map(final Path column, final long size) throws IOException {
+        if (size == 0) {
+            return ByteBuffer.allocate(0);
+        }
+        try (FileChannel channel = FileChannel.open(column, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package bondpricer;
+
+/**
+ * The {@code PriceListener} interface receives the prices published by a
+ * {@link PricingPipeline}. Listeners are called on the pipeline's pricing
+ * thread and should return quickly; a slow listener causes ticks to be
+ * conflated rather than queued.
+ */
+@FunctionalInterface
+public interface PriceListener {
+
+    /**
+     * Called with the latest prices of a bond.
+     *
+     * @param bondName   the bond name
+     * @param yield      the yield that was priced
+     * @param cleanPrice the clean price
+     * @param allInPrice the all-in price
+     */
+    void onPrice(String bondName, double yield, double cleanPrice, double allInPrice);
+}
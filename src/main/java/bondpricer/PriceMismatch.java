@@ -0,0 +1,28 @@
+package bondpricer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A price from a fast pricing path that differs from the
+ * {@link ReferencePricer}, as reported by {@link DifferentialHarness}.
+ *
+ * @param bondName           the bond
+ * @param settlementDate     the settlement date
+ * @param yield              the yield
+ * @param exactAllInPrice    the exact, unrounded all-in price
+ * @param expectedCleanPrice the reference clean price
+ * @param expectedAllInPrice the reference all-in price
+ * @param cleanPrice         the clean price of the fast path
+ * @param allInPrice         the all-in price of the fast path
+ */
+public record PriceMismatch(String bondName, LocalDate settlementDate, double yield, BigDecimal exactAllInPrice,
+        double expectedCleanPrice, double expectedAllInPrice, double cleanPrice, double allInPrice) {
+
+    @Override
+    public String toString() {
+        return bondName + " " + settlementDate + " at " + yield + ": clean " + cleanPrice + " all-in " + allInPrice
+                + ", expected clean " + expectedCleanPrice + " all-in " + expectedAllInPrice + " (exact "
+                + exactAllInPrice + ")";
+    }
+}
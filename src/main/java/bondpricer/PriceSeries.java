@@ -0,0 +1,140 @@
+package bondpricer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.time.LocalDate;
+
+/**
+ * The {@code PriceSeries} class is a read-only view of a bond's price
+ * history held in a {@link PriceHistoryStore}. Each column is a memory
+ * mapped file, and the getters read the value at an index straight from
+ * the mapping, so a series is scanned without being loaded or parsed.
+ * A series can be read from many threads.
+ */
+public final class PriceSeries {
+
+    private final String bondName;
+    private final int size;
+    private final IntBuffer epochDays;
+    private final DoubleBuffer yields;
+    private final DoubleBuffer cleanPrices;
+    private final DoubleBuffer allInPrices;
+    private final DoubleBuffer accruedInterest;
+
+    PriceSeries(final String bondName, final int size, final ByteBuffer epochDays,
+            final ByteBuffer yields, final ByteBuffer cleanPrices,
+            final ByteBuffer allInPrices, final ByteBuffer accruedInterest) {
+        this.bondName = bondName;
+        this.size = size;
+        this.epochDays = epochDays.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        this.yields = yields.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        this.cleanPrices = cleanPrices.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        this.allInPrices = allInPrices.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        this.accruedInterest = accruedInterest.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    /**
+     * Gets the name of the bond.
+     *
+     * @return the bond name
+     */
+    public String getBondName() {
+        return bondName;
+    }
+
+    /**
+     * Gets the number of settlement dates in the series.
+     *
+     * @return the number of dates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the index of a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the index of the date, or {@code -(insertion point) - 1} if the
+     *         series does not hold it, as {@link java.util.Arrays#binarySearch(int[], int)}
+     */
+    public int indexOf(final LocalDate settlementDate) {
+        long day = settlementDate.toEpochDay();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleDay = epochDays.get(middle);
+            if (middleDay < day) {
+                low = middle + 1;
+            } else if (middleDay > day) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Gets a settlement date.
+     *
+     * @param index the date index
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate(final int index) {
+        return LocalDate.ofEpochDay(getEpochDay(index));
+    }
+
+    /**
+     * Gets a settlement date as an epoch day.
+     *
+     * @param index the date index
+     * @return the epoch day
+     */
+    public int getEpochDay(final int index) {
+        return epochDays.get(index);
+    }
+
+    /**
+     * Gets the yield a settlement date was priced at.
+     *
+     * @param index the date index
+     * @return the yield
+     */
+    public double getYield(final int index) {
+        return yields.get(index);
+    }
+
+    /**
+     * Gets the clean price on a settlement date.
+     *
+     * @param index the date index
+     * @return the clean price
+     */
+    public double getCleanPrice(final int index) {
+        return cleanPrices.get(index);
+    }
+
+    /**
+     * Gets the all-in price on a settlement date.
+     *
+     * @param index the date index
+     * @return the all-in price
+     */
+    public double getAllInPrice(final int index) {
+        return allInPrices.get(index);
+    }
+
+    /**
+     * Gets the rounded accrued interest on a settlement date.
+     *
+     * @param index the date index
+     * @return the accrued interest
+     */
+    public double getAccruedInterest(final int index) {
+        return accruedInterest.get(index);
+    }
+}
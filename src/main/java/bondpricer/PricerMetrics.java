@@ -0,0 +1,284 @@
+package bondpricer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code PricerMetrics} class collects call counts and latencies from
+ * the {@link BondPricer}s it is attached to with
+ * {@link BondPricer#setMetrics(PricerMetrics)}. Pricers have no metrics
+ * attached by default, which costs one null check per call.
+ * <p>
+ * For each bond it counts the calls to each {@link Method} and the prices
+ * evaluated on the money market branch of the formula, in the final coupon
+ * period, and on the standard branch. The counters are {@link LongAdder}s,
+ * so pricers on many threads can share one instance without contending.
+ * Settlement date changes and batch pricing are also timed into latency
+ * histograms and emitted as JDK Flight Recorder events, which are recorded
+ * when a recording enables {@code bondpricer.SettlementUpdate} or
+ * {@code bondpricer.BatchPricing}.
+ */
+public final class PricerMetrics {
+
+    /**
+     * The instrumented {@link BondPricer} methods.
+     */
+    public enum Method {
+        /** {@link BondPricer#setSettlementDate}. */
+        SETSETTLEMENTDATE,
+        /** {@link BondPricer#getAllInPrice}. */
+        ALLINPRICE,
+        /** {@link BondPricer#getCleanPrice}. */
+        CLEANPRICE,
+        /** {@link BondPricer#getBondPrices(double)}. */
+        BONDPRICES,
+        /** {@link BondPricer#getBondPrices(double[], double[], double[])}. */
+        BONDPRICESBATCH,
+        /** {@link BondPricer#getRiskMeasures}. */
+        RISKMEASURES,
+        /** {@link BondPricer#getYield} and {@link BondPricer#getYieldFromCleanPrice}. */
+        YIELD,
+        /** {@link BondPricer#getYields} and {@link BondPricer#getYieldsFromCleanPrices}. */
+        YIELDSBATCH,
+        /** {@link BondPricer#getPricingDetails} and {@link BondPricer#getBondDetails}. */
+        PRICINGDETAILS
+    }
+
+    private static final Method[] METHODS = Method.values();
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final LatencyHistogram settlementLatency = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+    Counters counters(final String bondName) {
+        return counters.computeIfAbsent(bondName, name -> new Counters(name, this));
+    }
+
+    /**
+     * Gets the names of the bonds with recorded calls.
+     *
+     * @return the bond names, sorted
+     */
+    public List<String> getBondNames() {
+        List<String> names = new ArrayList<>(counters.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Gets the number of calls to a method for a bond.
+     *
+     * @param bondName the bond name
+     * @param method   the method
+     * @return the call count
+     */
+    public long getCalls(final String bondName, final Method method) {
+        Counters bond = counters.get(bondName);
+        return (bond == null) ? 0 : bond.calls[method.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of prices evaluated for a bond on the money market
+     * branch of the formula, used in the final coupon period.
+     *
+     * @param bondName the bond name
+     * @return the money market price count
+     */
+    public long getMoneyMarketPrices(final String bondName) {
+        Counters bond = counters.get(bondName);
+        return (bond == null) ? 0 : bond.moneyMarketPrices.sum();
+    }
+
+    /**
+     * Gets the number of prices evaluated for a bond on the standard branch
+     * of the formula.
+     *
+     * @param bondName the bond name
+     * @return the standard price count
+     */
+    public long getStandardPrices(final String bondName) {
+        Counters bond = counters.get(bondName);
+        return (bond == null) ? 0 : bond.standardPrices.sum();
+    }
+
+    /**
+     * Gets the latencies of settlement date changes.
+     *
+     * @return the settlement latency histogram
+     */
+    public LatencyHistogram getSettlementLatency() {
+        return settlementLatency;
+    }
+
+    /**
+     * Gets the latencies of batch pricing and batch yield solving calls.
+     *
+     * @return the batch latency histogram
+     */
+    public LatencyHistogram getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * Resets every counter and histogram.
+     */
+    public void reset() {
+        for (Counters bond : counters.values()) {
+            for (LongAdder calls : bond.calls) {
+                calls.reset();
+            }
+            bond.moneyMarketPrices.reset();
+            bond.standardPrices.reset();
+        }
+        settlementLatency.reset();
+        batchLatency.reset();
+    }
+
+    /**
+     * Returns a summary of the non-zero counters of each bond and the
+     * latency histograms.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        for (String bondName : getBondNames()) {
+            summary.append(bondName).append(':');
+            for (Method method : METHODS) {
+                long calls = getCalls(bondName, method);
+                if (calls > 0) {
+                    summary.append(' ').append(method).append('=').append(calls);
+                }
+            }
+            summary.append(" moneyMarketPrices=").append(getMoneyMarketPrices(bondName))
+                    .append(" standardPrices=").append(getStandardPrices(bondName)).append('\n');
+        }
+        return summary.append("settlement ").append(settlementLatency).append('\n')
+                .append("batch ").append(batchLatency).toString();
+    }
+
+    /**
+     * The counters of one bond, resolved once when metrics are attached to
+     * a pricer so the hot path does not look the bond up.
+     */
+    static final class Counters {
+
+        private final String bondName;
+        private final PricerMetrics metrics;
+        private final LongAdder[] calls = new LongAdder[METHODS.length];
+        private final LongAdder moneyMarketPrices = new LongAdder();
+        private final LongAdder standardPrices = new LongAdder();
+
+        private Counters(final String bondName, final PricerMetrics metrics) {
+            this.bondName = bondName;
+            this.metrics = metrics;
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = new LongAdder();
+            }
+        }
+
+        void priced(final Method method, final SettlementSnapshot snapshot, final int prices) {
+            calls[method.ordinal()].increment();
+            (snapshot.isMoneyMarket() ? moneyMarketPrices : standardPrices).add(prices);
+        }
+
+        SettlementUpdateEvent beginSettlement() {
+            SettlementUpdateEvent event = new SettlementUpdateEvent();
+            event.startNanos = System.nanoTime();
+            event.begin();
+            return event;
+        }
+
+        void settled(final SettlementSnapshot snapshot, final boolean fromTable, final SettlementUpdateEvent event) {
+            event.end();
+            calls[Method.SETSETTLEMENTDATE.ordinal()].increment();
+            metrics.settlementLatency.record(System.nanoTime() - event.startNanos);
+            if (event.shouldCommit()) {
+                event.bond = bondName;
+                event.settlementDate = snapshot.getSettlementDate().toString();
+                event.fromTable = fromTable;
+                event.moneyMarket = snapshot.isMoneyMarket();
+                event.commit();
+            }
+        }
+
+        BatchPricingEvent beginBatch() {
+            BatchPricingEvent event = new BatchPricingEvent();
+            event.startNanos = System.nanoTime();
+            event.begin();
+            return event;
+        }
+
+        void batched(final Method method, final SettlementSnapshot snapshot, final int prices,
+                final BatchPricingEvent event) {
+            event.end();
+            priced(method, snapshot, prices);
+            metrics.batchLatency.record(System.nanoTime() - event.startNanos);
+            if (event.shouldCommit()) {
+                event.bond = bondName;
+                event.method = method.name();
+                event.prices = prices;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * A settlement date change on an instrumented pricer. The event begins
+     * before the change and ends after it, so its duration is the time the
+     * change took and recording thresholds apply to it.
+     */
+    @Name("bondpricer.SettlementUpdate")
+    @Label("Settlement Update")
+    @Category("Bond Pricer")
+    @Description("A BondPricer settlement date change")
+    static final class SettlementUpdateEvent extends Event {
+
+        @Label("Bond")
+        private String bond;
+
+        @Label("Settlement Date")
+        private String settlementDate;
+
+        @Label("From Settlement Table")
+        private boolean fromTable;
+
+        @Label("Money Market")
+        private boolean moneyMarket;
+
+        // Transient fields are not recorded, this one times the latency histogram
+        private transient long startNanos;
+    }
+
+    /**
+     * A batch pricing or batch yield solving call on an instrumented pricer.
+     */
+    @Name("bondpricer.BatchPricing")
+    @Label("Batch Pricing")
+    @Category("Bond Pricer")
+    @Description("A BondPricer batch pricing or yield solving call")
+    static final class BatchPricingEvent extends Event {
+
+        @Label("Bond")
+        private String bond;
+
+        @Label("Method")
+        private String method;
+
+        @Label("Prices")
+        private int prices;
+
+        private transient long startNanos;
+    }
+}
@@ -0,0 +1,108 @@
+package bondpricer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code PricerWarmup} class runs the pricing hot paths before a
+ * process reports ready, so that the first ticks of the day are priced by
+ * compiled rather than interpreted code.
+ * <p>
+ * Each round prices one of the snapshots, in turn, through the single and
+ * batch prices, the risk measures, the pricing details and the yield
+ * solver of {@link BondPricer}, and through a {@link PricingKernel} over
+ * all the snapshots. The default number of rounds calls each method more
+ * often than the JIT compiles it at its highest tier. Warming up has no
+ * effect on any later price.
+ */
+public final class PricerWarmup {
+
+    /**
+     * The default number of warm-up rounds.
+     */
+    public static final int DEFAULTROUNDS = 20_000;
+
+    private static final int BATCHSIZE = 16;
+    private static final double MINYIELD = 2;
+    private static final double YIELDRANGE = 14;
+
+    // Keeps the JIT from discarding the warm-up calculations
+    private static volatile double sink;
+
+    private PricerWarmup() {
+    }
+
+    /**
+     * Warms up the pricing hot paths on a list of snapshots.
+     *
+     * @param snapshots the snapshots to price, such as those of a
+     *                  {@link PreMarketSnapshot}
+     * @param rounds    the number of rounds
+     * @return the time taken in nanoseconds
+     * @throws IllegalArgumentException if there are no snapshots
+     */
+    public static long warmUp(final List<SettlementSnapshot> snapshots, final int rounds) {
+        if (snapshots.isEmpty()) {
+            throw new IllegalArgumentException("No snapshots to warm up on");
+        }
+        long start = System.nanoTime();
+        List<BondPricer> pricers = new ArrayList<>(snapshots.size());
+        for (SettlementSnapshot snapshot : snapshots) {
+            pricers.add(new BondPricer(new Bond("warmup", snapshot.getBondDetails()), snapshot));
+        }
+        PricingKernel kernel = PricingKernel.of(snapshots);
+        double[] yields = new double[BATCHSIZE];
+        double[] cleanPrices = new double[BATCHSIZE];
+        double[] allInPrices = new double[BATCHSIZE];
+        double[] kernelYields = new double[snapshots.size()];
+        double[] kernelCleanPrices = new double[snapshots.size()];
+        double[] kernelAllInPrices = new double[snapshots.size()];
+        PricingDetails details = new PricingDetails();
+        double total = 0;
+        for (int round = 0; round < rounds; round++) {
+            BondPricer pricer = pricers.get(round % pricers.size());
+            // Yields sweep a realistic range, so no branch is left cold
+            double yield = MINYIELD + YIELDRANGE * (round % 1000) / 1000.0;
+            double[] prices = pricer.getBondPrices(yield);
+            total += prices[0] + pricer.getAllInPrice(yield) + pricer.getCleanPrice(yield);
+            total += pricer.getYieldFromCleanPrice(prices[0]);
+            total += pricer.getRiskMeasures(yield).dv01();
+            total += pricer.getPricingDetails(yield, details).getAllInPrice();
+            for (int i = 0; i < BATCHSIZE; i++) {
+                yields[i] = yield + i / 100.0;
+            }
+            pricer.getBondPrices(yields, cleanPrices, allInPrices);
+            total += cleanPrices[BATCHSIZE - 1];
+            if (round % BATCHSIZE == 0) {
+                for (int i = 0; i < kernelYields.length; i++) {
+                    kernelYields[i] = yield + i / 100.0;
+                }
+                kernel.getBondPrices(kernelYields, kernelCleanPrices, kernelAllInPrices);
+                total += kernelAllInPrices[0];
+            }
+        }
+        sink = total;
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Prices a snapshot and checks the prices against a snapshot calculated
+     * afresh from the bond details, such as for the first price after a
+     * process starts from a {@link PreMarketSnapshot}.
+     *
+     * @param snapshot the snapshot
+     * @param yield    the yield
+     * @return the clean price at index 0 and the all-in price at index 1
+     * @throws IllegalStateException if the prices differ
+     */
+    public static double[] checkPrices(final SettlementSnapshot snapshot, final double yield) {
+        double[] prices = snapshot.getBondPrices(yield);
+        double[] expected = SettlementSnapshot.of(snapshot.getBondDetails(), snapshot.getSettlementDate())
+                .getBondPrices(yield);
+        if (prices[0] != expected[0] || prices[1] != expected[1]) {
+            throw new IllegalStateException("Snapshot prices " + prices[0] + ", " + prices[1] + " differ from "
+                    + expected[0] + ", " + expected[1] + " on " + snapshot.getSettlementDate());
+        }
+        return prices;
+    }
+}
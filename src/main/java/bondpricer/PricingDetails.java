@@ -0,0 +1,188 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code PricingDetails} class holds the intermediate values and the
+ * unrounded prices of a bond for one settlement date and yield, in typed
+ * primitive fields. An instance is mutable so that a caller can keep one
+ * and have it refilled by
+ * {@link SettlementSnapshot#getPricingDetails(double, PricingDetails)}
+ * without allocating on every call.
+ */
+public final class PricingDetails {
+
+    private LocalDate nextCouponDate;
+    private LocalDate lastCouponDate;
+    private LocalDate booksCloseDate;
+    private int numberRemainingCoupons;
+    private boolean cumexFlag;
+    private long daysAccrued;
+    private double accruedInterest;
+    private double brokenPeriod;
+    private double brokenPeriodDiscountFactor;
+    private double discountFactor;
+    private double couponPayable;
+    private double allInPrice;
+    private double cleanPrice;
+
+    void set(final SettlementSnapshot snapshot, final double discountFactor,
+            final double brokenPeriodDiscountFactor, final double allInPrice, final double cleanPrice) {
+        nextCouponDate = snapshot.getNextCouponDate();
+        lastCouponDate = snapshot.getLastCouponDate();
+        booksCloseDate = snapshot.getBooksCloseDate();
+        numberRemainingCoupons = snapshot.getNumberRemainingCoupons();
+        cumexFlag = snapshot.isCumEx();
+        daysAccrued = snapshot.getDaysAccrued();
+        accruedInterest = snapshot.getUnroundedAccruedInterest();
+        brokenPeriod = snapshot.getBrokenPeriod();
+        couponPayable = snapshot.getCouponPayable();
+        this.discountFactor = discountFactor;
+        this.brokenPeriodDiscountFactor = brokenPeriodDiscountFactor;
+        this.allInPrice = allInPrice;
+        this.cleanPrice = cleanPrice;
+    }
+
+    /**
+     * Gets the next coupon date.
+     *
+     * @return the next coupon date
+     */
+    public LocalDate getNextCouponDate() {
+        return nextCouponDate;
+    }
+
+    /**
+     * Gets the last coupon date.
+     *
+     * @return the last coupon date
+     */
+    public LocalDate getLastCouponDate() {
+        return lastCouponDate;
+    }
+
+    /**
+     * Gets the books close date.
+     *
+     * @return the books close date
+     */
+    public LocalDate getBooksCloseDate() {
+        return booksCloseDate;
+    }
+
+    /**
+     * Gets the number of remaining coupons.
+     *
+     * @return the number of remaining coupons
+     */
+    public int getNumberRemainingCoupons() {
+        return numberRemainingCoupons;
+    }
+
+    /**
+     * Gets the cum-ex flag.
+     *
+     * @return {@code true} if the bond settles cum coupon
+     */
+    public boolean isCumEx() {
+        return cumexFlag;
+    }
+
+    /**
+     * Gets the number of days of accrued interest.
+     *
+     * @return the days accrued
+     */
+    public long getDaysAccrued() {
+        return daysAccrued;
+    }
+
+    /**
+     * Gets the unrounded accrued interest.
+     *
+     * @return the accrued interest
+     */
+    public double getAccruedInterest() {
+        return accruedInterest;
+    }
+
+    /**
+     * Gets the broken period.
+     *
+     * @return the broken period
+     */
+    public double getBrokenPeriod() {
+        return brokenPeriod;
+    }
+
+    /**
+     * Gets the broken period discount factor.
+     *
+     * @return the broken period discount factor
+     */
+    public double getBrokenPeriodDiscountFactor() {
+        return brokenPeriodDiscountFactor;
+    }
+
+    /**
+     * Gets the discount factor.
+     *
+     * @return the discount factor
+     */
+    public double getDiscountFactor() {
+        return discountFactor;
+    }
+
+    /**
+     * Gets the coupon payable at the next coupon date.
+     *
+     * @return the coupon payable
+     */
+    public double getCouponPayable() {
+        return couponPayable;
+    }
+
+    /**
+     * Gets the unrounded all-in price.
+     *
+     * @return the all-in price
+     */
+    public double getAllInPrice() {
+        return allInPrice;
+    }
+
+    /**
+     * Gets the unrounded clean price.
+     *
+     * @return the clean price
+     */
+    public double getCleanPrice() {
+        return cleanPrice;
+    }
+
+    /**
+     * Gets the details in the map form returned by
+     * {@link BondPricer#getBondDetails(double)}.
+     *
+     * @return a map containing the bond details
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> bondDetails = new HashMap<>();
+        bondDetails.put("nextCouponDate", nextCouponDate);
+        bondDetails.put("lastCouponDate", lastCouponDate);
+        bondDetails.put("booksCloseDate", booksCloseDate);
+        bondDetails.put("numberRemainingCoupons", numberRemainingCoupons);
+        bondDetails.put("cumexFlag", cumexFlag);
+        bondDetails.put("daysAccrued", daysAccrued);
+        bondDetails.put("accruedInterest", accruedInterest);
+        bondDetails.put("brokenPeriod", brokenPeriod);
+        bondDetails.put("brokenPeriodDiscountFactor", brokenPeriodDiscountFactor);
+        bondDetails.put("discountFactor", discountFactor);
+        bondDetails.put("couponPayable", couponPayable);
+        bondDetails.put("allInPrice", allInPrice);
+        bondDetails.put("cleanPrice", cleanPrice);
+        return bondDetails;
+    }
+}
@@ -0,0 +1,209 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code PricingPipeline} class prices a stream of yield ticks and
+ * publishes the clean and all-in prices to its listeners.
+ * Ticks are conflated per bond: while a bond is waiting to be priced, a
+ * newer tick replaces the pending one and the stale tick is dropped. The
+ * reading side therefore never blocks, and under load the pricing thread
+ * only ever prices the latest yield of each bond. The time from receiving
+ * a tick to publishing its price is recorded in a {@link LatencyHistogram}.
+ * A listener that throws does not stop the pipeline: the failure is
+ * counted, the other listeners still receive the price, and the first
+ * failure is rethrown from {@link #run(TickSource)} once every tick is
+ * priced.
+ */
+public final class PricingPipeline {
+
+    private final Map<String, Slot> slots;
+    private final LinkedBlockingQueue<Slot> ready = new LinkedBlockingQueue<>();
+    private final List<PriceListener> listeners = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder ticksReceived = new LongAdder();
+    private final LongAdder ticksConflated = new LongAdder();
+    private final LongAdder ticksRejected = new LongAdder();
+    private final LongAdder pricesPublished = new LongAdder();
+    private final LongAdder listenerFailures = new LongAdder();
+    private final AtomicReference<RuntimeException> firstListenerFailure = new AtomicReference<>();
+
+    /**
+     * Constructs a {@code PricingPipeline} for the bonds with the given
+     * settlement snapshots. Ticks for other bonds are rejected.
+     *
+     * @param snapshots the settlement snapshot of each bond, by bond name
+     */
+    public PricingPipeline(final Map<String, SettlementSnapshot> snapshots) {
+        slots = new HashMap<>();
+        for (Map.Entry<String, SettlementSnapshot> entry : snapshots.entrySet()) {
+            slots.put(entry.getKey(), new Slot(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Adds a listener for published prices.
+     *
+     * @param listener the listener
+     */
+    public void subscribe(final PriceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener
+     */
+    public void unsubscribe(final PriceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the source on the calling thread until it is exhausted, pricing
+     * on a separate thread, and returns once every pending tick is priced.
+     * The source is closed on return.
+     *
+     * @param source the tick source
+     * @throws IOException           if the source cannot be read
+     * @throws InterruptedException  if interrupted while waiting for pricing
+     * @throws IllegalStateException if a listener failed, with the first
+     *                               failure as the cause
+     */
+    public void run(final TickSource source) throws IOException, InterruptedException {
+        Thread pricer = new Thread(this::price, "pricing-pipeline");
+        pricer.start();
+        try (source) {
+            for (YieldTick tick = source.next(); tick != null; tick = source.next()) {
+                offer(tick);
+            }
+        } finally {
+            ready.put(Slot.END);
+            pricer.join();
+        }
+        RuntimeException failure = firstListenerFailure.getAndSet(null);
+        if (failure != null) {
+            throw new IllegalStateException(getListenerFailures() + " listener calls failed", failure);
+        }
+    }
+
+    /**
+     * Offers a tick to the pipeline without blocking. If the bond already
+     * has a tick waiting to be priced, that tick is dropped.
+     *
+     * @param tick the tick
+     * @return {@code false} if the bond is not priced by this pipeline
+     */
+    public boolean offer(final YieldTick tick) {
+        ticksReceived.increment();
+        Slot slot = slots.get(tick.bondName());
+        if (slot == null) {
+            ticksRejected.increment();
+            return false;
+        }
+        if (slot.pending.getAndSet(tick) == null) {
+            ready.add(slot);
+        } else {
+            ticksConflated.increment();
+        }
+        return true;
+    }
+
+    private void price() {
+        try {
+            for (Slot slot = ready.take(); slot != Slot.END; slot = ready.take()) {
+                YieldTick tick = slot.pending.getAndSet(null);
+                double allInPrice = slot.snapshot.getAllInPrice(tick.yield());
+                double cleanPrice = SettlementSnapshot.round(slot.snapshot.calculateCleanPrice(allInPrice));
+                for (PriceListener listener : listeners) {
+                    try {
+                        listener.onPrice(slot.bondName, tick.yield(), cleanPrice, allInPrice);
+                    } catch (RuntimeException e) {
+                        listenerFailures.increment();
+                        firstListenerFailure.compareAndSet(null, e);
+                    }
+                }
+                pricesPublished.increment();
+                latency.record(System.nanoTime() - tick.timestampNanos());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the tick to price latency histogram.
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the number of ticks received.
+     *
+     * @return the ticks received
+     */
+    public long getTicksReceived() {
+        return ticksReceived.sum();
+    }
+
+    /**
+     * Gets the number of ticks dropped because a newer tick for the same bond
+     * arrived before they were priced.
+     *
+     * @return the ticks conflated
+     */
+    public long getTicksConflated() {
+        return ticksConflated.sum();
+    }
+
+    /**
+     * Gets the number of ticks for bonds the pipeline does not price.
+     *
+     * @return the ticks rejected
+     */
+    public long getTicksRejected() {
+        return ticksRejected.sum();
+    }
+
+    /**
+     * Gets the number of prices published.
+     *
+     * @return the prices published
+     */
+    public long getPricesPublished() {
+        return pricesPublished.sum();
+    }
+
+    /**
+     * Gets the number of listener calls that threw.
+     *
+     * @return the listener failures
+     */
+    public long getListenerFailures() {
+        return listenerFailures.sum();
+    }
+
+    private static final class Slot {
+
+        static final Slot END = new Slot(null, null);
+
+        private final String bondName;
+        private final SettlementSnapshot snapshot;
+        private final AtomicReference<YieldTick> pending = new AtomicReference<>();
+
+        Slot(final String bondName, final SettlementSnapshot snapshot) {
+            this.bondName = bondName;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package bondpricer;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The {@code ReferencePricer} class is a slow, exact implementation of the
+ * JSE Bond Pricing Formula, used as the reference that the fast pricing
+ * paths are checked against by {@link DifferentialHarness}.
+ * <p>
+ * The date logic is derived independently of {@link SettlementSnapshot}:
+ * the coupon dates around the settlement date are found by walking the
+ * coupon calendar, and the remaining coupons are counted rather than
+ * estimated from the days to maturity. The formula is evaluated in
+ * {@link BigDecimal} to {@value #PRECISION} significant digits, taking the
+ * yield as the exact value of its {@code double}, with the broken period
+ * power evaluated from logarithm and exponential series. Prices are
+ * rounded to 5 decimals with ties towards positive infinity, as
+ * {@link Math#round(double)} does.
+ */
+public final class ReferencePricer {
+
+    /**
+     * The number of significant digits of the unrounded values.
+     */
+    public static final int PRECISION = 40;
+
+    private static final MathContext CONTEXT = new MathContext(PRECISION + 5, RoundingMode.HALF_EVEN);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal YIELDSCALE = BigDecimal.valueOf(100L * SettlementSnapshot.FREQUENCY);
+    private static final BigDecimal HALFYEAR = BigDecimal.valueOf(SettlementSnapshot.DAYSINYEAR)
+            .divide(BigDecimal.valueOf(SettlementSnapshot.FREQUENCY));
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final BigDecimal SERIESLIMIT = BigDecimal.ONE.movePointLeft(PRECISION + 4);
+    private static final int PROUND = SettlementSnapshot.PROUND;
+    private static final BigDecimal[] RECIPROCALS = new BigDecimal[256];
+
+    static {
+        for (int k = 1; k < RECIPROCALS.length; k++) {
+            RECIPROCALS[k] = BigDecimal.ONE.divide(BigDecimal.valueOf(k), CONTEXT);
+        }
+    }
+
+    private final BondDetails bondDetails;
+    private final LocalDate settlementDate;
+    private final LocalDate nextCouponDate;
+    private final LocalDate lastCouponDate;
+    private final LocalDate booksCloseDate;
+    private final int numberRemainingCoupons;
+    private final boolean cumexFlag;
+    private final long daysAccrued;
+    private final boolean moneyMarket;
+    private final BigDecimal couponRate;
+    private final BigDecimal couponPayable;
+    private final BigDecimal brokenPeriod;
+    private final BigDecimal accruedInterest;
+
+    /**
+     * Constructs a {@code ReferencePricer} for a bond and settlement date.
+     *
+     * @param bondDetails    the bond details
+     * @param settlementDate the settlement date
+     * @throws IllegalArgumentException if the settlement date is not before
+     *                                  maturity
+     */
+    public ReferencePricer(final BondDetails bondDetails, final LocalDate settlementDate) {
+        if (!settlementDate.isBefore(bondDetails.maturityDate())) {
+            throw new IllegalArgumentException("Settlement date " + settlementDate + " is not before maturity "
+                    + bondDetails.maturityDate());
+        }
+        this.bondDetails = bondDetails;
+        this.settlementDate = settlementDate;
+
+        // The coupon dates from the year before settlement, the first one after settlement is the next coupon
+        LocalDate last = null;
+        LocalDate next = null;
+        for (int year = settlementDate.getYear() - 1; next == null; year++) {
+            for (MonthDay couponDate : new MonthDay[] { bondDetails.firstCouponDate(),
+                bondDetails.secondCouponDate() }) {
+                LocalDate date = couponDate.atYear(year);
+                if (next == null && date.isAfter(settlementDate)) {
+                    next = date;
+                } else if (next == null) {
+                    last = date;
+                }
+            }
+        }
+        nextCouponDate = next;
+        lastCouponDate = last;
+        boolean first = nextCouponDate.equals(bondDetails.firstCouponDate().atYear(nextCouponDate.getYear()));
+        booksCloseDate = (first ? bondDetails.firstBooksCloseDate() : bondDetails.secondBooksCloseDate())
+                .atYear(nextCouponDate.getYear());
+        numberRemainingCoupons = countCouponsAfter(nextCouponDate);
+        cumexFlag = settlementDate.isBefore(booksCloseDate);
+        daysAccrued = ChronoUnit.DAYS.between(cumexFlag ? lastCouponDate : nextCouponDate, settlementDate);
+        moneyMarket = nextCouponDate.equals(bondDetails.maturityDate());
+
+        couponRate = new BigDecimal(bondDetails.couponRate());
+        couponPayable = cumexFlag ? couponRate.divide(TWO) : BigDecimal.ZERO;
+        BigDecimal daysToCoupon = BigDecimal.valueOf(ChronoUnit.DAYS.between(settlementDate, nextCouponDate));
+        brokenPeriod = moneyMarket ? daysToCoupon.divide(HALFYEAR, CONTEXT)
+                : daysToCoupon.divide(BigDecimal.valueOf(ChronoUnit.DAYS.between(lastCouponDate, nextCouponDate)),
+                        CONTEXT);
+        accruedInterest = BigDecimal.valueOf(daysAccrued).multiply(couponRate)
+                .divide(BigDecimal.valueOf(SettlementSnapshot.DAYSINYEAR), CONTEXT);
+    }
+
+    /**
+     * Gets the bond details.
+     *
+     * @return the bond details
+     */
+    public BondDetails getBondDetails() {
+        return bondDetails;
+    }
+
+    /**
+     * Gets the settlement date.
+     *
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate() {
+        return settlementDate;
+    }
+
+    /**
+     * Gets the next coupon date.
+     *
+     * @return the next coupon date
+     */
+    public LocalDate getNextCouponDate() {
+        return nextCouponDate;
+    }
+
+    /**
+     * Gets the last coupon date.
+     *
+     * @return the last coupon date
+     */
+    public LocalDate getLastCouponDate() {
+        return lastCouponDate;
+    }
+
+    /**
+     * Gets the books close date of the next coupon.
+     *
+     * @return the books close date
+     */
+    public LocalDate getBooksCloseDate() {
+        return booksCloseDate;
+    }
+
+    /**
+     * Gets the number of coupons remaining after the next coupon.
+     *
+     * @return the number of remaining coupons
+     */
+    public int getNumberRemainingCoupons() {
+        return numberRemainingCoupons;
+    }
+
+    /**
+     * Gets whether the bond settles cum the next coupon.
+     *
+     * @return {@code true} if the bond settles cum coupon
+     */
+    public boolean isCumEx() {
+        return cumexFlag;
+    }
+
+    /**
+     * Gets the number of days of accrued interest, negative when the bond
+     * settles ex coupon.
+     *
+     * @return the days accrued
+     */
+    public long getDaysAccrued() {
+        return daysAccrued;
+    }
+
+    /**
+     * Gets whether the next coupon is paid at maturity.
+     *
+     * @return {@code true} in the final coupon period
+     */
+    public boolean isMoneyMarket() {
+        return moneyMarket;
+    }
+
+    /**
+     * Gets the exact broken period.
+     *
+     * @return the broken period
+     */
+    public BigDecimal getBrokenPeriod() {
+        return brokenPeriod.round(new MathContext(PRECISION));
+    }
+
+    /**
+     * Gets the exact, unrounded accrued interest.
+     *
+     * @return the accrued interest
+     */
+    public BigDecimal calculateAccruedInterest() {
+        return accruedInterest.round(new MathContext(PRECISION));
+    }
+
+    /**
+     * Gets the accrued interest, rounded to 5 decimals.
+     *
+     * @return the accrued interest
+     */
+    public BigDecimal getAccruedInterest() {
+        return round(accruedInterest);
+    }
+
+    /**
+     * Calculates the exact, unrounded all-in price for a yield.
+     *
+     * @param yield the yield
+     * @return the all-in price
+     * @throws IllegalArgumentException if the yield is not above -200
+     */
+    public BigDecimal calculateAllInPrice(final double yield) {
+        BigDecimal growth = BigDecimal.ONE.add(new BigDecimal(yield).divide(YIELDSCALE, CONTEXT));
+        if (growth.signum() <= 0) {
+            throw new IllegalArgumentException("Yield " + yield + " is not above -" + YIELDSCALE);
+        }
+        BigDecimal periodYield = growth.subtract(BigDecimal.ONE);
+        BigDecimal brokenPeriodDiscountFactor = moneyMarket
+                ? BigDecimal.ONE.divide(BigDecimal.ONE.add(brokenPeriod.multiply(periodYield, CONTEXT)), CONTEXT)
+                : exp(brokenPeriod.multiply(ln(growth), CONTEXT).negate());
+
+        // The sum of d^k for k = 1 to n is (1 - d^n) / (1 / d - 1), or n at a zero yield
+        BigDecimal power = BigDecimal.ONE.divide(growth.pow(numberRemainingCoupons, CONTEXT), CONTEXT);
+        BigDecimal annuity = periodYield.signum() == 0 ? BigDecimal.valueOf(numberRemainingCoupons)
+                : BigDecimal.ONE.subtract(power).divide(periodYield, CONTEXT);
+        BigDecimal cashFlows = couponPayable
+                .add(couponRate.divide(TWO).multiply(annuity, CONTEXT))
+                .add(HUNDRED.multiply(power, CONTEXT));
+        return brokenPeriodDiscountFactor.multiply(cashFlows, new MathContext(PRECISION));
+    }
+
+    /**
+     * Calculates the all-in price for a yield, rounded to 5 decimals.
+     *
+     * @param yield the yield
+     * @return the all-in price
+     */
+    public BigDecimal getAllInPrice(final double yield) {
+        return round(calculateAllInPrice(yield));
+    }
+
+    /**
+     * Calculates the clean price for a yield, the rounded all-in price less
+     * the unrounded accrued interest, rounded to 5 decimals.
+     *
+     * @param yield the yield
+     * @return the clean price
+     */
+    public BigDecimal getCleanPrice(final double yield) {
+        return calculateCleanPrice(getAllInPrice(yield));
+    }
+
+    /**
+     * Calculates the clean price for a rounded all-in price, rounded to 5
+     * decimals.
+     *
+     * @param allInPrice the rounded all-in price
+     * @return the clean price
+     */
+    public BigDecimal calculateCleanPrice(final BigDecimal allInPrice) {
+        return round(allInPrice.subtract(accruedInterest));
+    }
+
+    /**
+     * Rounds a value to 5 decimals, with ties towards positive infinity.
+     *
+     * @param value the value
+     * @return the rounded value
+     */
+    public static BigDecimal round(final BigDecimal value) {
+        return value.setScale(PROUND, value.signum() >= 0 ? RoundingMode.HALF_UP : RoundingMode.HALF_DOWN);
+    }
+
+    private int countCouponsAfter(final LocalDate date) {
+        int coupons = 0;
+        for (int year = date.getYear(); year <= bondDetails.maturityDate().getYear(); year++) {
+            for (MonthDay couponDate : new MonthDay[] { bondDetails.firstCouponDate(),
+                bondDetails.secondCouponDate() }) {
+                LocalDate coupon = couponDate.atYear(year);
+                if (coupon.isAfter(date) && !coupon.isAfter(bondDetails.maturityDate())) {
+                    coupons++;
+                }
+            }
+        }
+        return coupons;
+    }
+
+    // Series terms multiply by a reciprocal, much faster than a division
+    private static BigDecimal reciprocal(final int k) {
+        return k < RECIPROCALS.length ? RECIPROCALS[k] : BigDecimal.ONE.divide(BigDecimal.valueOf(k), CONTEXT);
+    }
+
+    // ln(x) = 2 atanh((x - 1) / (x + 1)), which converges quickly for x near 1
+    private static BigDecimal ln(final BigDecimal x) {
+        BigDecimal z = x.subtract(BigDecimal.ONE).divide(x.add(BigDecimal.ONE), CONTEXT);
+        BigDecimal zSquared = z.multiply(z, CONTEXT);
+        BigDecimal power = z;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int k = 1; power.abs().compareTo(SERIESLIMIT) > 0; k += 2) {
+            sum = sum.add(power.multiply(reciprocal(k), CONTEXT), CONTEXT);
+            power = power.multiply(zSquared, CONTEXT);
+        }
+        return sum.multiply(TWO, CONTEXT);
+    }
+
+    // exp(t) from its Taylor series on t / 2^n, squared n times
+    private static BigDecimal exp(final BigDecimal t) {
+        BigDecimal reduced = t;
+        int halvings = 0;
+        while (reduced.abs().compareTo(HALF) > 0) {
+            reduced = reduced.divide(TWO, CONTEXT);
+            halvings++;
+        }
+        BigDecimal term = BigDecimal.ONE;
+        BigDecimal sum = BigDecimal.ONE;
+        for (int k = 1; term.abs().compareTo(SERIESLIMIT) > 0; k++) {
+            term = term.multiply(reduced, CONTEXT).multiply(reciprocal(k), CONTEXT);
+            sum = sum.add(term, CONTEXT);
+        }
+        for (int i = 0; i < halvings; i++) {
+            sum = sum.multiply(sum, CONTEXT);
+        }
+        return sum;
+    }
+}
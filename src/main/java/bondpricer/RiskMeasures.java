@@ -0,0 +1,24 @@
+package bondpricer;
+
+/**
+ * The {@code RiskMeasures} record holds the prices of a bond together with
+ * its yield sensitivities, all evaluated at a single yield.
+ * The prices are rounded in the same way as {@link BondPricer#getBondPrices(double)},
+ * the sensitivities are calculated from the unrounded all-in price.
+ *
+ * @param allInPrice       the all-in price
+ * @param cleanPrice       the clean price
+ * @param modifiedDuration the modified duration, in years
+ * @param dv01             the fall in the all-in price for a one basis point
+ *                         rise in the yield
+ * @param convexity        the convexity, in years squared
+ */
+public record RiskMeasures(
+        double allInPrice,
+        double cleanPrice,
+        double modifiedDuration,
+        double dv01,
+        double convexity
+) {
+
+}
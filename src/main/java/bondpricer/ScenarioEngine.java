@@ -0,0 +1,147 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code ScenarioEngine} class revalues a book of positions under many
+ * yield scenarios, such as parallel shifts, historical daily changes or key
+ * tenor twists, and reports the profit and loss of each scenario.
+ * <p>
+ * A scenario is a row of yield shocks, in percentage points, one per bond.
+ * Every position in a bond is valued at that bond's base yield plus the
+ * shock; the yield of the {@link Position} itself is not used. Because the
+ * profit and loss of a position is its nominal times the price change, the
+ * positions are netted per bond and settlement date first. Each netted
+ * group is then priced for every scenario in one batch on its
+ * {@link SettlementSnapshot}, in parallel on a fork-join pool. The book size
+ * therefore only costs the netting, and the pricing cost grows with the
+ * number of groups times the number of scenarios.
+ */
+public final class ScenarioEngine {
+
+    // Scenarios priced by one task, so each task amortizes its batch arrays
+    private static final int CHUNK = 256;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a {@code ScenarioEngine} that runs on the common pool.
+     */
+    public ScenarioEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a {@code ScenarioEngine} that runs on a given pool.
+     *
+     * @param pool the fork-join pool
+     */
+    public ScenarioEngine(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Revalues the positions under every scenario.
+     *
+     * @param positions  the positions
+     * @param bondNames  the bonds shocked by the scenarios
+     * @param baseYields the base yield of each bond
+     * @param shocks     the yield shock of each bond, in percentage points,
+     *                   one row per scenario
+     * @return the profit and loss of each scenario
+     * @throws IllegalArgumentException if a position's bond has no base
+     *                                  yield, or a row of shocks does not
+     *                                  have one shock per bond
+     */
+    public ScenarioResult run(final List<Position> positions, final String[] bondNames,
+            final double[] baseYields, final double[][] shocks) {
+        if (baseYields.length != bondNames.length) {
+            throw new IllegalArgumentException("Got " + baseYields.length + " base yields for "
+                    + bondNames.length + " bonds");
+        }
+        for (int s = 0; s < shocks.length; s++) {
+            if (shocks[s].length != bondNames.length) {
+                throw new IllegalArgumentException("Scenario " + s + " has " + shocks[s].length
+                        + " shocks for " + bondNames.length + " bonds");
+            }
+        }
+        Map<String, Integer> bondIndex = new HashMap<>();
+        for (int b = 0; b < bondNames.length; b++) {
+            bondIndex.put(bondNames[b], b);
+        }
+
+        // Net the nominals of the positions in each bond and settlement date
+        Map<SettlementKey, Integer> groups = new HashMap<>();
+        List<SettlementKey> keys = new ArrayList<>();
+        List<BondDetails> groupDetails = new ArrayList<>();
+        double[] nominals = new double[positions.size()];
+        for (Position position : positions) {
+            Integer bond = bondIndex.get(position.bond().name());
+            if (bond == null) {
+                throw new IllegalArgumentException("No base yield for bond " + position.bond().name());
+            }
+            // Keyed on the bond index, not the details, as names with the same details have their own yields
+            SettlementKey key = new SettlementKey(bond, position.settlementDate());
+            Integer group = groups.get(key);
+            if (group == null) {
+                group = keys.size();
+                groups.put(key, group);
+                keys.add(key);
+                groupDetails.add(position.bond().details());
+            }
+            nominals[group] += position.nominal();
+        }
+
+        int groupCount = keys.size();
+        int scenarios = shocks.length;
+        int chunks = (scenarios + CHUNK - 1) / CHUNK;
+        SettlementSnapshot[] snapshots = new SettlementSnapshot[groupCount];
+        double[] baseValues = new double[groupCount];
+        double[][] groupPnl = new double[groupCount][scenarios];
+        pool.submit(() -> {
+            IntStream.range(0, groupCount).parallel().forEach(g -> {
+                snapshots[g] = SettlementSnapshot.of(groupDetails.get(g), keys.get(g).settlementDate());
+                baseValues[g] = nominals[g] * snapshots[g].getAllInPrice(baseYields[keys.get(g).bondIndex()]) / 100;
+            });
+            IntStream.range(0, groupCount * chunks).parallel().forEach(task -> {
+                int g = task / chunks;
+                int bond = keys.get(g).bondIndex();
+                int from = (task % chunks) * CHUNK;
+                int to = Math.min(scenarios, from + CHUNK);
+                double[] yields = new double[to - from];
+                for (int s = from; s < to; s++) {
+                    yields[s - from] = baseYields[bond] + shocks[s][bond];
+                }
+                double[] cleanPrices = new double[yields.length];
+                double[] allInPrices = new double[yields.length];
+                snapshots[g].getBondPrices(yields, cleanPrices, allInPrices);
+                for (int s = from; s < to; s++) {
+                    groupPnl[g][s] = nominals[g] * allInPrices[s - from] / 100 - baseValues[g];
+                }
+            });
+        }).join();
+
+        // Summed in group order so the results do not depend on the thread count
+        double[][] bondPnl = new double[bondNames.length][scenarios];
+        double[] pnl = new double[scenarios];
+        double baseValue = 0;
+        for (int g = 0; g < groupCount; g++) {
+            double[] bondRow = bondPnl[keys.get(g).bondIndex()];
+            for (int s = 0; s < scenarios; s++) {
+                bondRow[s] += groupPnl[g][s];
+                pnl[s] += groupPnl[g][s];
+            }
+            baseValue += baseValues[g];
+        }
+        return new ScenarioResult(bondNames.clone(), baseValue, pnl, bondPnl, groupCount);
+    }
+
+    private record SettlementKey(int bondIndex, LocalDate settlementDate) {
+    }
+}
@@ -0,0 +1,141 @@
+package bondpricer;
+
+import java.util.Arrays;
+
+/**
+ * The {@code ScenarioResult} class holds the result of revaluing a book with
+ * a {@link ScenarioEngine}: the profit and loss of the book, and of each
+ * bond, in every scenario, in the order of the scenarios.
+ * Values are in the currency of the nominal. Value at risk and expected
+ * shortfall are reported as positive losses from the historical
+ * distribution of the scenarios.
+ */
+public final class ScenarioResult {
+
+    private final String[] bondNames;
+    private final double baseValue;
+    private final double[] pnl;
+    private final double[][] bondPnl;
+    private final int settlementGroups;
+    private final double[] sortedPnl;
+
+    ScenarioResult(final String[] bondNames, final double baseValue, final double[] pnl,
+            final double[][] bondPnl, final int settlementGroups) {
+        this.bondNames = bondNames;
+        this.baseValue = baseValue;
+        this.pnl = pnl;
+        this.bondPnl = bondPnl;
+        this.settlementGroups = settlementGroups;
+        sortedPnl = pnl.clone();
+        Arrays.sort(sortedPnl);
+    }
+
+    /**
+     * Gets the number of scenarios.
+     *
+     * @return the number of scenarios
+     */
+    public int size() {
+        return pnl.length;
+    }
+
+    /**
+     * Gets the number of distinct bond and settlement date pairs the
+     * positions were netted into.
+     *
+     * @return the number of settlement groups
+     */
+    public int getSettlementGroups() {
+        return settlementGroups;
+    }
+
+    /**
+     * Gets the all-in value of the book at the base yields.
+     *
+     * @return the base value
+     */
+    public double getBaseValue() {
+        return baseValue;
+    }
+
+    /**
+     * Gets the profit and loss of the book in a scenario.
+     *
+     * @param scenario the scenario index
+     * @return the profit and loss
+     */
+    public double getPnl(final int scenario) {
+        return pnl[scenario];
+    }
+
+    /**
+     * Gets the profit and loss of the book in every scenario.
+     *
+     * @return a copy of the profit and loss vector
+     */
+    public double[] getPnl() {
+        return pnl.clone();
+    }
+
+    /**
+     * Gets the profit and loss of the positions in one bond in every
+     * scenario.
+     *
+     * @param bondName the bond name
+     * @return a copy of the profit and loss vector
+     * @throws IllegalArgumentException if the bond was not shocked
+     */
+    public double[] getBondPnl(final String bondName) {
+        for (int b = 0; b < bondNames.length; b++) {
+            if (bondNames[b].equals(bondName)) {
+                return bondPnl[b].clone();
+            }
+        }
+        throw new IllegalArgumentException("Bond " + bondName + " was not shocked");
+    }
+
+    /**
+     * Gets the value at risk: the loss exceeded in no more than
+     * {@code 1 - confidence} of the scenarios, taken as the
+     * {@code ceil(size * (1 - confidence))}-th worst profit and loss.
+     *
+     * @param confidence the confidence level, such as 0.99
+     * @return the value at risk, positive for a loss
+     * @throws IllegalArgumentException if the confidence is not strictly
+     *                                  between 0 and 1, or there are no
+     *                                  scenarios
+     */
+    public double getValueAtRisk(final double confidence) {
+        return -sortedPnl[tailSize(confidence) - 1];
+    }
+
+    /**
+     * Gets the expected shortfall: the average loss of the scenarios beyond
+     * the value at risk, including the value at risk scenario itself.
+     *
+     * @param confidence the confidence level, such as 0.975
+     * @return the expected shortfall, positive for a loss
+     * @throws IllegalArgumentException if the confidence is not strictly
+     *                                  between 0 and 1, or there are no
+     *                                  scenarios
+     */
+    public double getExpectedShortfall(final double confidence) {
+        int tail = tailSize(confidence);
+        double sum = 0;
+        for (int i = 0; i < tail; i++) {
+            sum += sortedPnl[i];
+        }
+        return -sum / tail;
+    }
+
+    private int tailSize(final double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be between 0 and 1: " + confidence);
+        }
+        if (pnl.length == 0) {
+            throw new IllegalArgumentException("No scenarios");
+        }
+        // The product can land just above a whole number, 1000 * (1 - 0.99) is 10.000000000000009
+        return Math.max(1, (int) Math.ceil(pnl.length * (1 - confidence) - 1e-9));
+    }
+}
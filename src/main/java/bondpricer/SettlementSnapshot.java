@@ -0,0 +1,581 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The {@code SettlementSnapshot} class holds the settlement date dependent
+ * values of a bond, calculated once from its {@link BondDetails}.
+ * The snapshot is immutable and its yield dependent methods are pure
+ * functions of the snapshot and the yield, so any number of threads can
+ * price the same bond and settlement date concurrently.
+ */
+public final class SettlementSnapshot {
+
+    static final int FREQUENCY = 2;
+    static final int DAYSINYEAR = 365;
+    static final double AVERAGEDAYSINYEAR = 365.25;
+    static final int PROUND = 5;
+    static final double SCALE = Math.pow(10, PROUND);
+
+    /**
+     * The default tolerance on the yield at which the yield solver stops.
+     */
+    public static final double DEFAULTYIELDTOLERANCE = 1e-10;
+
+    private static final int MAXSOLVERITERATIONS = 200;
+    private static final double MINYIELD = -50;
+    private static final double MAXYIELD = 1000;
+
+    private final BondDetails bondDetails;
+    private final double basicCouponAmount;
+    private final LocalDate settlementDate;
+    private final LocalDate nextCouponDate;
+    private final LocalDate booksCloseDate;
+    private final LocalDate lastCouponDate;
+    private final int numberRemainingCoupons;
+    private final boolean cumexFlag;
+    private final long daysAccrued;
+    private final double couponPayable;
+    private final double accruedInterest;
+    private final boolean moneyMarket;
+    private final double brokenPeriod;
+
+    private SettlementSnapshot(final BondDetails bondDetails, final LocalDate settlementDate) {
+        this.bondDetails = bondDetails;
+        this.settlementDate = settlementDate;
+        basicCouponAmount = bondDetails.couponRate() / FREQUENCY;
+        nextCouponDate = calculateNextCouponDate();
+        booksCloseDate = calculateBooksCloseDate();
+        lastCouponDate = calculateLastCouponDate();
+        numberRemainingCoupons = calculateRemainingCoupons();
+        cumexFlag = settlementDate.isBefore(booksCloseDate);
+        daysAccrued = calculateDaysAccrued();
+        couponPayable = cumexFlag ? basicCouponAmount : 0;
+        accruedInterest = daysAccrued * bondDetails.couponRate() / DAYSINYEAR;
+        moneyMarket = nextCouponDate.isEqual(bondDetails.maturityDate());
+        brokenPeriod = calculateBrokenPeriod();
+    }
+
+    SettlementSnapshot(final BondDetails bondDetails, final LocalDate settlementDate,
+            final LocalDate nextCouponDate, final LocalDate lastCouponDate, final LocalDate booksCloseDate,
+            final int numberRemainingCoupons, final long daysAccrued, final double accruedInterest,
+            final double brokenPeriod) {
+        this.bondDetails = bondDetails;
+        this.settlementDate = settlementDate;
+        this.nextCouponDate = nextCouponDate;
+        this.lastCouponDate = lastCouponDate;
+        this.booksCloseDate = booksCloseDate;
+        this.numberRemainingCoupons = numberRemainingCoupons;
+        this.daysAccrued = daysAccrued;
+        this.accruedInterest = accruedInterest;
+        this.brokenPeriod = brokenPeriod;
+        basicCouponAmount = bondDetails.couponRate() / FREQUENCY;
+        cumexFlag = settlementDate.isBefore(booksCloseDate);
+        couponPayable = cumexFlag ? basicCouponAmount : 0;
+        moneyMarket = nextCouponDate.isEqual(bondDetails.maturityDate());
+    }
+
+    /**
+     * Calculates the settlement snapshot of a bond for a settlement date.
+     *
+     * @param bondDetails    the bond details
+     * @param settlementDate the settlement date
+     * @return the settlement snapshot
+     */
+    public static SettlementSnapshot of(final BondDetails bondDetails, final LocalDate settlementDate) {
+        return new SettlementSnapshot(bondDetails, settlementDate);
+    }
+
+    /**
+     * Gets the bond details the snapshot was calculated from.
+     *
+     * @return the bond details
+     */
+    public BondDetails getBondDetails() {
+        return bondDetails;
+    }
+
+    /**
+     * Gets the settlement date.
+     *
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate() {
+        return settlementDate;
+    }
+
+    /**
+     * Gets the next coupon date.
+     *
+     * @return the next coupon date
+     */
+    public LocalDate getNextCouponDate() {
+        return nextCouponDate;
+    }
+
+    /**
+     * Gets the last coupon date.
+     *
+     * @return the last coupon date
+     */
+    public LocalDate getLastCouponDate() {
+        return lastCouponDate;
+    }
+
+    /**
+     * Gets the books close date of the next coupon.
+     *
+     * @return the books close date
+     */
+    public LocalDate getBooksCloseDate() {
+        return booksCloseDate;
+    }
+
+    /**
+     * Gets the number of coupons remaining after the next coupon.
+     *
+     * @return the number of remaining coupons
+     */
+    public int getNumberRemainingCoupons() {
+        return numberRemainingCoupons;
+    }
+
+    /**
+     * Gets whether the bond settles cum the next coupon.
+     *
+     * @return {@code true} if the bond settles cum coupon
+     */
+    public boolean isCumEx() {
+        return cumexFlag;
+    }
+
+    /**
+     * Gets the number of days of accrued interest, negative when the bond
+     * settles ex coupon.
+     *
+     * @return the days accrued
+     */
+    public long getDaysAccrued() {
+        return daysAccrued;
+    }
+
+    /**
+     * Gets the coupon payable to the buyer at the next coupon date.
+     *
+     * @return the coupon payable
+     */
+    public double getCouponPayable() {
+        return couponPayable;
+    }
+
+    /**
+     * Gets the broken period, the fraction of the coupon period between the
+     * settlement date and the next coupon date.
+     *
+     * @return the broken period
+     */
+    public double getBrokenPeriod() {
+        return brokenPeriod;
+    }
+
+    /**
+     * Gets whether the next coupon is paid at maturity, in which case the
+     * bond is discounted as a money market instrument.
+     *
+     * @return {@code true} in the final coupon period
+     */
+    public boolean isMoneyMarket() {
+        return moneyMarket;
+    }
+
+    /**
+     * Gets the accrued interest.
+     *
+     * @return the accrued interest
+     */
+    public double getAccruedInterest() {
+        return round(accruedInterest);
+    }
+
+    /**
+     * Calculates the all-in price (dirty price) of the bond for the specified
+     * yield.
+     *
+     * @param yield the yield
+     * @return the all-in price
+     */
+    public double getAllInPrice(final double yield) {
+        return round(calculateAllInPrice(yield));
+    }
+
+    /**
+     * Calculates the clean price of the bond for the specified yield.
+     *
+     * @param yield the yield
+     * @return the clean price
+     */
+    public double getCleanPrice(final double yield) {
+        return round(calculateCleanPrice(getAllInPrice(yield)));
+    }
+
+    /**
+     * Gets the clean and dirty prices of the bond for the specified yield.
+     *
+     * @param yield the yield
+     * @return an array containing the clean price at index 0 and the
+     *         dirty price at index 1
+     */
+    public double[] getBondPrices(final double yield) {
+        double allInPrice = round(calculateAllInPrice(yield));
+        double cleanPrice = round(calculateCleanPrice(allInPrice));
+        return new double[] { cleanPrice, allInPrice };
+    }
+
+    /**
+     * Gets the clean and dirty prices of the bond for a batch of yields
+     * without allocating, the results are identical to calling
+     * {@link #getBondPrices(double)} for each yield.
+     *
+     * @param yields      the yields
+     * @param cleanPrices receives the clean price of each yield
+     * @param allInPrices receives the all-in price of each yield
+     * @throws IllegalArgumentException if an output array is shorter than
+     *                                  the yields
+     */
+    public void getBondPrices(final double[] yields, final double[] cleanPrices,
+            final double[] allInPrices) {
+        if (cleanPrices.length < yields.length || allInPrices.length < yields.length) {
+            throw new IllegalArgumentException("Output arrays must hold " + yields.length + " prices");
+        }
+        for (int i = 0; i < yields.length; i++) {
+            double allInPrice = round(calculateAllInPrice(yields[i]));
+            allInPrices[i] = allInPrice;
+            cleanPrices[i] = round(calculateCleanPrice(allInPrice));
+        }
+    }
+
+    /**
+     * Calculates the prices of the bond together with its modified duration,
+     * DV01 and convexity for the specified yield. The sensitivities are the
+     * analytic derivatives of the pricing formula, so no bumped prices are
+     * calculated.
+     *
+     * @param yield the yield
+     * @return the prices and risk measures
+     */
+    public RiskMeasures getRiskMeasures(final double yield) {
+        double discountFactor = calculateDiscountFactor(yield);
+        double discountFactorPower = Math.pow(discountFactor, numberRemainingCoupons);
+        double cashFlows = couponPayable
+                + basicCouponAmount * calculateAnnuity(discountFactor, discountFactorPower)
+                + 100 * discountFactorPower;
+        double cashFlowsSlope = basicCouponAmount * calculateAnnuitySlope(discountFactor, discountFactorPower)
+                + 100 * numberRemainingCoupons * discountFactorPower / discountFactor;
+        double cashFlowsCurvature = basicCouponAmount
+                * calculateAnnuityCurvature(discountFactor, discountFactorPower)
+                + 100 * numberRemainingCoupons * (numberRemainingCoupons - 1) * discountFactorPower
+                        / (discountFactor * discountFactor);
+        double brokenPeriodDiscountFactor = calculateBrokenPeriodDiscountFactor(discountFactor);
+        double brokenPeriodDiscountFactorSlope = calculateBrokenPeriodDiscountFactorSlope(discountFactor,
+                brokenPeriodDiscountFactor);
+        double brokenPeriodDiscountFactorCurvature = calculateBrokenPeriodDiscountFactorCurvature(
+                discountFactor, brokenPeriodDiscountFactor);
+
+        // Derivatives with respect to the discount factor, then the yield
+        double price = brokenPeriodDiscountFactor * cashFlows;
+        double priceSlope = brokenPeriodDiscountFactorSlope * cashFlows
+                + brokenPeriodDiscountFactor * cashFlowsSlope;
+        double priceCurvature = brokenPeriodDiscountFactorCurvature * cashFlows
+                + 2 * brokenPeriodDiscountFactorSlope * cashFlowsSlope
+                + brokenPeriodDiscountFactor * cashFlowsCurvature;
+        double discountFactorSlope = calculateDiscountFactorSlope(discountFactor);
+        double discountFactorCurvature = -2 * discountFactorSlope * discountFactor / (100 * FREQUENCY);
+        double yieldSlope = priceSlope * discountFactorSlope;
+        double yieldCurvature = priceCurvature * discountFactorSlope * discountFactorSlope
+                + priceSlope * discountFactorCurvature;
+
+        double allInPrice = round(price);
+        double cleanPrice = round(calculateCleanPrice(allInPrice));
+        // Yields are quoted in percent, the measures are per unit of yield
+        return new RiskMeasures(allInPrice,
+                cleanPrice,
+                -100 * yieldSlope / price,
+                -yieldSlope / 100,
+                10000 * yieldCurvature / price);
+    }
+
+    /**
+     * Calculates the intermediate values and unrounded prices of the bond for
+     * the specified yield.
+     *
+     * @param yield the yield
+     * @return the pricing details
+     */
+    public PricingDetails getPricingDetails(final double yield) {
+        return getPricingDetails(yield, new PricingDetails());
+    }
+
+    /**
+     * Calculates the intermediate values and unrounded prices of the bond for
+     * the specified yield into a caller owned instance, without allocating.
+     *
+     * @param yield   the yield
+     * @param details the instance to fill
+     * @return the filled instance
+     */
+    public PricingDetails getPricingDetails(final double yield, final PricingDetails details) {
+        double discountFactor = calculateDiscountFactor(yield);
+        double brokenPeriodDiscountFactor = calculateBrokenPeriodDiscountFactor(discountFactor);
+        double allInPrice = calculateAllInPrice(discountFactor, brokenPeriodDiscountFactor);
+        details.set(this, discountFactor, brokenPeriodDiscountFactor, allInPrice, calculateCleanPrice(allInPrice));
+        return details;
+    }
+
+    /**
+     * Solves for the yield at which the bond has the specified all-in price.
+     * Uses Newton's method on the analytic slope of the pricing formula,
+     * falling back to bisection whenever a step leaves the bracket.
+     *
+     * @param allInPrice the all-in price
+     * @param tolerance  the tolerance on the yield at which the solver stops
+     * @return the yield, or {@code NaN} if no yield reproduces the price
+     */
+    public double getYield(final double allInPrice, final double tolerance) {
+        return solveYield(allInPrice, bondDetails.couponRate(), tolerance, null);
+    }
+
+    /**
+     * Solves for the yield at which the bond has the specified clean price.
+     *
+     * @param cleanPrice the clean price
+     * @param tolerance  the tolerance on the yield at which the solver stops
+     * @return the yield, or {@code NaN} if no yield reproduces the price
+     */
+    public double getYieldFromCleanPrice(final double cleanPrice, final double tolerance) {
+        return getYield(cleanPrice + accruedInterest, tolerance);
+    }
+
+    /**
+     * Solves for the yields of a batch of all-in prices. Each solve starts
+     * from the previous solution, so sorted or clustered prices converge in
+     * very few iterations.
+     *
+     * @param allInPrices the all-in prices
+     * @param yields      receives the yield of each price
+     * @param tolerance   the tolerance on the yield at which the solver stops
+     * @throws IllegalArgumentException if the output array is shorter than
+     *                                  the prices
+     */
+    public void getYields(final double[] allInPrices, final double[] yields, final double tolerance) {
+        solveYields(allInPrices, 0, yields, tolerance, null);
+    }
+
+    /**
+     * Solves for the yields of a batch of clean prices.
+     *
+     * @param cleanPrices the clean prices
+     * @param yields      receives the yield of each price
+     * @param tolerance   the tolerance on the yield at which the solver stops
+     * @throws IllegalArgumentException if the output array is shorter than
+     *                                  the prices
+     */
+    public void getYieldsFromCleanPrices(final double[] cleanPrices, final double[] yields,
+            final double tolerance) {
+        solveYields(cleanPrices, accruedInterest, yields, tolerance, null);
+    }
+
+    double getUnroundedAccruedInterest() {
+        return accruedInterest;
+    }
+
+    void solveYields(final double[] prices, final double accrued, final double[] yields,
+            final double tolerance, final int[] iterations) {
+        if (yields.length < prices.length) {
+            throw new IllegalArgumentException("Output array must hold " + prices.length + " yields");
+        }
+        double guess = bondDetails.couponRate();
+        for (int i = 0; i < prices.length; i++) {
+            double yield = solveYield(prices[i] + accrued, guess, tolerance, iterations);
+            yields[i] = yield;
+            if (!Double.isNaN(yield)) {
+                guess = yield;
+            }
+        }
+    }
+
+    double solveYield(final double allInPrice, final double guess, final double tolerance,
+            final int[] iterations) {
+        double low = MINYIELD;
+        double high = MAXYIELD;
+        double yield = guess;
+        for (int i = 1; i <= MAXSOLVERITERATIONS; i++) {
+            if (iterations != null) {
+                iterations[0]++;
+            }
+            double discountFactor = calculateDiscountFactor(yield);
+            double discountFactorPower = Math.pow(discountFactor, numberRemainingCoupons);
+            double annuity = calculateAnnuity(discountFactor, discountFactorPower);
+            double cashFlows = couponPayable + basicCouponAmount * annuity + 100 * discountFactorPower;
+            double brokenPeriodDiscountFactor = calculateBrokenPeriodDiscountFactor(discountFactor);
+            double error = brokenPeriodDiscountFactor * cashFlows - allInPrice;
+            if (error == 0) {
+                return yield;
+            }
+
+            // The price falls as the yield rises, so the error narrows the bracket
+            if (error > 0) {
+                low = yield;
+            } else {
+                high = yield;
+            }
+            double slope = (calculateBrokenPeriodDiscountFactorSlope(discountFactor, brokenPeriodDiscountFactor)
+                    * cashFlows
+                    + brokenPeriodDiscountFactor * (basicCouponAmount
+                            * calculateAnnuitySlope(discountFactor, discountFactorPower)
+                            + 100 * numberRemainingCoupons * discountFactorPower / discountFactor))
+                    * calculateDiscountFactorSlope(discountFactor);
+            double next = yield - error / slope;
+            if (!(next > low && next < high)) {
+                next = low + (high - low) / 2;
+            }
+            if (Math.abs(next - yield) <= tolerance) {
+                // Converging onto the edge of the bracket means the price is unreachable
+                return next - MINYIELD > tolerance && MAXYIELD - next > tolerance ? next : Double.NaN;
+            }
+            yield = next;
+        }
+        return Double.NaN;
+    }
+
+    double calculateCleanPrice(final double allInPrice) {
+        return allInPrice - accruedInterest;
+    }
+
+    double calculateAllInPrice(final double yield) {
+        double discountFactor = calculateDiscountFactor(yield);
+        return calculateAllInPrice(discountFactor, calculateBrokenPeriodDiscountFactor(discountFactor));
+    }
+
+    double calculateAllInPrice(final double discountFactor, final double brokenPeriodDiscountFactor) {
+        return calculateAllInPrice(discountFactor, brokenPeriodDiscountFactor, couponPayable, basicCouponAmount,
+                numberRemainingCoupons);
+    }
+
+    double calculateBrokenPeriodDiscountFactor(final double discountFactor) {
+        return calculateBrokenPeriodDiscountFactor(discountFactor, brokenPeriod, moneyMarket);
+    }
+
+    static double calculateAllInPrice(final double discountFactor, final double brokenPeriodDiscountFactor,
+            final double couponPayable, final double basicCouponAmount, final int numberRemainingCoupons) {
+        return brokenPeriodDiscountFactor * (couponPayable
+                + basicCouponAmount * (discountFactor
+                        * (1 - Math.pow(discountFactor, numberRemainingCoupons))
+                        / (1 - discountFactor))
+                + 100 * Math.pow(discountFactor, numberRemainingCoupons));
+    }
+
+    static double calculateDiscountFactor(final double yield) {
+        return 1 / (1 + yield / (100 * FREQUENCY));
+    }
+
+    static double calculateBrokenPeriodDiscountFactor(final double discountFactor, final double brokenPeriod,
+            final boolean moneyMarket) {
+        return (!moneyMarket) ? Math.pow(discountFactor, brokenPeriod)
+                : discountFactor / (discountFactor + brokenPeriod * (1 - discountFactor));
+    }
+
+    static double calculateBrokenPeriod(final long settlementDay, final long nextCouponDay,
+            final long lastCouponDay, final boolean moneyMarket) {
+        return (!moneyMarket)
+                ? (double) (nextCouponDay - settlementDay) / (nextCouponDay - lastCouponDay)
+                : (nextCouponDay - settlementDay) / ((double) DAYSINYEAR / FREQUENCY);
+    }
+
+    static double round(final double value) {
+        return Math.round(value * SCALE) / SCALE;
+    }
+
+    private double calculateAnnuity(final double discountFactor, final double discountFactorPower) {
+        return discountFactor == 1 ? numberRemainingCoupons
+                : discountFactor * (1 - discountFactorPower) / (1 - discountFactor);
+    }
+
+    private double calculateAnnuitySlope(final double discountFactor, final double discountFactorPower) {
+        if (discountFactor == 1) {
+            return numberRemainingCoupons * (numberRemainingCoupons + 1) / 2.0;
+        }
+        double oneMinusDiscountFactor = 1 - discountFactor;
+        return (1 - (numberRemainingCoupons + 1) * discountFactorPower) / oneMinusDiscountFactor
+                + discountFactor * (1 - discountFactorPower) / (oneMinusDiscountFactor * oneMinusDiscountFactor);
+    }
+
+    private double calculateAnnuityCurvature(final double discountFactor, final double discountFactorPower) {
+        if (discountFactor == 1) {
+            return (numberRemainingCoupons - 1) * numberRemainingCoupons * (numberRemainingCoupons + 1) / 3.0;
+        }
+        double oneMinusDiscountFactor = 1 - discountFactor;
+        return (-(numberRemainingCoupons + 1) * numberRemainingCoupons * discountFactorPower / discountFactor
+                + 2 * calculateAnnuitySlope(discountFactor, discountFactorPower)) / oneMinusDiscountFactor;
+    }
+
+    private double calculateDiscountFactorSlope(final double discountFactor) {
+        return -discountFactor * discountFactor / (100 * FREQUENCY);
+    }
+
+    private double calculateBrokenPeriodDiscountFactorSlope(final double discountFactor,
+            final double brokenPeriodDiscountFactor) {
+        if (!moneyMarket) {
+            return brokenPeriod * brokenPeriodDiscountFactor / discountFactor;
+        }
+        double denominator = discountFactor + brokenPeriod * (1 - discountFactor);
+        return brokenPeriod / (denominator * denominator);
+    }
+
+    private double calculateBrokenPeriodDiscountFactorCurvature(final double discountFactor,
+            final double brokenPeriodDiscountFactor) {
+        if (!moneyMarket) {
+            return brokenPeriod * (brokenPeriod - 1) * brokenPeriodDiscountFactor
+                    / (discountFactor * discountFactor);
+        }
+        double denominator = discountFactor + brokenPeriod * (1 - discountFactor);
+        return -2 * brokenPeriod * (1 - brokenPeriod) / (denominator * denominator * denominator);
+    }
+
+    private LocalDate calculateNextCouponDate() {
+        int year = settlementDate.getYear();
+        return (settlementDate.isBefore(
+                bondDetails.firstCouponDate().atYear(year)))
+                        ? bondDetails.firstCouponDate().atYear(year)
+                        : (settlementDate.isBefore(bondDetails.secondCouponDate().atYear(year)))
+                                ? bondDetails.secondCouponDate().atYear(year)
+                                : bondDetails.firstCouponDate().atYear(year + 1);
+    }
+
+    private LocalDate calculateLastCouponDate() {
+        return (nextCouponDate.equals(bondDetails.firstCouponDate().atYear(nextCouponDate.getYear())))
+                ? bondDetails.secondCouponDate().atYear(nextCouponDate.getYear() - 1)
+                : bondDetails.firstCouponDate().atYear(nextCouponDate.getYear());
+    }
+
+    private LocalDate calculateBooksCloseDate() {
+        return (nextCouponDate.equals(bondDetails.firstCouponDate().atYear(nextCouponDate.getYear()))
+                ? bondDetails.firstBooksCloseDate().atYear(nextCouponDate.getYear())
+                : bondDetails.secondBooksCloseDate().atYear(nextCouponDate.getYear()));
+    }
+
+    private int calculateRemainingCoupons() {
+        long daysBetween = ChronoUnit.DAYS.between(nextCouponDate, bondDetails.maturityDate());
+        return (int) Math.round(daysBetween / (AVERAGEDAYSINYEAR / FREQUENCY));
+    }
+
+    private long calculateDaysAccrued() {
+        return cumexFlag ? ChronoUnit.DAYS.between(lastCouponDate, settlementDate)
+                : ChronoUnit.DAYS.between(nextCouponDate, settlementDate);
+    }
+
+    private double calculateBrokenPeriod() {
+        return calculateBrokenPeriod(settlementDate.toEpochDay(), nextCouponDate.toEpochDay(),
+                lastCouponDate.toEpochDay(), moneyMarket);
+    }
+}
@@ -0,0 +1,213 @@
+package bondpricer;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code SettlementTable} class precomputes the settlement date
+ * dependent values of a bond for every day from a start date up to the
+ * day before maturity. The values are held in primitive arrays indexed by epoch day,
+ * so moving to any settlement date in the range is an array lookup instead
+ * of a coupon date calculation. A table for a 30 year bond takes a few
+ * hundred kilobytes.
+ */
+public final class SettlementTable {
+
+    private final CouponSchedule schedule;
+    private final long firstDay;
+    private final long lastDay;
+    private final short[] nextCouponIndex;
+    private final short[] daysAccrued;
+    private final boolean[] cumexFlag;
+    private final double[] accruedInterest;
+    private final double[] brokenPeriod;
+
+    private SettlementTable(final BondDetails bondDetails, final LocalDate firstDate) {
+        schedule = new CouponSchedule(bondDetails, firstDate);
+        firstDay = firstDate.toEpochDay();
+        long maturityDay = bondDetails.maturityDate().toEpochDay();
+        lastDay = maturityDay - 1;
+        int days = (int) (lastDay - firstDay + 1);
+        nextCouponIndex = new short[days];
+        daysAccrued = new short[days];
+        cumexFlag = new boolean[days];
+        accruedInterest = new double[days];
+        brokenPeriod = new double[days];
+
+        int next = schedule.indexOfNextCoupon(firstDay);
+        for (int i = 0; i < days; i++) {
+            long day = firstDay + i;
+            // Coupons are paid in date order, so the next coupon only moves forward
+            if (schedule.getCouponDay(next) <= day) {
+                next++;
+            }
+            long nextCouponDay = schedule.getCouponDay(next);
+            long lastCouponDay = schedule.getCouponDay(next - 1);
+            boolean cumex = day < schedule.getBooksCloseDay(next);
+            long accrued = cumex ? day - lastCouponDay : day - nextCouponDay;
+            nextCouponIndex[i] = (short) next;
+            daysAccrued[i] = (short) accrued;
+            cumexFlag[i] = cumex;
+            accruedInterest[i] = accrued * bondDetails.couponRate() / SettlementSnapshot.DAYSINYEAR;
+            brokenPeriod[i] = SettlementSnapshot.calculateBrokenPeriod(day, nextCouponDay, lastCouponDay,
+                    nextCouponDay == maturityDay);
+        }
+    }
+
+    /**
+     * Builds the settlement table of a bond for every day from a start date
+     * up to the day before maturity.
+     *
+     * @param bondDetails the bond details
+     * @param firstDate   the first settlement date in the table
+     * @return the settlement table
+     * @throws IllegalArgumentException if the first date is not before maturity
+     */
+    public static SettlementTable build(final BondDetails bondDetails, final LocalDate firstDate) {
+        if (!firstDate.isBefore(bondDetails.maturityDate())) {
+            throw new IllegalArgumentException("First date " + firstDate + " is not before maturity "
+                    + bondDetails.maturityDate());
+        }
+        return new SettlementTable(bondDetails, firstDate);
+    }
+
+    /**
+     * Gets the bond details the table was built from.
+     *
+     * @return the bond details
+     */
+    public BondDetails getBondDetails() {
+        return schedule.getBondDetails();
+    }
+
+    /**
+     * Gets the first settlement date in the table.
+     *
+     * @return the first date
+     */
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    /**
+     * Gets the last settlement date in the table, the day before maturity.
+     *
+     * @return the last date
+     */
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(lastDay);
+    }
+
+    /**
+     * Checks whether a settlement date is in the table.
+     *
+     * @param settlementDate the settlement date
+     * @return {@code true} if the table holds the settlement date
+     */
+    public boolean contains(final LocalDate settlementDate) {
+        long day = settlementDate.toEpochDay();
+        return day >= firstDay && day <= lastDay;
+    }
+
+    /**
+     * Gets the next coupon date for a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the next coupon date
+     */
+    public LocalDate getNextCouponDate(final LocalDate settlementDate) {
+        return schedule.getCouponDate(nextCouponIndex[indexOf(settlementDate)]);
+    }
+
+    /**
+     * Gets the last coupon date for a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the last coupon date
+     */
+    public LocalDate getLastCouponDate(final LocalDate settlementDate) {
+        return schedule.getCouponDate(nextCouponIndex[indexOf(settlementDate)] - 1);
+    }
+
+    /**
+     * Gets the books close date of the next coupon for a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the books close date
+     */
+    public LocalDate getBooksCloseDate(final LocalDate settlementDate) {
+        return schedule.getBooksCloseDate(nextCouponIndex[indexOf(settlementDate)]);
+    }
+
+    /**
+     * Gets the number of coupons remaining after the next coupon for a
+     * settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the number of remaining coupons
+     */
+    public int getNumberRemainingCoupons(final LocalDate settlementDate) {
+        return schedule.getRemainingCoupons(nextCouponIndex[indexOf(settlementDate)]);
+    }
+
+    /**
+     * Gets whether the bond settles cum the next coupon on a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return {@code true} if the bond settles cum coupon
+     */
+    public boolean isCumEx(final LocalDate settlementDate) {
+        return cumexFlag[indexOf(settlementDate)];
+    }
+
+    /**
+     * Gets the number of days of accrued interest for a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the days accrued
+     */
+    public long getDaysAccrued(final LocalDate settlementDate) {
+        return daysAccrued[indexOf(settlementDate)];
+    }
+
+    /**
+     * Gets the unrounded accrued interest for a settlement date.
+     *
+     * @param settlementDate the settlement date
+     * @return the accrued interest
+     */
+    public double getAccruedInterest(final LocalDate settlementDate) {
+        return accruedInterest[indexOf(settlementDate)];
+    }
+
+    /**
+     * Gets the settlement snapshot for a settlement date from the table.
+     * The snapshot is identical to
+     * {@link SettlementSnapshot#of(BondDetails, LocalDate)}.
+     *
+     * @param settlementDate the settlement date
+     * @return the settlement snapshot
+     * @throws IllegalArgumentException if the date is not in the table
+     */
+    public SettlementSnapshot getSnapshot(final LocalDate settlementDate) {
+        int i = indexOf(settlementDate);
+        int next = nextCouponIndex[i];
+        return new SettlementSnapshot(schedule.getBondDetails(),
+                settlementDate,
+                schedule.getCouponDate(next),
+                schedule.getCouponDate(next - 1),
+                schedule.getBooksCloseDate(next),
+                schedule.getRemainingCoupons(next),
+                daysAccrued[i],
+                accruedInterest[i],
+                brokenPeriod[i]);
+    }
+
+    private int indexOf(final LocalDate settlementDate) {
+        long day = settlementDate.toEpochDay();
+        if (day < firstDay || day > lastDay) {
+            throw new IllegalArgumentException("Settlement date " + settlementDate + " is outside the table "
+                    + getFirstDate() + " to " + getLastDate());
+        }
+        return (int) (day - firstDay);
+    }
+}
@@ -0,0 +1,26 @@
+package bondpricer;
+
+import java.io.IOException;
+
+/**
+ * The {@code TickSource} interface supplies yield ticks to a
+ * {@link PricingPipeline}.
+ */
+public interface TickSource extends AutoCloseable {
+
+    /**
+     * Waits for and returns the next tick.
+     *
+     * @return the next tick, or {@code null} when the source is exhausted
+     * @throws IOException if the source cannot be read
+     */
+    YieldTick next() throws IOException;
+
+    /**
+     * Releases the source.
+     *
+     * @throws IOException if the source cannot be closed
+     */
+    @Override
+    void close() throws IOException;
+}
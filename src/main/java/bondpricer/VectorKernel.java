@@ -0,0 +1,57 @@
+package bondpricer;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@code VectorKernel} class evaluates the pricing formula for a
+ * {@link PricingKernel} one vector of bonds at a time. It is only loaded
+ * when the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorKernel() {
+    }
+
+    /**
+     * Calculates the unrounded all-in prices of the whole vectors of bonds,
+     * leaving the remainder to the caller.
+     *
+     * @param size              the number of bonds
+     * @param couponPayable     the coupon payable at the next coupon date
+     * @param basicCouponAmount the coupon paid at each later coupon date
+     * @param remainingCoupons  the number of coupons after the next
+     * @param brokenPeriod      the broken period
+     * @param moneyMarket       whether the money market formula applies
+     * @param yields            the yields
+     * @param allInPrices       receives the all-in prices
+     * @return the index of the first bond not priced
+     */
+    static int calculateAllInPrices(final int size, final double[] couponPayable,
+            final double[] basicCouponAmount, final double[] remainingCoupons, final double[] brokenPeriod,
+            final boolean[] moneyMarket, final double[] yields, final double[] allInPrices) {
+        int bound = SPECIES.loopBound(size);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector discountFactor = one.div(DoubleVector.fromArray(SPECIES, yields, i)
+                    .div(100 * SettlementSnapshot.FREQUENCY).add(1));
+            DoubleVector discountFactorPower = discountFactor.lanewise(VectorOperators.POW,
+                    DoubleVector.fromArray(SPECIES, remainingCoupons, i));
+            DoubleVector annuity = discountFactor.mul(one.sub(discountFactorPower)).div(one.sub(discountFactor));
+            DoubleVector period = DoubleVector.fromArray(SPECIES, brokenPeriod, i);
+            DoubleVector standard = discountFactor.lanewise(VectorOperators.POW, period);
+            DoubleVector money = discountFactor.div(discountFactor.add(period.mul(one.sub(discountFactor))));
+            VectorMask<Double> isMoneyMarket = VectorMask.fromArray(SPECIES, moneyMarket, i);
+            DoubleVector brokenPeriodDiscountFactor = standard.blend(money, isMoneyMarket);
+            DoubleVector cashFlows = DoubleVector.fromArray(SPECIES, couponPayable, i)
+                    .add(DoubleVector.fromArray(SPECIES, basicCouponAmount, i).mul(annuity))
+                    .add(discountFactorPower.mul(100));
+            brokenPeriodDiscountFactor.mul(cashFlows).intoArray(allInPrices, i);
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,17 @@
+package bondpricer;
+
+/**
+ * The {@code YieldTick} record is a single yield update for a bond.
+ *
+ * @param bondName        the bond name
+ * @param yield           the yield
+ * @param timestampNanos  the {@link System#nanoTime()} at which the tick was
+ *                        received, used to measure tick to price latency
+ */
+public record YieldTick(
+        String bondName,
+        double yield,
+        long timestampNanos
+) {
+
+}
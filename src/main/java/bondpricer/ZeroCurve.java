@@ -0,0 +1,143 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The {@code ZeroCurve} class is an immutable discount curve fitted by a
+ * {@link CurveBootstrapper}. It holds one node per bond maturity, with
+ * times measured in years of {@value SettlementSnapshot#DAYSINYEAR} days
+ * from the settlement date. Discount factors are interpolated linearly in
+ * their logarithm, so the forward rate is constant between nodes, and are
+ * extrapolated past the last node at the last forward rate. The curve can
+ * be shared between threads.
+ */
+public final class ZeroCurve {
+
+    private final LocalDate settlementDate;
+    private final LocalDate[] maturityDates;
+    private final double[] times;
+    private final double[] logDiscountFactors;
+
+    ZeroCurve(final LocalDate settlementDate, final LocalDate[] maturityDates, final double[] times,
+            final double[] logDiscountFactors) {
+        this.settlementDate = settlementDate;
+        this.maturityDates = maturityDates;
+        this.times = times;
+        this.logDiscountFactors = logDiscountFactors;
+    }
+
+    /**
+     * Gets the settlement date the curve discounts to.
+     *
+     * @return the settlement date
+     */
+    public LocalDate getSettlementDate() {
+        return settlementDate;
+    }
+
+    /**
+     * Gets the number of nodes, one per bond.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return maturityDates.length;
+    }
+
+    /**
+     * Gets the maturity date of a node.
+     *
+     * @param index the node index, in maturity order
+     * @return the maturity date
+     */
+    public LocalDate getMaturityDate(final int index) {
+        return maturityDates[index];
+    }
+
+    /**
+     * Gets the time of a node in years.
+     *
+     * @param index the node index, in maturity order
+     * @return the time
+     */
+    public double getTime(final int index) {
+        return times[index + 1];
+    }
+
+    /**
+     * Gets the discount factor of a node.
+     *
+     * @param index the node index, in maturity order
+     * @return the discount factor
+     */
+    public double getDiscountFactor(final int index) {
+        return Math.exp(logDiscountFactors[index + 1]);
+    }
+
+    /**
+     * Gets the discount factor for a payment date.
+     *
+     * @param date the payment date
+     * @return the discount factor
+     * @throws IllegalArgumentException if the date is before the settlement
+     *                                  date
+     */
+    public double getDiscountFactor(final LocalDate date) {
+        return Math.exp(calculateLogDiscountFactor(timeOf(date)));
+    }
+
+    /**
+     * Gets the continuously compounded zero rate for a payment date, in
+     * percent.
+     *
+     * @param date the payment date
+     * @return the zero rate
+     * @throws IllegalArgumentException if the date is not after the
+     *                                  settlement date
+     */
+    public double getZeroRate(final LocalDate date) {
+        double time = timeOf(date);
+        if (time == 0) {
+            throw new IllegalArgumentException("No zero rate on the settlement date " + date);
+        }
+        return -100 * calculateLogDiscountFactor(time) / time;
+    }
+
+    private double timeOf(final LocalDate date) {
+        long days = date.toEpochDay() - settlementDate.toEpochDay();
+        if (days < 0) {
+            throw new IllegalArgumentException("Date " + date + " is before the settlement date "
+                    + settlementDate);
+        }
+        return (double) days / SettlementSnapshot.DAYSINYEAR;
+    }
+
+    private double calculateLogDiscountFactor(final double time) {
+        return calculateLogDiscountFactor(times, logDiscountFactors, times.length, time);
+    }
+
+    /**
+     * Interpolates the log discount factor at a time from the first nodes of
+     * a curve, of which node 0 is the settlement date with a log discount
+     * factor of 0.
+     *
+     * @param times              the node times, ascending
+     * @param logDiscountFactors the node log discount factors
+     * @param nodes              the number of nodes to use, at least 2
+     * @param time               the time
+     * @return the log discount factor
+     */
+    static double calculateLogDiscountFactor(final double[] times, final double[] logDiscountFactors,
+            final int nodes, final double time) {
+        int upper = Arrays.binarySearch(times, 1, nodes, time);
+        if (upper >= 0) {
+            return logDiscountFactors[upper];
+        }
+        // Past the last node the last segment's forward rate is carried on
+        upper = Math.min(-upper - 1, nodes - 1);
+        int lower = upper - 1;
+        double weight = (time - times[lower]) / (times[upper] - times[lower]);
+        return logDiscountFactors[lower] + weight * (logDiscountFactors[upper] - logDiscountFactors[lower]);
+    }
+}
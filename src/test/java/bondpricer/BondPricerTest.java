@@ -1,7 +1,12 @@
 package bondpricer;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import junit.framework.TestCase;
 
 /**
@@ -140,7 +145,7 @@ public class BondPricerTest
         brokenPeriod = (double) bondDetails.get("brokenPeriod");
         brokenPeriodDiscountFactor = (double) bondDetails.get("brokenPeriodDiscountFactor");
 
-        assertEquals(0.800000000, brokenPeriod, 9);
+        assertEquals(0.800000000, brokenPeriod, 1e-9);
         assertEquals(0.970873786, brokenPeriodDiscountFactor, 9);
     }
 
@@ -261,8 +266,289 @@ public class BondPricerTest
         assertEquals(94.19666, allInPrice, 5);
         assertEquals(93.15693, cleanPrice, 5);
     }
-}
 
+    public void testBatchBondPricesMatchScalar() {
+
+        double[] yields = new double[400];
+        for (int i = 0; i < yields.length; i++) {
+            yields[i] = 4.0 + i * 0.0137;
+        }
+        double[] cleanPrices = new double[yields.length];
+        double[] allInPrices = new double[yields.length];
+
+        for (BondType bondType : BondType.values()) {
+            // Covers cum, ex and the money market period before maturity
+            LocalDate[] settlementDates = { LocalDate.of(2017, 2, 7), LocalDate.of(2024, 9, 25),
+                    LocalDate.of(2026, 7, 28), LocalDate.of(2031, 12, 1) };
+            for (LocalDate settlementDate : settlementDates) {
+                BondPricer pricer = new BondPricer(bondType, settlementDate);
+                pricer.getBondPrices(yields, cleanPrices, allInPrices);
+                for (int i = 0; i < yields.length; i++) {
+                    double[] prices = pricer.getBondPrices(yields[i]);
+                    assertEquals(prices[0], cleanPrices[i]);
+                    assertEquals(prices[1], allInPrices[i]);
+                    assertEquals(pricer.getCleanPrice(yields[i]), cleanPrices[i]);
+                    assertEquals(pricer.getAllInPrice(yields[i]), allInPrices[i]);
+                }
+            }
+        }
+    }
+
+    public void testBatchBondPricesRejectsShortOutput() {
+
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        try {
+            bondR186.getBondPrices(new double[3], new double[3], new double[2]);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public void testYieldSolverRoundTrip() {
+
+        for (BondType bondType : BondType.values()) {
+            LocalDate maturityDate = bondType.getBondDetails().maturityDate();
+            // Covers cum, ex and the money market period before maturity
+            LocalDate[] settlementDates = { LocalDate.of(2017, 2, 7), LocalDate.of(2024, 9, 25),
+                    maturityDate.minusDays(146), maturityDate.minusDays(3) };
+            for (LocalDate settlementDate : settlementDates) {
+                BondPricer pricer = new BondPricer(bondType, settlementDate);
+                for (double yield = 2.0; yield < 20.0; yield += 0.731) {
+                    double allInPrice = pricer.getAllInPrice(yield);
+                    double cleanPrice = pricer.getCleanPrice(yield);
+
+                    double solved = pricer.getYield(allInPrice);
+                    assertEquals(yield, solved, 1e-3);
+                    assertEquals(allInPrice, pricer.getAllInPrice(solved));
+                    assertTrue(pricer.getSolverIterations() < 10);
+
+                    solved = pricer.getYieldFromCleanPrice(cleanPrice);
+                    assertEquals(yield, solved, 1e-3);
+                    assertEquals(cleanPrice, pricer.getCleanPrice(solved));
+                }
+            }
+        }
+    }
+
+    public void testYieldSolverFirstExample() {
+
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        assertEquals(8.75, bondR186.getYield(112.77263), 1e-5);
+        assertEquals(8.75, bondR186.getYieldFromCleanPrice(111.39181), 1e-5);
+    }
+
+    public void testBatchYieldSolver() {
+
+        BondPricer bondR2032 = new BondPricer(BondType.R2032, LocalDate.of(2024, 5, 16));
+        double[] cleanPrices = new double[200];
+        for (int i = 0; i < cleanPrices.length; i++) {
+            cleanPrices[i] = bondR2032.getCleanPrice(8.0 + i * 0.01);
+        }
+        double[] yields = new double[cleanPrices.length];
+        bondR2032.getYieldsFromCleanPrices(cleanPrices, yields);
+
+        for (int i = 0; i < cleanPrices.length; i++) {
+            assertEquals(8.0 + i * 0.01, yields[i], 1e-3);
+            assertEquals(bondR2032.getYieldFromCleanPrice(cleanPrices[i]), yields[i], 1e-8);
+        }
+    }
+
+    public void testYieldSolverTolerance() {
+
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        bondR186.getYield(112.77263);
+        int tightIterations = bondR186.getSolverIterations();
+
+        bondR186.setYieldTolerance(1e-2);
+        assertEquals(1e-2, bondR186.getYieldTolerance());
+        assertEquals(8.75, bondR186.getYield(112.77263), 1e-2);
+        assertTrue(bondR186.getSolverIterations() <= tightIterations);
+
+        try {
+            bondR186.setYieldTolerance(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public void testYieldSolverUnreachablePrice() {
+
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        assertTrue(Double.isNaN(bondR186.getYield(-1.0)));
+        assertTrue(Double.isNaN(bondR186.getYield(1e9)));
+    }
+
+    public void testRiskMeasuresMatchFiniteDifferences() {
+
+        double bump = 1e-3;
+        for (BondType bondType : BondType.values()) {
+            LocalDate maturityDate = bondType.getBondDetails().maturityDate();
+            // Covers cum, ex and the money market period before maturity
+            LocalDate[] settlementDates = { LocalDate.of(2017, 2, 7), LocalDate.of(2024, 9, 25),
+                    maturityDate.minusDays(146), maturityDate.minusDays(3) };
+            for (LocalDate settlementDate : settlementDates) {
+                BondPricer pricer = new BondPricer(bondType, settlementDate);
+                for (double yield = 3.0; yield < 15.0; yield += 1.37) {
+                    double price = (double) pricer.getBondDetails(yield).get("allInPrice");
+                    double up = (double) pricer.getBondDetails(yield + bump).get("allInPrice");
+                    double down = (double) pricer.getBondDetails(yield - bump).get("allInPrice");
+                    double slope = (up - down) / (2 * bump);
+                    double curvature = (up - 2 * price + down) / (bump * bump);
+
+                    RiskMeasures risk = pricer.getRiskMeasures(yield);
+                    double[] prices = pricer.getBondPrices(yield);
+                    assertEquals(prices[0], risk.cleanPrice());
+                    assertEquals(prices[1], risk.allInPrice());
+                    assertEquals(-slope / 100, risk.dv01(), 1e-8);
+                    assertEquals(-100 * slope / price, risk.modifiedDuration(), 1e-6);
+                    assertEquals(10000 * curvature / price, risk.convexity(), 1e-3 * Math.max(1, risk.convexity()));
+                }
+            }
+        }
+    }
+
+    public void testRiskMeasuresMoneyMarket() {
+
+        // Final coupon period, the bond is discounted as a money market instrument
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2026, 7, 28));
+        RiskMeasures risk = bondR186.getRiskMeasures(7.5);
 
+        // Price = 105.25 / (1 + 7.5% * 146 / 365)
+        double price = 105.25 / (1 + 0.075 * 146 / 365);
+        double duration = (146.0 / 365) / (1 + 0.075 * 146 / 365);
+        assertEquals(Math.round(price * 1e5) / 1e5, risk.allInPrice());
+        assertEquals(duration, risk.modifiedDuration(), 1e-12);
+        assertEquals(2 * duration * duration, risk.convexity(), 1e-12);
+    }
 
+    public void testSettlementSnapshotIsIndependentOfPricer() {
 
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        SettlementSnapshot snapshot = bondR186.getSettlementSnapshot();
+        bondR186.setSettlementDate(LocalDate.of(2024, 9, 25));
+
+        assertEquals(LocalDate.of(2017, 2, 7), snapshot.getSettlementDate());
+        assertEquals(LocalDate.of(2017, 6, 21), snapshot.getNextCouponDate());
+        assertEquals(112.77263, snapshot.getAllInPrice(8.75));
+        assertEquals(111.39181, snapshot.getCleanPrice(8.75));
+        assertEquals(8.75, snapshot.getYieldFromCleanPrice(111.39181, 1e-10), 1e-5);
+        assertEquals(LocalDate.of(2024, 12, 21), bondR186.getSettlementSnapshot().getNextCouponDate());
+    }
+
+    public void testSettlementSnapshotConcurrentPricing() throws Exception {
+
+        SettlementSnapshot snapshot = SettlementSnapshot.of(BondType.R2032.getBondDetails(),
+                LocalDate.of(2024, 5, 16));
+        double[] yields = new double[1000];
+        for (int i = 0; i < yields.length; i++) {
+            yields[i] = 5.0 + i * 0.01;
+        }
+        double[] expected = new double[yields.length];
+        for (int i = 0; i < yields.length; i++) {
+            expected[i] = new BondPricer(BondType.R2032, LocalDate.of(2024, 5, 16)).getAllInPrice(yields[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<double[]>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    double[] cleanPrices = new double[yields.length];
+                    double[] allInPrices = new double[yields.length];
+                    for (int round = 0; round < 50; round++) {
+                        snapshot.getBondPrices(yields, cleanPrices, allInPrices);
+                    }
+                    return allInPrices;
+                }));
+            }
+            for (Future<double[]> result : results) {
+                double[] allInPrices = result.get();
+                for (int i = 0; i < yields.length; i++) {
+                    assertEquals(expected[i], allInPrices[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testSettlementTableMatchesSettlementDate() {
+
+        for (BondType bondType : BondType.values()) {
+            BondDetails details = bondType.getBondDetails();
+            SettlementTable table = SettlementTable.build(details, LocalDate.of(2005, 1, 1));
+            assertEquals(details.maturityDate().minusDays(1), table.getLastDate());
+
+            for (LocalDate date = table.getFirstDate(); !date.isAfter(table.getLastDate());
+                    date = date.plusDays(1)) {
+                SettlementSnapshot expected = SettlementSnapshot.of(details, date);
+                SettlementSnapshot actual = table.getSnapshot(date);
+                assertEquals(expected.getNextCouponDate(), actual.getNextCouponDate());
+                assertEquals(expected.getLastCouponDate(), actual.getLastCouponDate());
+                assertEquals(expected.getBooksCloseDate(), actual.getBooksCloseDate());
+                assertEquals(expected.getNumberRemainingCoupons(), actual.getNumberRemainingCoupons());
+                assertEquals(expected.isCumEx(), actual.isCumEx());
+                assertEquals(expected.getDaysAccrued(), actual.getDaysAccrued());
+                assertEquals(expected.getCouponPayable(), actual.getCouponPayable());
+                assertEquals(expected.getUnroundedAccruedInterest(), actual.getUnroundedAccruedInterest());
+                assertEquals(expected.getBrokenPeriod(), actual.getBrokenPeriod());
+                assertEquals(expected.isMoneyMarket(), actual.isMoneyMarket());
+                assertEquals(expected.getAllInPrice(9.0), actual.getAllInPrice(9.0));
+
+                assertEquals(expected.getNextCouponDate(), table.getNextCouponDate(date));
+                assertEquals(expected.getDaysAccrued(), table.getDaysAccrued(date));
+                assertEquals(expected.isCumEx(), table.isCumEx(date));
+            }
+        }
+    }
+
+    public void testPricerUsesSettlementTable() {
+
+        BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        bondR186.setSettlementTable(SettlementTable.build(BondType.R186.getBondDetails(),
+                LocalDate.of(2010, 1, 1)));
+        bondR186.setSettlementDate(LocalDate.of(2017, 2, 8));
+        assertEquals(111.03968, bondR186.getCleanPrice(8.8));
+
+        // Dates outside the table are still calculated
+        bondR186.setSettlementDate(LocalDate.of(2005, 8, 26));
+        assertEquals(133.54709, bondR186.getAllInPrice(7.5));
+
+        try {
+            bondR186.setSettlementTable(SettlementTable.build(BondType.R2032.getBondDetails(),
+                    LocalDate.of(2010, 1, 1)));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public void testPricingDetailsMatchMap() {
+
+        BondPricer bondR2032 = new BondPricer(BondType.R2032, LocalDate.of(2024, 5, 16));
+        PricingDetails details = new PricingDetails();
+        assertSame(details, bondR2032.getPricingDetails(9.5, details));
+
+        Map<String, Object> bondDetails = bondR2032.getBondDetails(9.5);
+        assertEquals(bondDetails, details.toMap());
+        assertEquals(LocalDate.of(2024, 9, 30), details.getNextCouponDate());
+        assertEquals(LocalDate.of(2024, 3, 31), details.getLastCouponDate());
+        assertEquals(LocalDate.of(2024, 9, 20), details.getBooksCloseDate());
+        assertEquals(4.125, details.getCouponPayable());
+        assertEquals(0.954653938, details.getDiscountFactor(), 1e-9);
+        assertEquals(0.748633880, details.getBrokenPeriod(), 1e-9);
+        assertEquals(0.965855171, details.getBrokenPeriodDiscountFactor(), 1e-9);
+        assertEquals(94.19666, details.getAllInPrice(), 1e-5);
+        assertEquals(93.15693, details.getCleanPrice(), 1e-5);
+
+        // Refilling the same instance for another settlement date and yield
+        bondR2032.setSettlementDate(LocalDate.of(2024, 9, 25));
+        bondR2032.getPricingDetails(9.0, details);
+        assertFalse(details.isCumEx());
+        assertEquals(0.0, details.getCouponPayable());
+        assertEquals(-5, details.getDaysAccrued());
+        assertEquals(bondR2032.getBondDetails(9.0), details.toMap());
+    }
+}
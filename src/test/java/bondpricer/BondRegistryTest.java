@@ -0,0 +1,139 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the bond registry.
+ */
+public class BondRegistryTest
+        extends TestCase {
+
+    public void testDefaultRegistryMatchesBondTypes() {
+
+        BondRegistry registry = BondRegistry.loadDefault();
+        assertTrue(registry.size() > BondType.values().length);
+        for (BondType bondType : BondType.values()) {
+            Bond bond = registry.getRequired(bondType.name());
+            assertEquals(bondType.getBondDetails(), bond.details());
+        }
+        assertNull(registry.get("R999"));
+    }
+
+    public void testPricerFromRegistryEntry() {
+
+        BondRegistry registry = BondRegistry.loadDefault();
+        BondPricer bondR186 = new BondPricer(registry.getRequired("R186"), LocalDate.of(2017, 2, 7));
+        assertEquals(112.77263, bondR186.getAllInPrice(8.75));
+        assertTrue(bondR186.toString().startsWith("The bond type is: R186\n"));
+    }
+
+    public void testNamesAreInterned() throws IOException {
+
+        String name = new String("R186");
+        BondRegistry registry = BondRegistry.load(new StringReader(
+                name + ",2026-12-21,10.5,06-21,12-21,06-11,12-11\n"));
+        assertSame("R186", registry.getRequired("R186").name());
+    }
+
+    public void testParsesCommentsAndMonthDays() throws IOException {
+
+        BondRegistry registry = BondRegistry.load(new StringReader(
+                "# comment\n\n X1 , 2030-01-31 , 8.0 , --01-31 , 07-31 , 01-21 , 07-21 \n"));
+        BondDetails details = registry.getRequired("X1").details();
+        assertEquals(LocalDate.of(2030, 1, 31), details.maturityDate());
+        assertEquals(8.0, details.couponRate());
+        assertEquals(MonthDay.of(1, 31), details.firstCouponDate());
+        assertEquals(MonthDay.of(7, 21), details.secondBooksCloseDate());
+    }
+
+    public void testRejectsMalformedLines() throws IOException {
+
+        String[] invalid = { "R186,2026-12-21,10.5,06-21,12-21,06-11\n",
+                "R186,2026-12-21,10.5,06-21,12-21,06-11,12-11,extra\n",
+                "R186,2026-12-21,ten,06-21,12-21,06-11,12-11\n",
+                "R186,2026-12-21,10.5,06-21,12-21,06-11,12-11\nR186,2026-12-21,10.5,06-21,12-21,06-11,12-11\n",
+                // Coupon dates out of order, and books close on or after the coupon date
+                "R186,2026-12-21,10.5,12-21,06-21,12-11,06-11\n",
+                "R186,2026-12-21,10.5,06-21,06-21,06-11,06-11\n",
+                "R186,2026-12-21,10.5,06-21,12-21,06-21,12-11\n",
+                "R186,2026-12-21,10.5,06-21,12-21,06-11,12-22\n" };
+        for (String text : invalid) {
+            try {
+                BondRegistry.load(new StringReader(text));
+                fail("Expected IllegalArgumentException for " + text);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        try {
+            BondRegistry.loadResource("missing-bonds.csv");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("missing-bonds.csv"));
+        }
+    }
+
+    public void testLoadsThousandsOfBondsQuickly() throws IOException {
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("B").append(i).append(",2040-01-31,9.0,01-31,07-31,01-21,07-21\n");
+        }
+        long start = System.nanoTime();
+        BondRegistry registry = BondRegistry.load(new StringReader(text.toString()));
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(5000, registry.size());
+        assertTrue("Loading took " + elapsed / 1_000_000 + " ms", elapsed < 1_000_000_000L);
+    }
+
+    public void testReloadWhileReading() throws Exception {
+
+        Path file = Files.createTempFile("bonds", ".csv");
+        try {
+            Files.writeString(file, "R186,2026-12-21,10.5,06-21,12-21,06-11,12-11\n");
+            BondRegistry registry = BondRegistry.load(file);
+
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread reader = new Thread(() -> {
+                    try {
+                        while (!done.get()) {
+                            Bond bond = registry.getRequired("R186");
+                            SettlementSnapshot.of(bond.details(), LocalDate.of(2017, 2, 7)).getAllInPrice(8.75);
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+            for (int i = 0; i < 50; i++) {
+                Files.writeString(file, "R186,2026-12-21,10.5,06-21,12-21,06-11,12-11\n"
+                        + "R2032,2032-03-31,8.25,03-31,09-30,03-21,09-20\n");
+                registry.reload(file);
+            }
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertNull(failure.get());
+            assertEquals(2, registry.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the business day calendar.
+ */
+public class BusinessCalendarTest
+        extends TestCase {
+
+    private final BusinessCalendar calendar = BusinessCalendar.loadDefault();
+
+    public void testJseHolidays() {
+
+        assertEquals(LocalDate.of(2000, 1, 1), calendar.getFirstDate());
+        assertEquals(LocalDate.of(2060, 12, 31), calendar.getLastDate());
+        // Good Friday, Family Day, election day and a Sunday holiday observed on the Monday
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2024, 3, 29)));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2024, 4, 1)));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2024, 5, 29)));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2024, 6, 17)));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2024, 6, 15)));
+        assertTrue(calendar.isBusinessDay(LocalDate.of(2024, 6, 18)));
+        // Declared holidays: a local government election and the celebration of the Rugby World Cup win
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2000, 12, 5)));
+        assertFalse(calendar.isBusinessDay(LocalDate.of(2023, 12, 15)));
+        assertEquals(LocalDate.of(2023, 12, 18), calendar.getSettlementDate(LocalDate.of(2023, 12, 12)));
+        assertEquals(LocalDate.of(2023, 12, 19), calendar.getSettlementDate(LocalDate.of(2023, 12, 13)));
+        assertEquals(LocalDate.of(2023, 12, 20), calendar.getSettlementDate(LocalDate.of(2023, 12, 14)));
+
+        // Thursday before Easter settles on the Thursday after
+        assertEquals(LocalDate.of(2024, 4, 4), calendar.getSettlementDate(LocalDate.of(2024, 3, 28)));
+        assertEquals(LocalDate.of(2024, 5, 31), calendar.getSettlementDate(LocalDate.of(2024, 5, 27)));
+        assertEquals(LocalDate.of(2022, 12, 30), calendar.getSettlementDate(LocalDate.of(2022, 12, 23)));
+        assertEquals(LocalDate.of(2024, 3, 28), calendar.addBusinessDays(LocalDate.of(2024, 4, 4), -3));
+        assertEquals(LocalDate.of(2024, 6, 15), calendar.addBusinessDays(LocalDate.of(2024, 6, 15), 0));
+    }
+
+    public void testAddBusinessDaysMatchesDayByDayWalk() throws IOException {
+
+        // A random calendar crossing many 64 day words in both directions
+        Random random = new Random(20);
+        Set<LocalDate> holidays = new HashSet<>();
+        LocalDate first = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 60; i++) {
+            holidays.add(first.plusDays(random.nextInt(730)));
+        }
+        BusinessCalendar randomCalendar = BusinessCalendar.of(first, first.plusDays(729), holidays);
+        for (int n = 0; n < 2000; n++) {
+            LocalDate date = first.plusDays(100 + random.nextInt(530));
+            int days = random.nextInt(141) - 70;
+            LocalDate expected = date;
+            for (int step = 0; step < Math.abs(days);) {
+                expected = expected.plusDays(Integer.signum(days));
+                if (expected.getDayOfWeek() != DayOfWeek.SATURDAY && expected.getDayOfWeek() != DayOfWeek.SUNDAY
+                        && !holidays.contains(expected)) {
+                    step++;
+                }
+            }
+            assertEquals(date + " " + days, expected, randomCalendar.addBusinessDays(date, days));
+            assertEquals(expected.getDayOfWeek().getValue() < 6 && !holidays.contains(expected),
+                    randomCalendar.isBusinessDay(expected));
+        }
+
+        BusinessCalendar loaded = BusinessCalendar.load(new StringReader("# date,name\n2024-12-25,Christmas Day\n"
+                + "\n2023-01-02\n"));
+        assertEquals(LocalDate.of(2023, 1, 1), loaded.getFirstDate());
+        assertEquals(LocalDate.of(2024, 12, 31), loaded.getLastDate());
+        assertFalse(loaded.isBusinessDay(LocalDate.of(2023, 1, 2)));
+        try {
+            loaded.getSettlementDate(LocalDate.of(2024, 12, 30));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("calendar end"));
+        }
+        try {
+            BusinessCalendar.load(new StringReader("2024-13-01\n"));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("line 1"));
+        }
+    }
+
+    public void testPricerFromTradeDate() {
+
+        BondPricer pricer = new BondPricer(BondType.R186, LocalDate.of(2024, 3, 28), calendar);
+        assertEquals(LocalDate.of(2024, 4, 4), pricer.getSettlementSnapshot().getSettlementDate());
+        BondPricer expected = new BondPricer(BondType.R186, LocalDate.of(2024, 4, 4));
+        assertEquals(expected.getAccruedInterest(), pricer.getAccruedInterest());
+
+        pricer.setTradeDate(LocalDate.of(2024, 5, 27), calendar);
+        assertEquals(LocalDate.of(2024, 5, 31), pricer.getSettlementSnapshot().getSettlementDate());
+        BondPricer registered = new BondPricer(BondRegistry.loadDefault().getRequired("R2030"),
+                LocalDate.of(2024, 5, 27), calendar);
+        assertEquals(LocalDate.of(2024, 5, 31), registered.getSettlementSnapshot().getSettlementDate());
+    }
+}
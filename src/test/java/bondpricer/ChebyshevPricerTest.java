@@ -0,0 +1,103 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for Chebyshev approximate pricing.
+ */
+public class ChebyshevPricerTest
+        extends TestCase {
+
+    public void testEveryQuotedYieldMatchesExactPrices() {
+
+        // Every bond, cum, ex and money market, at every yield quoted to 3 decimals in the default band
+        int minYield = (int) (ChebyshevPricer.DEFAULTMINYIELD * 1000);
+        int maxYield = (int) (ChebyshevPricer.DEFAULTMAXYIELD * 1000);
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            for (LocalDate date = LocalDate.of(2015, 1, 7); date.isBefore(bond.details().maturityDate());
+                    date = date.plusDays(61)) {
+                SettlementSnapshot snapshot = SettlementSnapshot.of(bond.details(), date);
+                ChebyshevPricer pricer = ChebyshevPricer.build(snapshot, ChebyshevPricer.DEFAULTMINYIELD,
+                        ChebyshevPricer.DEFAULTMAXYIELD);
+                assertTrue(pricer.getInterpolationError() <= ChebyshevPricer.TARGETERROR);
+                for (int milli = minYield; milli <= maxYield; milli++) {
+                    double yield = milli / 1000.0;
+                    if (snapshot.getAllInPrice(yield) != pricer.getAllInPrice(yield)) {
+                        fail(bond.name() + " " + date + " " + yield + ": " + snapshot.getAllInPrice(yield)
+                                + " != " + pricer.getAllInPrice(yield));
+                    }
+                }
+            }
+        }
+    }
+
+    public void testRandomYieldsMatchExactPrices() {
+
+        Random random = new Random(23);
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            LocalDate date = LocalDate.of(2024, 5, 16);
+            SettlementSnapshot snapshot = SettlementSnapshot.of(bond.details(), date);
+            ChebyshevPricer pricer = ChebyshevPricer.build(snapshot, 3.0, 15.0);
+            double[] yields = new double[100_000];
+            for (int i = 0; i < yields.length; i++) {
+                // Includes yields outside the band, priced exactly
+                yields[i] = 2.0 + 14.0 * random.nextDouble();
+            }
+            double[] cleanPrices = new double[yields.length];
+            double[] allInPrices = new double[yields.length];
+            double[] expectedCleanPrices = new double[yields.length];
+            double[] expectedAllInPrices = new double[yields.length];
+            pricer.getBondPrices(yields, cleanPrices, allInPrices);
+            snapshot.getBondPrices(yields, expectedCleanPrices, expectedAllInPrices);
+            assertTrue(bond.name(), Arrays.equals(expectedCleanPrices, cleanPrices));
+            assertTrue(bond.name(), Arrays.equals(expectedAllInPrices, allInPrices));
+        }
+    }
+
+    public void testInvalidBandsAreRejected() {
+
+        SettlementSnapshot snapshot = SettlementSnapshot.of(Bond.of(BondType.R186).details(),
+                LocalDate.of(2017, 2, 7));
+        double[][] bands = { { 0.1, 10 }, { 10, 10 }, { 12, 10 }, { 1, Double.POSITIVE_INFINITY },
+            { Double.NaN, 10 } };
+        for (double[] band : bands) {
+            try {
+                ChebyshevPricer.build(snapshot, band[0], band[1]);
+                fail("Expected band " + band[0] + " to " + band[1] + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("Invalid yield band"));
+            }
+        }
+    }
+
+    public void testBondPricerApproximateMode() {
+
+        BondPricer pricer = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        BondPricer exact = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        pricer.setApproximatePricing(true);
+        pricer.setIncrementalPricing(true);
+        for (int i = 0; i < 1000; i++) {
+            double yield = 0.5 + i / 40.0;
+            assertEquals(exact.getCleanPrice(yield), pricer.getCleanPrice(yield));
+            assertEquals(exact.getAllInPrice(yield), pricer.getAllInPrice(yield));
+            assertTrue(Arrays.equals(exact.getBondPrices(yield), pricer.getBondPrices(yield)));
+        }
+        // A new settlement date refits the band
+        pricer.setApproximatePricing(6.0, 12.0);
+        pricer.setSettlementDate(LocalDate.of(2017, 2, 8));
+        exact.setSettlementDate(LocalDate.of(2017, 2, 8));
+        double[] yields = { 5.5, 8.8, 11.99, 12.5 };
+        double[] cleanPrices = new double[yields.length];
+        double[] allInPrices = new double[yields.length];
+        pricer.getBondPrices(yields, cleanPrices, allInPrices);
+        for (int i = 0; i < yields.length; i++) {
+            assertEquals(exact.getCleanPrice(yields[i]), cleanPrices[i]);
+            assertEquals(exact.getAllInPrice(yields[i]), allInPrices[i]);
+        }
+        pricer.setApproximatePricing(false);
+        assertEquals(exact.getAllInPrice(8.52), pricer.getAllInPrice(8.52));
+    }
+}
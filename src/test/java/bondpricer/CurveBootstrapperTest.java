@@ -0,0 +1,102 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the zero curve bootstrapper.
+ */
+public class CurveBootstrapperTest
+        extends TestCase {
+
+    private static final LocalDate SETTLEMENTDATE = LocalDate.of(2024, 5, 16);
+
+    private static Map<String, Double> marketYields(final List<Bond> bonds) {
+        return marketYields(bonds, SETTLEMENTDATE);
+    }
+
+    private static Map<String, Double> marketYields(final List<Bond> bonds, final LocalDate settlementDate) {
+        Map<String, Double> yields = new HashMap<>();
+        for (Bond bond : bonds) {
+            // An upward sloping curve from 8% to 12%
+            double years = (bond.details().maturityDate().toEpochDay() - settlementDate.toEpochDay()) / 365.0;
+            yields.put(bond.name(), 8.0 + 4.0 * years / 25);
+        }
+        return yields;
+    }
+
+    private static double presentValue(final ZeroCurve curve, final Bond bond) {
+        // Cash flows from the coupon dates generated by the pricer itself
+        BondPricer pricer = new BondPricer(bond, curve.getSettlementDate());
+        SettlementSnapshot snapshot = pricer.getSettlementSnapshot();
+        double coupon = bond.details().couponRate() / 2;
+        double value = snapshot.getCouponPayable() * curve.getDiscountFactor(snapshot.getNextCouponDate());
+        LocalDate date = snapshot.getNextCouponDate();
+        for (int i = 0; i < snapshot.getNumberRemainingCoupons(); i++) {
+            date = (date.getMonth() == bond.details().firstCouponDate().getMonth())
+                    ? bond.details().secondCouponDate().atYear(date.getYear())
+                    : bond.details().firstCouponDate().atYear(date.getYear() + 1);
+            value += coupon * curve.getDiscountFactor(date);
+        }
+        return value + 100 * curve.getDiscountFactor(bond.details().maturityDate());
+    }
+
+    public void testCurveRepricesEveryBond() {
+
+        // The second date is ex coupon for the January and July bonds
+        for (LocalDate settlementDate : new LocalDate[] { SETTLEMENTDATE, LocalDate.of(2024, 7, 25) }) {
+            List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+            Map<String, Double> yields = marketYields(bonds, settlementDate);
+            ZeroCurve curve = new CurveBootstrapper(bonds, settlementDate).fit(yields);
+
+            assertEquals(bonds.size(), curve.size());
+            for (Bond bond : bonds) {
+                double allInPrice = new BondPricer(bond, settlementDate)
+                        .getPricingDetails(yields.get(bond.name())).getAllInPrice();
+                assertEquals(bond.name(), allInPrice, presentValue(curve, bond), 1e-9);
+            }
+            for (int i = 1; i < curve.size(); i++) {
+                assertTrue(curve.getMaturityDate(i).isAfter(curve.getMaturityDate(i - 1)));
+                assertTrue(curve.getDiscountFactor(i) < curve.getDiscountFactor(i - 1));
+            }
+            assertEquals(1.0, curve.getDiscountFactor(settlementDate));
+            double zeroRate = curve.getZeroRate(LocalDate.of(2030, 1, 31));
+            assertTrue(String.valueOf(zeroRate), zeroRate > 8 && zeroRate < 12);
+        }
+    }
+
+    public void testUpdateMatchesFullFit() {
+
+        List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        Map<String, Double> yields = marketYields(bonds);
+        CurveBootstrapper bootstrapper = new CurveBootstrapper(bonds, SETTLEMENTDATE);
+        bootstrapper.fit(yields);
+        assertEquals(bonds.size(), bootstrapper.getNodesRefitted());
+
+        yields.put("R2040", yields.get("R2040") + 0.25);
+        ZeroCurve updated = bootstrapper.update("R2040", yields.get("R2040"));
+        // R2040 is the fourth last bond to mature
+        assertEquals(4, bootstrapper.getNodesRefitted());
+        ZeroCurve rebuilt = new CurveBootstrapper(bonds, SETTLEMENTDATE).fit(yields);
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertEquals(rebuilt.getDiscountFactor(i), updated.getDiscountFactor(i));
+        }
+    }
+
+    public void testRejectsUnknownBond() {
+
+        List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+        CurveBootstrapper bootstrapper = new CurveBootstrapper(bonds, SETTLEMENTDATE);
+        bootstrapper.fit(marketYields(bonds));
+        try {
+            bootstrapper.update("R999", 9.0);
+            fail("Expected an unknown bond to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package bondpricer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the reference pricer and the differential harness. Run with
+ * {@code -Ddifferential.triples=5000000} to check every fast path on
+ * millions of triples.
+ */
+public class DifferentialHarnessTest
+        extends TestCase {
+
+    private static final long TRIPLES = Long.getLong("differential.triples", 4096);
+    private static final LocalDate FIRSTDATE = LocalDate.of(2000, 1, 1);
+    private static final LocalDate LASTDATE = LocalDate.of(2070, 12, 31);
+
+    public void testReferenceMatchesAssignmentExamples() {
+
+        ReferencePricer reference = new ReferencePricer(Bond.of(BondType.R186).details(), LocalDate.of(2017, 2, 7));
+        assertEquals(LocalDate.of(2017, 6, 21), reference.getNextCouponDate());
+        assertEquals(LocalDate.of(2016, 12, 21), reference.getLastCouponDate());
+        assertEquals(LocalDate.of(2017, 6, 11), reference.getBooksCloseDate());
+        assertEquals(new BigDecimal("112.77263"), reference.getAllInPrice(8.75));
+        assertEquals(new BigDecimal("111.39181"), reference.getCleanPrice(8.75));
+
+        reference = new ReferencePricer(Bond.of(BondType.R186).details(), LocalDate.of(2005, 8, 26));
+        assertEquals(42, reference.getNumberRemainingCoupons());
+        assertEquals(66, reference.getDaysAccrued());
+        assertEquals(new BigDecimal("1.89863"), reference.getAccruedInterest());
+        assertEquals(new BigDecimal("133.54709"), reference.getAllInPrice(7.5));
+        assertEquals(new BigDecimal("131.64846"), reference.getCleanPrice(7.5));
+
+        // Money market, the final coupon is paid at maturity
+        reference = new ReferencePricer(Bond.of(BondType.R186).details(), LocalDate.of(2026, 7, 28));
+        assertTrue(reference.isMoneyMarket());
+        assertEquals(0, reference.getNumberRemainingCoupons());
+        assertEquals(0, new BigDecimal("0.8").compareTo(reference.getBrokenPeriod()));
+    }
+
+    public void testReferenceDatesMatchSnapshot() {
+
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            for (LocalDate date = FIRSTDATE; date.isBefore(bond.details().maturityDate()); date = date.plusDays(3)) {
+                ReferencePricer reference = new ReferencePricer(bond.details(), date);
+                SettlementSnapshot snapshot = SettlementSnapshot.of(bond.details(), date);
+                String message = bond.name() + " " + date;
+                assertEquals(message, snapshot.getNextCouponDate(), reference.getNextCouponDate());
+                assertEquals(message, snapshot.getLastCouponDate(), reference.getLastCouponDate());
+                assertEquals(message, snapshot.getBooksCloseDate(), reference.getBooksCloseDate());
+                assertEquals(message, snapshot.getNumberRemainingCoupons(), reference.getNumberRemainingCoupons());
+                assertEquals(message, snapshot.isCumEx(), reference.isCumEx());
+                assertEquals(message, snapshot.getDaysAccrued(), reference.getDaysAccrued());
+                assertEquals(message, snapshot.isMoneyMarket(), reference.isMoneyMarket());
+            }
+        }
+    }
+
+    public void testFastPathsMatchReference() {
+
+        Map<String, SettlementTable> tables = new ConcurrentHashMap<>();
+        Map<String, DifferentialHarness.PricingPath> paths = new HashMap<>(Map.of(
+                "snapshot", (bond, date) -> SettlementSnapshot.of(bond.details(), date)::getBondPrices,
+                "table", (bond, date) -> tables.computeIfAbsent(bond.name(),
+                        name -> SettlementTable.build(bond.details(), FIRSTDATE)).getSnapshot(date)::getBondPrices,
+                "incremental", (bond, date) ->
+                        new IncrementalPricer(SettlementSnapshot.of(bond.details(), date))::getBondPrices,
+                "chebyshev", (bond, date) -> ChebyshevPricer.build(SettlementSnapshot.of(bond.details(), date),
+                        ChebyshevPricer.DEFAULTMINYIELD, ChebyshevPricer.DEFAULTMAXYIELD)::getBondPrices,
+                "pricer", (bond, date) -> {
+                    BondPricer pricer = new BondPricer(bond, date);
+                    pricer.setIncrementalPricing(true);
+                    pricer.setApproximatePricing(true);
+                    return pricer::getBondPrices;
+                }));
+        if (PricingKernel.VECTORAVAILABLE) {
+            paths.put("kernel", (bond, date) -> {
+                // Enough copies of the snapshot to fill whole vectors, so every lane is priced by VectorKernel
+                PricingKernel kernel = PricingKernel.of(Collections.nCopies(DifferentialHarness.YIELDSPERSETTLEMENT,
+                        SettlementSnapshot.of(bond.details(), date)));
+                assertTrue(kernel.isVectorized());
+                double[] yields = new double[kernel.size()];
+                double[] cleanPrices = new double[kernel.size()];
+                double[] allInPrices = new double[kernel.size()];
+                return yield -> {
+                    Arrays.fill(yields, yield);
+                    kernel.getBondPrices(yields, cleanPrices, allInPrices);
+                    return new double[] { cleanPrices[kernel.size() - 1], allInPrices[kernel.size() - 1] };
+                };
+            });
+        }
+
+        DifferentialHarness harness = new DifferentialHarness(BondRegistry.loadDefault().getBonds(), FIRSTDATE,
+                LASTDATE);
+        for (Map.Entry<String, DifferentialHarness.PricingPath> path : paths.entrySet()) {
+            DifferentialResult result = harness.run(path.getValue(), TRIPLES, 24);
+            assertEquals(TRIPLES, result.getTriples());
+            assertTrue(path.getKey() + ": " + result, result.isEquivalent());
+        }
+    }
+
+    public void testMismatchesAreReported() {
+
+        // Accrued interest on a 365.25 day year, wrong on most days
+        DifferentialHarness.PricingPath path = (bond, date) -> {
+            SettlementSnapshot snapshot = SettlementSnapshot.of(bond.details(), date);
+            return yield -> {
+                double allInPrice = snapshot.getAllInPrice(yield);
+                double accrued = snapshot.getDaysAccrued() * bond.details().couponRate() / 365.25;
+                return new double[] { SettlementSnapshot.round(allInPrice - accrued), allInPrice };
+            };
+        };
+        DifferentialHarness harness = new DifferentialHarness(BondRegistry.loadDefault().getBonds(), FIRSTDATE,
+                LASTDATE, new ForkJoinPool(3));
+        DifferentialResult result = harness.run(path, 2000, 7);
+        assertFalse(result.isEquivalent());
+        assertEquals(DifferentialHarness.MAXREPORTED, result.getReportedMismatches().size());
+        PriceMismatch mismatch = result.getReportedMismatches().get(0);
+        assertEquals(mismatch.expectedAllInPrice(), mismatch.allInPrice());
+        assertTrue(mismatch.expectedCleanPrice() != mismatch.cleanPrice());
+        assertTrue(result.toString(), result.toString().contains(mismatch.bondName()));
+
+        // The same triples and mismatches on any number of threads
+        DifferentialResult serial = new DifferentialHarness(BondRegistry.loadDefault().getBonds(), FIRSTDATE,
+                LASTDATE, new ForkJoinPool(1)).run(path, 2000, 7);
+        assertEquals(result.getMismatches(), serial.getMismatches());
+        assertEquals(result.getReportedMismatches(), serial.getReportedMismatches());
+
+        // A path that cannot be prepared fails every yield of the settlement date
+        DifferentialResult failed = harness.run((bond, date) -> {
+            throw new IllegalStateException("Not prepared");
+        }, 40, 7);
+        assertEquals(40, failed.getMismatches());
+        assertEquals(40, failed.getReportedMismatches().size());
+        assertTrue(Double.isNaN(failed.getReportedMismatches().get(0).allInPrice()));
+    }
+
+    public void testInvalidRunsAreRejected() {
+
+        DifferentialHarness harness = new DifferentialHarness(BondRegistry.loadDefault().getBonds(), FIRSTDATE,
+                LASTDATE);
+        DifferentialHarness.PricingPath path = (bond, date) -> SettlementSnapshot.of(bond.details(),
+                date)::getBondPrices;
+        try {
+            harness.run(path, 10, 1, 10, 5);
+            fail("Expected an inverted yield band to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Invalid yield band"));
+        }
+        try {
+            new DifferentialHarness(BondRegistry.loadDefault().getBonds(), LASTDATE, FIRSTDATE);
+            fail("Expected dates out of order to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("before first date"));
+        }
+        try {
+            new ReferencePricer(Bond.of(BondType.R186).details(), LocalDate.of(2026, 12, 21));
+            fail("Expected settlement at maturity to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not before maturity"));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for forward pricing.
+ */
+public class ForwardPricerTest
+        extends TestCase {
+
+    // Carries the spot price one forward date at a time, listing the coupons from the bond details
+    private static double forwardAllInPrice(final BondDetails details, final LocalDate spotDate,
+            final double spotAllInPrice, final double repoRate, final LocalDate forwardDate) {
+        double repo = repoRate / 100 / 365;
+        double price = spotAllInPrice * (1 + repo * (forwardDate.toEpochDay() - spotDate.toEpochDay()));
+        double coupon = details.couponRate() / 2;
+        for (int year = spotDate.getYear(); year <= forwardDate.getYear() + 1; year++) {
+            LocalDate[][] coupons = {
+                { details.firstCouponDate().atYear(year), details.firstBooksCloseDate().atYear(year) },
+                { details.secondCouponDate().atYear(year), details.secondBooksCloseDate().atYear(year) } };
+            for (LocalDate[] couponDates : coupons) {
+                LocalDate couponDate = couponDates[0];
+                LocalDate booksCloseDate = couponDates[1];
+                if (spotDate.isBefore(booksCloseDate) && !booksCloseDate.isAfter(forwardDate)) {
+                    long days = forwardDate.toEpochDay() - couponDate.toEpochDay();
+                    price -= (days >= 0) ? coupon * (1 + repo * days) : coupon / (1 - repo * days);
+                }
+            }
+        }
+        return price;
+    }
+
+    public void testLadderMatchesDateByDate() {
+
+        double repoRate = 8.25;
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            LocalDate spotDate = LocalDate.of(2024, 5, 16);
+            List<LocalDate> dates = new ArrayList<>();
+            for (LocalDate date = spotDate; dates.size() < 730 && date.isBefore(bond.details().maturityDate());
+                    date = date.plusDays(1)) {
+                dates.add(date);
+            }
+            ForwardLadder ladder = ForwardPricer.price(bond, spotDate, 9.5, repoRate,
+                    dates.toArray(new LocalDate[0]));
+            assertEquals(dates.size(), ladder.size());
+            BondPricer spot = new BondPricer(bond, spotDate);
+            double[] spotPrices = spot.getBondPrices(9.5);
+            assertEquals(spotPrices[0], ladder.getSpotCleanPrice());
+            assertEquals(spotPrices[1], ladder.getSpotAllInPrice());
+            assertEquals(spotPrices[1], ladder.getAllInPrice(0));
+            assertEquals(spotPrices[0], ladder.getCleanPrice(0));
+            assertEquals(0.0, ladder.getCarry(0));
+
+            for (int i = 0; i < ladder.size(); i++) {
+                LocalDate date = dates.get(i);
+                assertEquals(date, ladder.getForwardDate(i));
+                double expected = forwardAllInPrice(bond.details(), spotDate, spotPrices[1], repoRate, date);
+                assertEquals(bond.name() + " " + date, expected, ladder.getAllInPrice(i), 1.1e-5);
+                BondPricer forward = new BondPricer(bond, date);
+                assertEquals(forward.getAccruedInterest(), ladder.getAccruedInterest(i));
+                assertEquals(SettlementSnapshot.round(ladder.getAllInPrice(i)
+                        - forward.getSettlementSnapshot().getUnroundedAccruedInterest()), ladder.getCleanPrice(i));
+                assertEquals(SettlementSnapshot.round(spotPrices[0] - ladder.getCleanPrice(i)), ladder.getCarry(i));
+            }
+        }
+    }
+
+    public void testCouponAcrossBooksClose() {
+
+        // R186 pays 5.25 on 21 June, books close on 11 June
+        Bond bond = Bond.of(BondType.R186);
+        LocalDate spotDate = LocalDate.of(2024, 5, 16);
+        LocalDate[] dates = { LocalDate.of(2024, 6, 10), LocalDate.of(2024, 6, 11), LocalDate.of(2024, 6, 25) };
+        ForwardLadder ladder = ForwardPricer.price(bond, spotDate, 9.0, 8.0, dates);
+        double spotAllInPrice = ladder.getSpotAllInPrice();
+        double repo = 0.08 / 365;
+        assertEquals(SettlementSnapshot.round(spotAllInPrice * (1 + repo * 25)), ladder.getAllInPrice(0));
+        assertEquals(SettlementSnapshot.round(spotAllInPrice * (1 + repo * 26) - 5.25 / (1 + repo * 10)),
+                ladder.getAllInPrice(1));
+        assertEquals(SettlementSnapshot.round(spotAllInPrice * (1 + repo * 40) - 5.25 * (1 + repo * 4)),
+                ladder.getAllInPrice(2));
+        // Ex the coupon, the accrued interest is negative
+        assertTrue(ladder.getAccruedInterest(1) < 0);
+        assertTrue(ladder.getAccruedInterest(2) > 0);
+    }
+
+    public void testInvalidDatesAreRejected() {
+
+        Bond bond = Bond.of(BondType.R186);
+        LocalDate spotDate = LocalDate.of(2024, 5, 16);
+        try {
+            ForwardPricer.price(bond, spotDate, 9.0, 8.0, new LocalDate[] { spotDate.minusDays(1) });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("spot date"));
+        }
+        try {
+            ForwardPricer.price(bond, spotDate, 9.0, 8.0, new LocalDate[] { spotDate.plusDays(2), spotDate });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("ascending"));
+        }
+        try {
+            ForwardPricer.price(bond, spotDate, 9.0, 8.0, new LocalDate[] { bond.details().maturityDate() });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("maturity"));
+        }
+        assertEquals(0, ForwardPricer.price(bond, spotDate, 9.0, 8.0, new LocalDate[0]).size());
+    }
+}
@@ -0,0 +1,82 @@
+package bondpricer;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for historical revaluation.
+ */
+public class HistoricalRevaluerTest
+        extends TestCase {
+
+    private static LocalDate[] weekdays(final LocalDate from, final LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                dates.add(date);
+            }
+        }
+        return dates.toArray(new LocalDate[0]);
+    }
+
+    public void testPricesMatchPricerEveryDay() {
+
+        Random random = new Random(11);
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            LocalDate from = LocalDate.of(2015, 1, 1);
+            LocalDate[] dates = weekdays(from, bond.details().maturityDate());
+            double[] yields = new double[dates.length];
+            for (int i = 0; i < yields.length; i++) {
+                yields[i] = 4.0 + random.nextInt(1000) / 100.0;
+            }
+            PriceHistory history = HistoricalRevaluer.revalue(bond, from, bond.details().maturityDate(),
+                    dates, yields);
+
+            // The maturity date itself is not priced
+            LocalDate maturityDate = bond.details().maturityDate();
+            assertEquals(dates[dates.length - 1].isBefore(maturityDate) ? dates.length : dates.length - 1,
+                    history.size());
+            assertEquals(bond.name(), history.getBondName());
+            BondPricer pricer = new BondPricer(bond, from);
+            for (int i = 0; i < history.size(); i++) {
+                pricer.setSettlementDate(dates[i]);
+                double[] prices = pricer.getBondPrices(yields[i]);
+                assertEquals(dates[i], history.getSettlementDate(i));
+                assertEquals(yields[i], history.getYield(i));
+                assertEquals(bond.name() + " " + dates[i], prices[0], history.getCleanPrice(i));
+                assertEquals(bond.name() + " " + dates[i], prices[1], history.getAllInPrice(i));
+                assertEquals(pricer.getAccruedInterest(), history.getAccruedInterest(i));
+            }
+        }
+    }
+
+    public void testDatesOutsideRangeAreSkipped() {
+
+        Bond bond = Bond.of(BondType.R186);
+        LocalDate[] dates = weekdays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        double[] yields = new double[dates.length];
+        Arrays.fill(yields, 8.5);
+        PriceHistory history = HistoricalRevaluer.revalue(bond, LocalDate.of(2024, 3, 1),
+                LocalDate.of(2024, 3, 31), dates, yields);
+
+        assertEquals(21, history.size());
+        assertEquals(LocalDate.of(2024, 3, 1), history.getSettlementDate(0));
+        assertEquals(LocalDate.of(2024, 3, 29), history.getSettlementDate(20));
+    }
+
+    public void testRejectsUnsortedDates() {
+
+        LocalDate[] dates = { LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1) };
+        try {
+            HistoricalRevaluer.revalue(Bond.of(BondType.R186), dates[1], dates[0], dates, new double[2]);
+            fail("Expected unsorted dates to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for incremental repricing.
+ */
+public class IncrementalPricerTest
+        extends TestCase {
+
+    public void testRandomWalkMatchesExactPrices() {
+
+        // Every bond, cum, ex and money market, with ticks of up to a basis point
+        Random random = new Random(18);
+        long incremental = 0;
+        long exact = 0;
+        for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+            for (LocalDate date = LocalDate.of(2015, 1, 7); date.isBefore(bond.details().maturityDate());
+                    date = date.plusDays(97)) {
+                SettlementSnapshot snapshot = SettlementSnapshot.of(bond.details(), date);
+                IncrementalPricer pricer = new IncrementalPricer(snapshot);
+                double yield = 4.0 + random.nextInt(1000) / 100.0;
+                for (int i = 0; i < 2000; i++) {
+                    yield += (random.nextInt(201) - 100) / 10000.0;
+                    double[] expected = snapshot.getBondPrices(yield);
+                    double[] prices = pricer.getBondPrices(yield);
+                    assertEquals(bond.name() + " " + date + " " + yield, expected[0], prices[0]);
+                    assertEquals(bond.name() + " " + date + " " + yield, expected[1], prices[1]);
+                }
+                incremental += pricer.getIncrementalPrices();
+                exact += pricer.getExactPrices();
+            }
+        }
+        assertTrue("Only " + incremental + " of " + (incremental + exact) + " incremental",
+                incremental > 9 * exact);
+    }
+
+    public void testLargeMovesAndLowYieldsAreExact() {
+
+        SettlementSnapshot snapshot = SettlementSnapshot.of(Bond.of(BondType.R2032).details(),
+                LocalDate.of(2024, 5, 16));
+        IncrementalPricer pricer = new IncrementalPricer(snapshot);
+        assertEquals(snapshot.getAllInPrice(9.0), pricer.getAllInPrice(9.0));
+        assertEquals(snapshot.getAllInPrice(9.001), pricer.getAllInPrice(9.001));
+        assertEquals(1, pricer.getExactPrices());
+        assertEquals(1, pricer.getIncrementalPrices());
+
+        assertEquals(snapshot.getAllInPrice(9.5), pricer.getAllInPrice(9.5));
+        assertEquals(2, pricer.getExactPrices());
+        for (double yield = 0.3; yield < 0.6; yield += 0.001) {
+            assertEquals(snapshot.getAllInPrice(yield), pricer.getAllInPrice(yield));
+        }
+        assertEquals(snapshot.getAllInPrice(0), pricer.getAllInPrice(0));
+    }
+
+    public void testBondPricerIncrementalMode() {
+
+        BondPricer pricer = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        BondPricer exact = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+        pricer.setIncrementalPricing(true);
+        for (int i = 0; i < 100; i++) {
+            double yield = 8.5 + i / 10000.0;
+            assertEquals(exact.getCleanPrice(yield), pricer.getCleanPrice(yield));
+            assertEquals(exact.getAllInPrice(yield), pricer.getAllInPrice(yield));
+        }
+        // A new settlement date discards the expansion
+        pricer.setSettlementDate(LocalDate.of(2017, 2, 8));
+        exact.setSettlementDate(LocalDate.of(2017, 2, 8));
+        assertTrue(Arrays.equals(exact.getBondPrices(8.51), pricer.getBondPrices(8.51)));
+        pricer.setIncrementalPricing(false);
+        assertEquals(exact.getAllInPrice(8.52), pricer.getAllInPrice(8.52));
+    }
+}
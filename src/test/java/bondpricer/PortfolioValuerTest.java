@@ -0,0 +1,78 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for portfolio valuation.
+ */
+public class PortfolioValuerTest
+        extends TestCase {
+
+    private static List<Position> randomPositions(final int count, final long seed) {
+        Random random = new Random(seed);
+        List<Position> positions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Bond bond = Bond.of(BondType.values()[random.nextInt(BondType.values().length)]);
+            positions.add(new Position(bond,
+                    (random.nextInt(200) - 100) * 1_000_000.0,
+                    6.0 + random.nextInt(500) / 100.0,
+                    LocalDate.of(2024, 5, 16).plusDays(random.nextInt(10))));
+        }
+        return positions;
+    }
+
+    public void testValuesMatchPricer() {
+
+        List<Position> positions = randomPositions(2000, 42);
+        PortfolioValuation valuation = new PortfolioValuer().value(positions);
+
+        assertEquals(positions.size(), valuation.size());
+        assertEquals(2 * 10, valuation.getSettlementGroups());
+
+        double totalPresentValue = 0;
+        double totalAccruedValue = 0;
+        double totalDv01 = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            Position position = positions.get(i);
+            BondPricer pricer = new BondPricer(position.bond(), position.settlementDate());
+            double[] prices = pricer.getBondPrices(position.yield());
+            RiskMeasures risk = pricer.getRiskMeasures(position.yield());
+
+            assertEquals(prices[0], valuation.getCleanPrice(i));
+            assertEquals(prices[1], valuation.getAllInPrice(i));
+            assertEquals(pricer.getAccruedInterest(), valuation.getAccruedInterest(i));
+            assertEquals(position.nominal() * prices[1] / 100, valuation.getPresentValue(i));
+            assertEquals(position.nominal() * pricer.getAccruedInterest() / 100, valuation.getAccruedValue(i));
+            assertEquals(position.nominal() * risk.dv01() / 100, valuation.getDv01(i));
+            totalPresentValue += valuation.getPresentValue(i);
+            totalAccruedValue += valuation.getAccruedValue(i);
+            totalDv01 += valuation.getDv01(i);
+        }
+        assertEquals(totalPresentValue, valuation.getTotalPresentValue());
+        assertEquals(totalAccruedValue, valuation.getTotalAccruedValue());
+        assertEquals(totalDv01, valuation.getTotalDv01());
+    }
+
+    public void testResultIndependentOfParallelism() {
+
+        List<Position> positions = randomPositions(5000, 7);
+        PortfolioValuation single = new PortfolioValuer(new ForkJoinPool(1)).value(positions);
+        PortfolioValuation parallel = new PortfolioValuer(new ForkJoinPool(8)).value(positions);
+
+        assertEquals(single.getTotalPresentValue(), parallel.getTotalPresentValue());
+        assertEquals(single.getTotalAccruedValue(), parallel.getTotalAccruedValue());
+        assertEquals(single.getTotalDv01(), parallel.getTotalDv01());
+    }
+
+    public void testEmptyPortfolio() {
+
+        PortfolioValuation valuation = new PortfolioValuer().value(new ArrayList<>());
+        assertEquals(0, valuation.size());
+        assertEquals(0.0, valuation.getTotalPresentValue());
+    }
+}
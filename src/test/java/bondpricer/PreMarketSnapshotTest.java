@@ -0,0 +1,171 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the pre-market snapshot and warm-up.
+ */
+public class PreMarketSnapshotTest
+        extends TestCase {
+
+    private static final LocalDate SETTLEMENTDATE = LocalDate.of(2024, 5, 16);
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("premarket", ".bin");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static void assertSnapshotEquals(final SettlementSnapshot expected, final SettlementSnapshot actual) {
+        assertEquals(expected.getBondDetails(), actual.getBondDetails());
+        assertEquals(expected.getSettlementDate(), actual.getSettlementDate());
+        assertEquals(expected.getNextCouponDate(), actual.getNextCouponDate());
+        assertEquals(expected.getLastCouponDate(), actual.getLastCouponDate());
+        assertEquals(expected.getBooksCloseDate(), actual.getBooksCloseDate());
+        assertEquals(expected.getNumberRemainingCoupons(), actual.getNumberRemainingCoupons());
+        assertEquals(expected.isCumEx(), actual.isCumEx());
+        assertEquals(expected.getDaysAccrued(), actual.getDaysAccrued());
+        assertEquals(expected.getCouponPayable(), actual.getCouponPayable());
+        assertEquals(expected.getUnroundedAccruedInterest(), actual.getUnroundedAccruedInterest());
+        assertEquals(expected.getBrokenPeriod(), actual.getBrokenPeriod());
+        assertEquals(expected.isMoneyMarket(), actual.isMoneyMarket());
+        for (double yield = 1.0; yield < 20.0; yield += 0.37) {
+            assertTrue(Arrays.equals(expected.getBondPrices(yield), actual.getBondPrices(yield)));
+        }
+    }
+
+    public void testWriteAndMap() throws IOException {
+
+        BondRegistry registry = BondRegistry.loadDefault();
+        int bonds = PreMarketSnapshot.write(registry, SETTLEMENTDATE, file);
+        PreMarketSnapshot preMarket = PreMarketSnapshot.map(file);
+
+        assertEquals(registry.size(), bonds);
+        assertEquals(bonds, preMarket.size());
+        assertEquals(SETTLEMENTDATE, preMarket.getSettlementDate());
+        assertEquals(PreMarketSnapshot.HEADERBYTES + bonds * PreMarketSnapshot.RECORDBYTES, Files.size(file));
+        for (int i = 0; i < preMarket.size(); i++) {
+            Bond bond = registry.getRequired(preMarket.getBondName(i));
+            assertEquals(bond, preMarket.getBond(i));
+            assertEquals(i, preMarket.indexOf(bond.name()));
+            assertSnapshotEquals(SettlementSnapshot.of(bond.details(), SETTLEMENTDATE), preMarket.getSnapshot(i));
+            if (i > 0) {
+                assertTrue(preMarket.getBondName(i - 1).compareTo(preMarket.getBondName(i)) < 0);
+            }
+        }
+        assertEquals(-1, preMarket.indexOf("R999"));
+        preMarket.verify(registry);
+    }
+
+    public void testPricerFromSnapshot() throws IOException {
+
+        BondRegistry registry = BondRegistry.loadDefault();
+        PreMarketSnapshot.write(registry, SETTLEMENTDATE, file);
+        Bond bond = registry.getRequired("R2030");
+
+        BondPricer pricer = new BondPricer(bond, PreMarketSnapshot.map(file).getSnapshot("R2030"));
+        BondPricer expected = new BondPricer(bond, SETTLEMENTDATE);
+        assertEquals(expected.getBondDetails(9.125), pricer.getBondDetails(9.125));
+        assertEquals(expected.getYieldFromCleanPrice(95.5), pricer.getYieldFromCleanPrice(95.5));
+        try {
+            new BondPricer(Bond.of(BondType.R186), pricer.getSettlementSnapshot());
+            fail("Expected a snapshot of another bond to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("different bond"));
+        }
+    }
+
+    public void testMaturedBondsAreSkipped() throws IOException {
+
+        BondRegistry registry = BondRegistry.of(List.of(Bond.of(BondType.R186),
+                BondRegistry.loadDefault().getRequired("R2030")));
+        LocalDate settlementDate = BondType.R186.getBondDetails().maturityDate();
+        assertEquals(1, PreMarketSnapshot.write(registry, settlementDate, file));
+
+        PreMarketSnapshot preMarket = PreMarketSnapshot.map(file);
+        assertEquals("R2030", preMarket.getBondName(0));
+        preMarket.verify(registry);
+        try {
+            preMarket.getSnapshot("R186");
+            fail("Expected a matured bond to be missing");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("R186"));
+        }
+    }
+
+    public void testVerifyRejectsChangedRegistry() throws IOException {
+
+        BondRegistry registry = BondRegistry.load(new StringReader(
+                "R186,2026-12-21,10.5,06-21,12-21,06-11,12-11\n"));
+        PreMarketSnapshot.write(registry, SETTLEMENTDATE, file);
+        PreMarketSnapshot preMarket = PreMarketSnapshot.map(file);
+
+        try {
+            preMarket.verify(BondRegistry.load(new StringReader("R186,2026-12-21,10.25,06-21,12-21,06-11,12-11\n")));
+            fail("Expected changed bond details to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("different bond details"));
+        }
+        try {
+            preMarket.verify(BondRegistry.loadDefault());
+            fail("Expected a missing bond to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("No pre-market snapshot"));
+        }
+    }
+
+    public void testMapRejectsInvalidFiles() throws IOException {
+
+        Files.write(file, new byte[] { 1, 2, 3 });
+        try {
+            PreMarketSnapshot.map(file);
+            fail("Expected a short file to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Not a pre-market snapshot"));
+        }
+
+        PreMarketSnapshot.write(BondRegistry.loadDefault(), SETTLEMENTDATE, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        try {
+            PreMarketSnapshot.map(file);
+            fail("Expected a truncated file to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Truncated"));
+        }
+    }
+
+    public void testWarmUpAndCheckPrices() throws IOException {
+
+        PreMarketSnapshot.write(BondRegistry.loadDefault(), SETTLEMENTDATE, file);
+        PreMarketSnapshot preMarket = PreMarketSnapshot.map(file);
+
+        assertTrue(PricerWarmup.warmUp(preMarket.getSnapshots(), 100) > 0);
+        SettlementSnapshot snapshot = preMarket.getSnapshot("R2030");
+        assertTrue(Arrays.equals(snapshot.getBondPrices(9.125), PricerWarmup.checkPrices(snapshot, 9.125)));
+
+        SettlementSnapshot stale = new SettlementSnapshot(snapshot.getBondDetails(), snapshot.getSettlementDate(),
+                snapshot.getNextCouponDate(), snapshot.getLastCouponDate(), snapshot.getBooksCloseDate(),
+                snapshot.getNumberRemainingCoupons(), snapshot.getDaysAccrued(),
+                snapshot.getUnroundedAccruedInterest(), snapshot.getBrokenPeriod() + 0.01);
+        try {
+            PricerWarmup.checkPrices(stale, 9.125);
+            fail("Expected prices from a wrong snapshot to be rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("differ"));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the latest-price cache.
+ */
+public class PriceCacheTest
+        extends TestCase {
+
+    private static final LocalDate SETTLEMENTDATE = LocalDate.of(2024, 5, 16);
+
+    private final BondRegistry registry = BondRegistry.loadDefault();
+
+    public void testPublishedPricesMatchPricer() {
+
+        PriceCache cache = new PriceCache(registry.getBonds(), SETTLEMENTDATE);
+        double[] prices = new double[4];
+        assertFalse(cache.getPrices("R2030", prices));
+
+        cache.publish("R2030", 9.125);
+        assertTrue(cache.getPrices("R2030", prices));
+        BondPricer pricer = new BondPricer(registry.getRequired("R2030"), SETTLEMENTDATE);
+        double[] expected = pricer.getBondPrices(9.125);
+        assertEquals(9.125, prices[0]);
+        assertEquals(expected[0], prices[1]);
+        assertEquals(expected[1], prices[2]);
+        assertEquals(pricer.getAccruedInterest(), prices[3]);
+        assertFalse(cache.getPrices("R186", prices));
+
+        try {
+            cache.publish("R999", 9.0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("R999"));
+        }
+    }
+
+    public void testRollInvalidatesEveryPrice() {
+
+        PriceCache cache = new PriceCache(registry.getBonds(), SETTLEMENTDATE);
+        for (Bond bond : registry.getBonds()) {
+            cache.publish(bond.name(), 10.0);
+        }
+        double[] prices = new double[4];
+        assertTrue(cache.getPrices("R2048", prices));
+
+        LocalDate nextDay = SETTLEMENTDATE.plusDays(1);
+        cache.setSettlementDate(nextDay);
+        assertEquals(nextDay, cache.getSettlementDate());
+        for (Bond bond : registry.getBonds()) {
+            assertFalse(bond.name(), cache.getPrices(bond.name(), prices));
+        }
+        cache.publish("R2048", 10.0);
+        assertTrue(cache.getPrices("R2048", prices));
+        assertEquals(new BondPricer(registry.getRequired("R2048"), nextDay).getAccruedInterest(), prices[3]);
+
+        cache.invalidateAll();
+        assertFalse(cache.getPrices("R2048", prices));
+    }
+
+    public void testReadersSeeConsistentTuples() throws InterruptedException {
+
+        // The writer cycles through yields whose prices are known, readers check every tuple they see
+        PriceCache cache = new PriceCache(registry.getBonds(), SETTLEMENTDATE);
+        SettlementSnapshot snapshot = SettlementSnapshot.of(registry.getRequired("R2035").details(),
+                SETTLEMENTDATE);
+        double[][] expected = new double[100][];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = snapshot.getBondPrices(8.0 + i / 100.0);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            Thread reader = new Thread(() -> {
+                double[] prices = new double[4];
+                while (running.get()) {
+                    if (cache.getPrices("R2035", prices)) {
+                        int i = (int) Math.round((prices[0] - 8.0) * 100);
+                        if (prices[1] != expected[i][0] || prices[2] != expected[i][1]) {
+                            failure.set("Torn read at yield " + prices[0]);
+                        }
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (int n = 0; n < 200000; n++) {
+            cache.publish("R2035", 8.0 + (n % expected.length) / 100.0);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+}
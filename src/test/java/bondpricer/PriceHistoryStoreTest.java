@@ -0,0 +1,132 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the price history store.
+ */
+public class PriceHistoryStoreTest
+        extends TestCase {
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("prices");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static PriceHistory revalue(final Bond bond, final LocalDate from, final int days) {
+        LocalDate[] dates = new LocalDate[days];
+        double[] yields = new double[days];
+        for (int i = 0; i < days; i++) {
+            dates[i] = from.plusDays(i);
+            yields[i] = 8.0 + i / 100.0;
+        }
+        return HistoricalRevaluer.revalue(bond, from, dates[days - 1], dates, yields);
+    }
+
+    public void testAppendAndRead() throws IOException {
+
+        Bond bond = Bond.of(BondType.R186);
+        PriceHistory first = revalue(bond, LocalDate.of(2024, 1, 1), 100);
+        PriceHistory second = revalue(bond, LocalDate.of(2024, 4, 10), 50);
+        PriceHistoryStore store = PriceHistoryStore.open(directory);
+        store.append(first);
+        store.append(second);
+
+        assertEquals(Arrays.asList("R186"), store.getBondNames());
+        assertEquals(150, store.size("R186"));
+        PriceSeries series = store.read("R186");
+        assertEquals(150, series.size());
+        for (int i = 0; i < series.size(); i++) {
+            PriceHistory history = (i < 100) ? first : second;
+            int j = (i < 100) ? i : i - 100;
+            assertEquals(history.getSettlementDate(j), series.getSettlementDate(i));
+            assertEquals(history.getYield(j), series.getYield(i));
+            assertEquals(history.getCleanPrice(j), series.getCleanPrice(i));
+            assertEquals(history.getAllInPrice(j), series.getAllInPrice(i));
+            assertEquals(history.getAccruedInterest(j), series.getAccruedInterest(i));
+        }
+        assertEquals(100, series.indexOf(LocalDate.of(2024, 4, 10)));
+        assertEquals(99, series.indexOf(LocalDate.of(2024, 4, 9)));
+        assertEquals(-151, series.indexOf(LocalDate.of(2025, 1, 1)));
+        assertEquals(-1, series.indexOf(LocalDate.of(2023, 12, 31)));
+    }
+
+    public void testAppendIsAfterLastDate() throws IOException {
+
+        Bond bond = Bond.of(BondType.R186);
+        PriceHistoryStore store = PriceHistoryStore.open(directory);
+        store.append(revalue(bond, LocalDate.of(2024, 1, 1), 10));
+        try {
+            store.append(revalue(bond, LocalDate.of(2024, 1, 10), 10));
+            fail("Expected an overlapping append to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(10, store.size("R186"));
+    }
+
+    public void testInterruptedAppendIsIgnored() throws IOException {
+
+        Bond bond = Bond.of(BondType.R186);
+        PriceHistoryStore store = PriceHistoryStore.open(directory);
+        store.append(revalue(bond, LocalDate.of(2024, 1, 1), 10));
+        // An append that wrote some prices but not the dates
+        try (FileChannel channel = FileChannel.open(directory.resolve("R186").resolve(PriceHistoryStore.YIELD),
+                StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(3 * Double.BYTES));
+        }
+        assertEquals(10, store.size("R186"));
+
+        store.append(revalue(bond, LocalDate.of(2024, 1, 11), 5));
+        PriceSeries series = store.read("R186");
+        assertEquals(15, series.size());
+        assertEquals(8.0, series.getYield(10));
+    }
+
+    public void testFromBondDetails() {
+
+        Bond bond = Bond.of(BondType.R186);
+        PriceHistory revalued = revalue(bond, LocalDate.of(2024, 5, 1), 60);
+        LocalDate[] dates = new LocalDate[revalued.size()];
+        double[] yields = new double[revalued.size()];
+        List<Map<String, Object>> bondDetails = new ArrayList<>();
+        BondPricer pricer = new BondPricer(bond, LocalDate.of(2024, 5, 1));
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = revalued.getSettlementDate(i);
+            yields[i] = revalued.getYield(i);
+            pricer.setSettlementDate(dates[i]);
+            bondDetails.add(pricer.getBondDetails(yields[i]));
+        }
+        PriceHistory converted = PriceHistory.fromBondDetails("R186", dates, yields, bondDetails);
+
+        for (int i = 0; i < dates.length; i++) {
+            assertEquals(revalued.getCleanPrice(i), converted.getCleanPrice(i));
+            assertEquals(revalued.getAllInPrice(i), converted.getAllInPrice(i));
+            assertEquals(revalued.getAccruedInterest(i), converted.getAccruedInterest(i));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for pricer metrics.
+ */
+public class PricerMetricsTest
+        extends TestCase {
+
+    public void testCountsCallsAndBranches() {
+
+        Bond bond = Bond.of(BondType.R186);
+        LocalDate maturityDate = bond.details().maturityDate();
+        PricerMetrics metrics = new PricerMetrics();
+        BondPricer pricer = new BondPricer(bond, LocalDate.of(2024, 5, 16));
+        pricer.setMetrics(metrics);
+
+        pricer.getBondPrices(8.5);
+        pricer.getAllInPrice(8.5);
+        pricer.getBondPrices(new double[] { 8.0, 8.5, 9.0 }, new double[3], new double[3]);
+        // Inside the final coupon period the money market formula is used
+        pricer.setSettlementDate(maturityDate.minusDays(3));
+        pricer.getCleanPrice(8.5);
+        pricer.getRiskMeasures(8.5);
+        pricer.getBondDetails(8.5);
+
+        assertEquals(List.of("R186"), metrics.getBondNames());
+        assertEquals(1, metrics.getCalls("R186", PricerMetrics.Method.BONDPRICES));
+        assertEquals(1, metrics.getCalls("R186", PricerMetrics.Method.BONDPRICESBATCH));
+        assertEquals(1, metrics.getCalls("R186", PricerMetrics.Method.SETSETTLEMENTDATE));
+        assertEquals(1, metrics.getCalls("R186", PricerMetrics.Method.PRICINGDETAILS));
+        assertEquals(0, metrics.getCalls("R186", PricerMetrics.Method.YIELD));
+        assertEquals(5, metrics.getStandardPrices("R186"));
+        assertEquals(3, metrics.getMoneyMarketPrices("R186"));
+        assertEquals(1, metrics.getSettlementLatency().getCount());
+        assertEquals(1, metrics.getBatchLatency().getCount());
+
+        pricer.setMetrics(null);
+        pricer.getCleanPrice(8.5);
+        assertEquals(1, metrics.getCalls("R186", PricerMetrics.Method.CLEANPRICE));
+
+        metrics.reset();
+        assertEquals(0, metrics.getMoneyMarketPrices("R186"));
+        assertEquals(0, metrics.getSettlementLatency().getCount());
+    }
+
+    public void testSolverEvaluationsAreCounted() {
+
+        PricerMetrics metrics = new PricerMetrics();
+        BondPricer pricer = new BondPricer(BondType.R2032, LocalDate.of(2024, 5, 16));
+        pricer.setMetrics(metrics);
+
+        pricer.getYieldFromCleanPrice(95.0);
+        assertEquals(1, metrics.getCalls("R2032", PricerMetrics.Method.YIELD));
+        assertEquals(pricer.getSolverIterations(), metrics.getStandardPrices("R2032"));
+    }
+
+    public void testEmitsFlightRecorderEvents() throws IOException {
+
+        Path file = Files.createTempFile("pricer", ".jfr");
+        try {
+            PricerMetrics metrics = new PricerMetrics();
+            BondPricer pricer = new BondPricer(BondType.R186, LocalDate.of(2024, 5, 16));
+            pricer.setMetrics(metrics);
+            try (Recording recording = new Recording()) {
+                recording.enable("bondpricer.SettlementUpdate");
+                recording.enable("bondpricer.BatchPricing");
+                recording.start();
+                pricer.setSettlementDate(LocalDate.of(2024, 5, 17));
+                pricer.getBondPrices(new double[] { 8.0, 9.0 }, new double[2], new double[2]);
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(2, events.size());
+            for (RecordedEvent event : events) {
+                assertEquals("R186", event.getString("bond"));
+                // The event spans the timed work, so the duration is the JFR duration, not a field
+                assertTrue(event.getDuration().toNanos() > 0);
+                assertFalse(event.hasField("nanos"));
+                assertFalse(event.hasField("startNanos"));
+                if (event.getEventType().getName().equals("bondpricer.SettlementUpdate")) {
+                    assertEquals("2024-05-17", event.getString("settlementDate"));
+                } else {
+                    assertEquals("BONDPRICESBATCH", event.getString("method"));
+                    assertEquals(2, event.getInt("prices"));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
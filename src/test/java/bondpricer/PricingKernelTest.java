@@ -0,0 +1,81 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the struct-of-arrays pricing kernel.
+ */
+public class PricingKernelTest
+        extends TestCase {
+
+    private final List<SettlementSnapshot> snapshots = new ArrayList<>();
+    private double[] yields;
+
+    @Override
+    protected void setUp() {
+        // Every bond on dates that cover cum, ex and money market settlements
+        Random random = new Random(16);
+        for (LocalDate date = LocalDate.of(2015, 1, 5); date.isBefore(LocalDate.of(2049, 1, 1));
+                date = date.plusDays(11)) {
+            for (Bond bond : BondRegistry.loadDefault().getBonds()) {
+                if (date.isBefore(bond.details().maturityDate())) {
+                    snapshots.add(SettlementSnapshot.of(bond.details(), date));
+                }
+            }
+        }
+        yields = new double[snapshots.size()];
+        for (int i = 0; i < yields.length; i++) {
+            yields[i] = 2.0 + random.nextInt(1500) / 100.0;
+        }
+    }
+
+    public void testScalarKernelMatchesSnapshots() {
+
+        PricingKernel kernel = PricingKernel.of(snapshots, false);
+        assertFalse(kernel.isVectorized());
+        assertEquals(snapshots.size(), kernel.size());
+        double[] cleanPrices = new double[yields.length];
+        double[] allInPrices = new double[yields.length];
+        kernel.getBondPrices(yields, cleanPrices, allInPrices);
+        for (int i = 0; i < yields.length; i++) {
+            double[] prices = snapshots.get(i).getBondPrices(yields[i]);
+            assertEquals(prices[0], cleanPrices[i]);
+            assertEquals(prices[1], allInPrices[i]);
+        }
+    }
+
+    public void testVectorKernelMatchesSnapshots() {
+
+        // The build adds the Vector API module to the test JVM
+        PricingKernel kernel = PricingKernel.of(snapshots);
+        assertTrue(kernel.isVectorized());
+        double[] allInPrices = new double[yields.length];
+        kernel.calculateAllInPrices(yields, allInPrices);
+        for (int i = 0; i < yields.length; i++) {
+            double expected = snapshots.get(i).calculateAllInPrice(yields[i]);
+            assertEquals(expected, allInPrices[i], Math.ulp(expected) * 8);
+        }
+        double[] cleanPrices = new double[yields.length];
+        kernel.getBondPrices(yields, cleanPrices, allInPrices);
+        for (int i = 0; i < yields.length; i++) {
+            double[] prices = snapshots.get(i).getBondPrices(yields[i]);
+            assertEquals(prices[0], cleanPrices[i], 1.5e-5);
+            assertEquals(prices[1], allInPrices[i], 1.5e-5);
+        }
+    }
+
+    public void testShortArraysAreRejected() {
+
+        PricingKernel kernel = PricingKernel.of(snapshots);
+        try {
+            kernel.getBondPrices(new double[1], new double[yields.length], new double[yields.length]);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("yields"));
+        }
+    }
+}
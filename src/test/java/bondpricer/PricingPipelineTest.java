@@ -0,0 +1,172 @@
+package bondpricer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the streaming pricing pipeline.
+ */
+public class PricingPipelineTest
+        extends TestCase {
+
+    private static Map<String, SettlementSnapshot> snapshots(final LocalDate settlementDate) {
+        Map<String, SettlementSnapshot> snapshots = new HashMap<>();
+        for (BondType bondType : BondType.values()) {
+            snapshots.put(bondType.name(), SettlementSnapshot.of(bondType.getBondDetails(), settlementDate));
+        }
+        return snapshots;
+    }
+
+    public void testPublishesLatestPricePerBond() throws Exception {
+
+        Path file = Files.createTempFile("ticks", ".csv");
+        try {
+            StringBuilder ticks = new StringBuilder("# bond,yield\n");
+            for (int i = 0; i < 20000; i++) {
+                ticks.append(i % 2 == 0 ? "R186" : "R2032").append(',').append(8 + (i % 100) / 100.0).append('\n');
+            }
+            ticks.append("R999,9.0\n");
+            ticks.append("R186,8.75\n");
+            ticks.append("R2032,9.5\n");
+            Files.writeString(file, ticks);
+
+            PricingPipeline pipeline = new PricingPipeline(snapshots(LocalDate.of(2017, 2, 7)));
+            Map<String, double[]> latest = new ConcurrentHashMap<>();
+            pipeline.subscribe((bondName, yield, cleanPrice, allInPrice) ->
+                    latest.put(bondName, new double[] { yield, cleanPrice, allInPrice }));
+            pipeline.run(new FileTickReplayer(file, false));
+
+            BondPricer bondR186 = new BondPricer(BondType.R186, LocalDate.of(2017, 2, 7));
+            assertEquals(8.75, latest.get("R186")[0]);
+            assertEquals(111.39181, latest.get("R186")[1]);
+            assertEquals(112.77263, latest.get("R186")[2]);
+            assertEquals(bondR186.getCleanPrice(8.75), latest.get("R186")[1]);
+            BondPricer bondR2032 = new BondPricer(BondType.R2032, LocalDate.of(2017, 2, 7));
+            assertEquals(bondR2032.getBondPrices(9.5)[0], latest.get("R2032")[1]);
+            assertEquals(bondR2032.getBondPrices(9.5)[1], latest.get("R2032")[2]);
+
+            assertEquals(20003, pipeline.getTicksReceived());
+            assertEquals(1, pipeline.getTicksRejected());
+            assertEquals(pipeline.getTicksReceived(), pipeline.getPricesPublished()
+                    + pipeline.getTicksConflated() + pipeline.getTicksRejected());
+            assertEquals(pipeline.getPricesPublished(), pipeline.getLatency().getCount());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testSlowListenerConflates() throws Exception {
+
+        PricingPipeline pipeline = new PricingPipeline(snapshots(LocalDate.of(2024, 5, 16)));
+        pipeline.subscribe((bondName, yield, cleanPrice, allInPrice) -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        TickSource source = new TickSource() {
+            private int remaining = 10000;
+
+            @Override
+            public YieldTick next() {
+                return remaining-- > 0 ? new YieldTick("R2032", 9.0, System.nanoTime()) : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        pipeline.run(source);
+
+        assertTrue(pipeline.getTicksConflated() > 0);
+        assertTrue(pipeline.getPricesPublished() < 10000);
+        assertEquals(10000, pipeline.getPricesPublished() + pipeline.getTicksConflated());
+    }
+
+    public void testFailingListenerDoesNotStopPricing() throws Exception {
+
+        PricingPipeline pipeline = new PricingPipeline(snapshots(LocalDate.of(2024, 5, 16)));
+        pipeline.subscribe((bondName, yield, cleanPrice, allInPrice) -> {
+            throw new IllegalStateException("listener failed");
+        });
+        Map<String, double[]> latest = new ConcurrentHashMap<>();
+        pipeline.subscribe((bondName, yield, cleanPrice, allInPrice) ->
+                latest.put(bondName, new double[] { yield, cleanPrice, allInPrice }));
+        TickSource source = new TickSource() {
+            private int remaining = 1000;
+
+            @Override
+            public YieldTick next() {
+                return remaining-- > 0 ? new YieldTick("R186", 8.0 + remaining / 1000.0, System.nanoTime()) : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            pipeline.run(source);
+            fail("Expected the listener failure to be reported");
+        } catch (IllegalStateException e) {
+            assertEquals("listener failed", e.getCause().getMessage());
+        }
+
+        // Every tick was still priced and published to the other listener
+        assertEquals(1000, pipeline.getPricesPublished() + pipeline.getTicksConflated());
+        assertEquals(pipeline.getPricesPublished(), pipeline.getListenerFailures());
+        assertEquals(8.0, latest.get("R186")[0]);
+        assertEquals(new BondPricer(BondType.R186, LocalDate.of(2024, 5, 16)).getAllInPrice(8.0),
+                latest.get("R186")[2]);
+    }
+
+    public void testRejectsMalformedTick() throws IOException {
+
+        Path file = Files.createTempFile("ticks", ".csv");
+        try {
+            Files.writeString(file, "R186;8.75\n");
+            try (FileTickReplayer replayer = new FileTickReplayer(file, false)) {
+                replayer.next();
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testLatencyHistogramPercentiles() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 10);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500005.0, histogram.getMean(), 1e-6);
+        assertEquals(500000, histogram.getValueAtPercentile(50), 500000 / 128);
+        assertEquals(990000, histogram.getValueAtPercentile(99), 990000 / 128);
+        assertEquals(1000000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    public void testLatencyHistogramBuckets() {
+
+        for (long value = 0; value < 1 << 20; value += 7) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+        }
+        assertEquals(LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)), Long.MAX_VALUE);
+    }
+}
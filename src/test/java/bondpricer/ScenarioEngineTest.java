@@ -0,0 +1,149 @@
+package bondpricer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the scenario engine.
+ */
+public class ScenarioEngineTest
+        extends TestCase {
+
+    private final List<Bond> bonds = new ArrayList<>(BondRegistry.loadDefault().getBonds());
+    private final String[] bondNames = new String[bonds.size()];
+    private final double[] baseYields = new double[bonds.size()];
+
+    @Override
+    protected void setUp() {
+        for (int b = 0; b < bonds.size(); b++) {
+            bondNames[b] = bonds.get(b).name();
+            baseYields[b] = 8.0 + b * 0.3;
+        }
+    }
+
+    private List<Position> randomPositions(final int count, final Random random) {
+        List<Position> positions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            positions.add(new Position(bonds.get(random.nextInt(bonds.size())),
+                    (random.nextInt(200) - 100) * 1_000_000.0, 0,
+                    LocalDate.of(2024, 5, 16).plusDays(random.nextInt(3))));
+        }
+        return positions;
+    }
+
+    public void testPnlMatchesPricer() {
+
+        Random random = new Random(19);
+        List<Position> positions = randomPositions(300, random);
+        double[][] shocks = new double[40][bondNames.length];
+        for (double[] row : shocks) {
+            for (int b = 0; b < row.length; b++) {
+                row[b] = (random.nextInt(401) - 200) / 1000.0;
+            }
+        }
+        ScenarioResult result = new ScenarioEngine(new ForkJoinPool(3)).run(positions, bondNames, baseYields,
+                shocks);
+        assertEquals(shocks.length, result.size());
+        assertEquals(bondNames.length * 3, result.getSettlementGroups());
+
+        double baseValue = 0;
+        double[] expected = new double[shocks.length];
+        for (Position position : positions) {
+            int b = bonds.indexOf(position.bond());
+            BondPricer pricer = new BondPricer(position.bond(), position.settlementDate());
+            double base = position.nominal() * pricer.getAllInPrice(baseYields[b]) / 100;
+            baseValue += base;
+            for (int s = 0; s < shocks.length; s++) {
+                expected[s] += position.nominal() * pricer.getAllInPrice(baseYields[b] + shocks[s][b]) / 100
+                        - base;
+            }
+        }
+        assertEquals(baseValue, result.getBaseValue(), 1e-6 * Math.abs(baseValue));
+        for (int s = 0; s < shocks.length; s++) {
+            assertEquals(expected[s], result.getPnl(s), 1e-3);
+        }
+        double[] r2048 = result.getBondPnl("R2048");
+        double[] pnl = result.getPnl();
+        assertEquals(shocks.length, r2048.length);
+        double sum = 0;
+        for (String bondName : bondNames) {
+            sum += result.getBondPnl(bondName)[7];
+        }
+        assertEquals(pnl[7], sum, 1e-3);
+    }
+
+    public void testValueAtRiskAndExpectedShortfall() {
+
+        // One long position with scenario s shifting every yield up by s basis points
+        List<Position> positions = List.of(new Position(bonds.get(0), 1_000_000.0, 0,
+                LocalDate.of(2024, 5, 16)));
+        double[][] shocks = new double[100][bondNames.length];
+        for (int s = 0; s < shocks.length; s++) {
+            Arrays.fill(shocks[s], s / 100.0);
+        }
+        ScenarioResult result = new ScenarioEngine().run(positions, bondNames, baseYields, shocks);
+        assertEquals(0.0, result.getPnl(0));
+        double[] pnl = result.getPnl();
+        for (int s = 1; s < pnl.length; s++) {
+            assertTrue(pnl[s] < pnl[s - 1]);
+        }
+        // The 5 worst scenarios are 95 to 99 basis points
+        assertEquals(-pnl[95], result.getValueAtRisk(0.95));
+        assertEquals(-(pnl[95] + pnl[96] + pnl[97] + pnl[98] + pnl[99]) / 5, result.getExpectedShortfall(0.95),
+                1e-9);
+        assertEquals(-pnl[99], result.getValueAtRisk(0.99));
+        assertEquals(-pnl[99], result.getExpectedShortfall(0.999));
+    }
+
+    public void testNamesWithSameDetailsAreNotNetted() {
+
+        // Two names with the same terms, such as a reopened line, each priced at its own yield
+        BondDetails details = bonds.get(0).details();
+        LocalDate settlementDate = LocalDate.of(2024, 5, 16);
+        List<Position> positions = List.of(new Position(new Bond("A", details), 1_000_000.0, 0, settlementDate),
+                new Position(new Bond("B", details), -1_000_000.0, 0, settlementDate));
+        double[][] shocks = { { 0.0, 0.5 } };
+        ScenarioResult result = new ScenarioEngine().run(positions, new String[] { "A", "B" },
+                new double[] { 8.0, 10.0 }, shocks);
+        assertEquals(2, result.getSettlementGroups());
+
+        SettlementSnapshot snapshot = SettlementSnapshot.of(details, settlementDate);
+        double baseA = 1_000_000.0 * snapshot.getAllInPrice(8.0) / 100;
+        double baseB = -1_000_000.0 * snapshot.getAllInPrice(10.0) / 100;
+        assertEquals(baseA + baseB, result.getBaseValue(), 1e-6);
+        assertEquals(0.0, result.getBondPnl("A")[0]);
+        double pnlB = -1_000_000.0 * snapshot.getAllInPrice(10.5) / 100 - baseB;
+        assertEquals(pnlB, result.getBondPnl("B")[0], 1e-6);
+        assertEquals(pnlB, result.getPnl(0), 1e-6);
+    }
+
+    public void testInvalidInputsAreRejected() {
+
+        ScenarioEngine engine = new ScenarioEngine();
+        List<Position> positions = randomPositions(10, new Random(1));
+        try {
+            engine.run(positions, bondNames, baseYields, new double[][] { new double[1] });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Scenario 0"));
+        }
+        try {
+            engine.run(positions, new String[] { "R186" }, new double[] { 9.0 }, new double[0][1]);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("No base yield"));
+        }
+        ScenarioResult result = engine.run(positions, bondNames, baseYields, new double[0][bondNames.length]);
+        try {
+            result.getValueAtRisk(0.99);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("No scenarios", e.getMessage());
+        }
+    }
+}